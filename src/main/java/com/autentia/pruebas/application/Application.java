@@ -3,8 +3,10 @@ package com.autentia.pruebas.application;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(SampleRuntimeHints.class)
 public class Application {
 
     public static void main(String[] args) {
@@ -0,0 +1,23 @@
+package com.autentia.pruebas.application;
+
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleVersion;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * What a native image can't work out from the bean definitions: Hibernate calls the {@link Sample} and
+ * {@link SampleVersion} constructors from JPQL constructor expressions, the SpEL parameters of the
+ * repository write queries read {@link Sample} getters, and {@code sample-schema.sql} is loaded by name.
+ */
+class SampleRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection()
+                .registerType(Sample.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS)
+                .registerType(SampleVersion.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.resources().registerPattern("sample-schema.sql");
+    }
+}
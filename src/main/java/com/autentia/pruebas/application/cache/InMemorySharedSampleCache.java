@@ -0,0 +1,70 @@
+package com.autentia.pruebas.application.cache;
+
+import com.autentia.pruebas.application.model.Sample;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shared tier for nodes running in the same JVM, looked up by name the way H2 in-memory databases are.
+ * It stands in for a networked store in local runs and tests.
+ */
+@Component
+@ConditionalOnProperty(name = "samples.cache.shared.store", havingValue = "in-memory")
+public class InMemorySharedSampleCache implements SharedSampleCache {
+    private static final ConcurrentMap<String, Cache<Long, Optional<Sample>>> STORES = new ConcurrentHashMap<>();
+
+    private final Cache<Long, Optional<Sample>> store;
+
+    public InMemorySharedSampleCache(@Value("${samples.cache.shared.name:samples}") String name,
+                                     @Value("${samples.cache.maximum-size:10000}") long maximumSize,
+                                     @Value("${samples.cache.ttl:10m}") Duration ttl,
+                                     @Value("${samples.cache.negative-ttl:5s}") Duration negativeTtl) {
+        this.store = STORES.computeIfAbsent(name, storeName -> Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new SampleCache.SampleExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .build());
+    }
+
+    @Override
+    public Optional<Sample> getIfPresent(Long sampleId) {
+        return store.getIfPresent(sampleId);
+    }
+
+    @Override
+    public void put(Long sampleId, Optional<Sample> sample) {
+        store.put(sampleId, sample);
+    }
+
+    @Override
+    public void putIfNewer(Long sampleId, Optional<Sample> sample) {
+        store.asMap().merge(sampleId, sample,
+                (storedSample, loadedSample) -> isNewer(loadedSample, storedSample) ? loadedSample : storedSample);
+    }
+
+    @Override
+    public void evict(Long sampleId) {
+        store.invalidate(sampleId);
+    }
+
+    @Override
+    public void clear() {
+        store.invalidateAll();
+    }
+
+    private static boolean isNewer(Optional<Sample> loadedSample, Optional<Sample> storedSample) {
+        return loadedSample.isPresent() && storedSample.isPresent()
+                && versionOf(loadedSample.get()) > versionOf(storedSample.get());
+    }
+
+    private static long versionOf(Sample sample) {
+        return sample.getVersion() == null ? -1L : sample.getVersion();
+    }
+}
@@ -0,0 +1,46 @@
+package com.autentia.pruebas.application.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers invalidations synchronously to every node of the same channel in this JVM, for local runs
+ * and tests with several application contexts.
+ */
+@Component
+@ConditionalOnProperty(name = "samples.cache.invalidation.transport", havingValue = "loopback")
+public class LoopbackSampleInvalidationTransport implements SampleInvalidationTransport {
+    private static final ConcurrentMap<String, Set<LoopbackSampleInvalidationTransport>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final Set<LoopbackSampleInvalidationTransport> channel;
+    private final List<Consumer<SampleInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    public LoopbackSampleInvalidationTransport(@Value("${samples.cache.invalidation.channel:samples}") String channel) {
+        this.channel = CHANNELS.computeIfAbsent(channel, name -> ConcurrentHashMap.newKeySet());
+        this.channel.add(this);
+    }
+
+    @Override
+    public void publish(SampleInvalidation invalidation) {
+        channel.forEach(node -> node.listeners.forEach(listener -> listener.accept(invalidation)));
+    }
+
+    @Override
+    public void subscribe(Consumer<SampleInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    @PreDestroy
+    public void close() {
+        channel.remove(this);
+    }
+}
@@ -0,0 +1,239 @@
+package com.autentia.pruebas.application.cache;
+
+import com.autentia.pruebas.application.metrics.SampleMetrics;
+import com.autentia.pruebas.application.model.Sample;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of samples by id. Missing ids are cached as empty values with a shorter
+ * time to live, so repeated lookups of unknown ids don't reach the database either.
+ * <p>
+ * Entries are futures: the first miss for an id stores one and loads it outside the cache's map, so a
+ * slow or batched load doesn't hold up writes and invalidations of that id or of its neighbours, and
+ * concurrent misses wait on the same future.
+ * <p>
+ * With several nodes this is the near tier: misses go to the {@link SharedSampleCache} before the
+ * loader, and every change is written through to it and broadcast so the other nodes drop their
+ * near copy.
+ */
+@Component
+public class SampleCache implements MeterBinder {
+    public static final String CACHE_NAME = "samples";
+
+    private final AsyncCache<Long, Optional<Sample>> cache;
+    private final Cache<Long, Optional<Sample>> nearCache;
+    private final SharedSampleCache sharedCache;
+    private final SampleInvalidationTransport invalidationTransport;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final LongAdder receivedInvalidations = new LongAdder();
+    private final AtomicLong changes = new AtomicLong();
+    private final List<Consumer<SampleInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    public SampleCache(long maximumSize, Duration ttl, Duration negativeTtl) {
+        this(maximumSize, ttl, negativeTtl, Optional.empty(), Optional.empty());
+    }
+
+    @Autowired
+    public SampleCache(@Value("${samples.cache.maximum-size:10000}") long maximumSize,
+                       @Value("${samples.cache.ttl:10m}") Duration ttl,
+                       @Value("${samples.cache.negative-ttl:5s}") Duration negativeTtl,
+                       Optional<SharedSampleCache> sharedCache,
+                       Optional<SampleInvalidationTransport> invalidationTransport) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new SampleExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .buildAsync();
+        this.nearCache = cache.synchronous();
+        this.sharedCache = sharedCache.orElse(null);
+        this.invalidationTransport = invalidationTransport.orElse(null);
+        if (this.invalidationTransport != null) {
+            this.invalidationTransport.subscribe(this::invalidated);
+        }
+    }
+
+    /**
+     * Loads misses from the shared tier, then from {@code loader}. A loaded value only goes up to the
+     * shared tier when no change was stored or received while loading, as the load may have read the
+     * row before that change.
+     */
+    public Optional<Sample> get(Long sampleId, Function<Long, CompletableFuture<Optional<Sample>>> loader) {
+        CompletableFuture<Optional<Sample>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<Sample>> sample = cache.get(sampleId, (id, executor) -> load);
+        if (sample == load) {
+            load(sampleId, loader, load);
+        }
+        try {
+            return sample.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * @return the cached value, or {@code null} when the id isn't cached or is still loading
+     */
+    public Optional<Sample> getIfPresent(Long sampleId) {
+        CompletableFuture<Optional<Sample>> cachedSample = cache.getIfPresent(sampleId);
+        if (cachedSample != null && cachedSample.isDone() && !cachedSample.isCompletedExceptionally()) {
+            return cachedSample.join();
+        }
+        if (cachedSample != null || sharedCache == null) {
+            return null;
+        }
+        Optional<Sample> sharedSample = sharedCache.getIfPresent(sampleId);
+        if (sharedSample != null) {
+            cache.asMap().putIfAbsent(sampleId, CompletableFuture.completedFuture(sharedSample));
+        }
+        return sharedSample;
+    }
+
+    public void put(Sample sample) {
+        store(sample.getId(), Optional.of(sample));
+    }
+
+    public void putMissing(Long sampleId) {
+        store(sampleId, Optional.empty());
+    }
+
+    public void evict(Long sampleId) {
+        changes.incrementAndGet();
+        nearCache.invalidate(sampleId);
+        if (sharedCache != null) {
+            sharedCache.evict(sampleId);
+        }
+        publish(sampleId);
+    }
+
+    public void clear() {
+        changes.incrementAndGet();
+        nearCache.invalidateAll();
+        if (sharedCache != null) {
+            sharedCache.clear();
+        }
+        publish(null);
+    }
+
+    /**
+     * Listens to the changes broadcast by other nodes, once this node's near copy has been dropped.
+     */
+    public void subscribe(Consumer<SampleInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    public CacheStats stats() {
+        return nearCache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, nearCache, CACHE_NAME);
+        FunctionCounter.builder(SampleMetrics.CACHE_INVALIDATIONS_COUNTER, receivedInvalidations, LongAdder::sum)
+                .register(registry);
+    }
+
+    private void store(Long sampleId, Optional<Sample> sample) {
+        changes.incrementAndGet();
+        nearCache.put(sampleId, sample);
+        if (sharedCache != null) {
+            sharedCache.put(sampleId, sample);
+        }
+        publish(sampleId);
+    }
+
+    /**
+     * Completes {@code load} from the shared tier or the loader. A write or invalidation of the id
+     * meanwhile replaces or drops the entry, so the loaded value only reaches the callers that waited.
+     */
+    private void load(Long sampleId, Function<Long, CompletableFuture<Optional<Sample>>> loader,
+                      CompletableFuture<Optional<Sample>> load) {
+        try {
+            Optional<Sample> sharedSample = sharedCache == null ? null : sharedCache.getIfPresent(sampleId);
+            if (sharedSample != null) {
+                load.complete(sharedSample);
+                return;
+            }
+            long changesBeforeLoad = changes.get();
+            loader.apply(sampleId).whenComplete((loadedSample, e) -> {
+                if (e != null) {
+                    load.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                    return;
+                }
+                if (sharedCache != null && changes.get() == changesBeforeLoad) {
+                    sharedCache.putIfNewer(sampleId, loadedSample);
+                }
+                load.complete(loadedSample);
+            });
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+        }
+    }
+
+    private void publish(Long sampleId) {
+        if (invalidationTransport != null) {
+            invalidationTransport.publish(new SampleInvalidation(nodeId, sampleId));
+        }
+    }
+
+    private void invalidated(SampleInvalidation invalidation) {
+        if (nodeId.equals(invalidation.origin())) {
+            return;
+        }
+        receivedInvalidations.increment();
+        changes.incrementAndGet();
+        if (invalidation.isAll()) {
+            nearCache.invalidateAll();
+        } else {
+            nearCache.invalidate(invalidation.sampleId());
+        }
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    static class SampleExpiry implements Expiry<Long, Optional<Sample>> {
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        SampleExpiry(long ttlNanos, long negativeTtlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(Long sampleId, Optional<Sample> sample, long currentTime) {
+            return sample.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long sampleId, Optional<Sample> sample, long currentTime, long currentDuration) {
+            return expireAfterCreate(sampleId, sample, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long sampleId, Optional<Sample> sample, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.autentia.pruebas.application.cache;
+
+/**
+ * Tells the other nodes to drop a sample from their near cache, or every sample when {@code sampleId} is
+ * {@code null}. {@code origin} identifies the sending cache so it can skip its own messages.
+ */
+public record SampleInvalidation(String origin, Long sampleId) {
+
+    public boolean isAll() {
+        return sampleId == null;
+    }
+}
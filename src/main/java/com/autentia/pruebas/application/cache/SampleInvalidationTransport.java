@@ -0,0 +1,14 @@
+package com.autentia.pruebas.application.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts near cache invalidations between nodes. Delivery is best effort: a node that misses a
+ * message serves its near copy until it expires.
+ */
+public interface SampleInvalidationTransport {
+
+    void publish(SampleInvalidation invalidation);
+
+    void subscribe(Consumer<SampleInvalidation> listener);
+}
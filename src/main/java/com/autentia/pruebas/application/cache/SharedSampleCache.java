@@ -0,0 +1,29 @@
+package com.autentia.pruebas.application.cache;
+
+import com.autentia.pruebas.application.model.Sample;
+
+import java.util.Optional;
+
+/**
+ * Second cache tier, shared by every node, behind each node's near cache. Like the near cache it holds
+ * empty values for ids known to be missing.
+ */
+public interface SharedSampleCache {
+
+    /**
+     * @return the cached value, or {@code null} when the id isn't cached
+     */
+    Optional<Sample> getIfPresent(Long sampleId);
+
+    void put(Long sampleId, Optional<Sample> sample);
+
+    /**
+     * Stores a value read from the database, unless the tier already holds one. A sample only replaces a
+     * sample with a lower version, so a slow load never overwrites what a writer stored meanwhile.
+     */
+    void putIfNewer(Long sampleId, Optional<Sample> sample);
+
+    void evict(Long sampleId);
+
+    void clear();
+}
@@ -0,0 +1,55 @@
+package com.autentia.pruebas.application.count;
+
+import com.autentia.pruebas.application.repository.SampleRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Number of samples kept without a count query per page. It is counted once, moved along by this
+ * node's creates and deletes, and counted again after the refresh interval to catch up with writes
+ * it didn't see, like other nodes' or dropped write-behind creates.
+ */
+@Component
+@Profile("!reactive")
+public class SampleTotal {
+    private static final long NOT_COUNTED = Long.MIN_VALUE;
+
+    private final SampleRepository sampleRepository;
+    private final long refreshIntervalNanos;
+    private final AtomicLong total = new AtomicLong();
+    private volatile long countedAt = NOT_COUNTED;
+
+    public SampleTotal(SampleRepository sampleRepository,
+                       @Value("${samples.total.refresh-interval:1m}") Duration refreshInterval) {
+        this.sampleRepository = sampleRepository;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+    }
+
+    public long get() {
+        long now = System.nanoTime();
+        if (countedAt == NOT_COUNTED || now - countedAt > refreshIntervalNanos) {
+            recount(now);
+        }
+        return total.get();
+    }
+
+    public void added(long samples) {
+        total.addAndGet(samples);
+    }
+
+    public void removed(long samples) {
+        total.addAndGet(-samples);
+    }
+
+    private synchronized void recount(long now) {
+        if (countedAt != NOT_COUNTED && now - countedAt <= refreshIntervalNanos) {
+            return;
+        }
+        total.set(sampleRepository.count());
+        countedAt = System.nanoTime();
+    }
+}
@@ -0,0 +1,94 @@
+package com.autentia.pruebas.application.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * Reports at startup when the connection pool doesn't match how many threads can ask for a connection
+ * at once: the bulkhead permits when it is enabled, otherwise the Tomcat worker threads, plus the
+ * write-behind flusher and the import workers. A smaller pool makes requests queue inside Hikari until
+ * they time out, and a bigger one keeps connections open that are never used. Mismatches are warnings
+ * once the pool or the bulkhead has been tuned, or with virtual threads; the stock defaults only log them.
+ */
+@Component
+@Profile("!reactive")
+public class DataSourcePoolCheck {
+    private static final Logger log = LoggerFactory.getLogger(DataSourcePoolCheck.class);
+
+    private final DataSource dataSource;
+    private final boolean virtualThreads;
+    private final int tomcatThreads;
+    private final boolean bulkheadEnabled;
+    private final Integer bulkheadPermits;
+    private final boolean writeBehindEnabled;
+    private final int importParallelism;
+    private final boolean poolSizeConfigured;
+
+    public DataSourcePoolCheck(DataSource dataSource,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                               @Value("${server.tomcat.threads.max:200}") int tomcatThreads,
+                               @Value("${samples.bulkhead.enabled:false}") boolean bulkheadEnabled,
+                               @Value("${samples.bulkhead.permits:#{null}}") Integer bulkheadPermits,
+                               @Value("${samples.write-behind.enabled:false}") boolean writeBehindEnabled,
+                               @Value("${samples.import.parallelism:4}") int importParallelism,
+                               @Value("${spring.datasource.hikari.maximum-pool-size:#{null}}") Integer configuredPoolSize) {
+        this.dataSource = dataSource;
+        this.virtualThreads = virtualThreads;
+        this.tomcatThreads = tomcatThreads;
+        this.bulkheadEnabled = bulkheadEnabled;
+        this.bulkheadPermits = bulkheadPermits;
+        this.writeBehindEnabled = writeBehindEnabled;
+        this.importParallelism = importParallelism;
+        this.poolSizeConfigured = configuredPoolSize != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkPoolSize() throws SQLException {
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            check(dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize()).ifPresent(message -> {
+                if (isActionable()) {
+                    log.warn(message);
+                } else {
+                    log.info(message);
+                }
+            });
+        }
+    }
+
+    /**
+     * Whether someone sized the pool or the bulkhead for this deployment, or runs virtual threads, which
+     * no default pool can keep up with.
+     */
+    public boolean isActionable() {
+        return poolSizeConfigured || bulkheadEnabled || virtualThreads;
+    }
+
+    public Optional<String> check(int poolSize) {
+        int backgroundThreads = (writeBehindEnabled ? 1 : 0) + importParallelism;
+        if (!bulkheadEnabled && virtualThreads) {
+            return Optional.of(String.format("Virtual threads without samples.bulkhead.enabled let every request "
+                    + "wait on the %d database connections", poolSize));
+        }
+        int requestThreads = bulkheadEnabled ? (bulkheadPermits == null ? poolSize : bulkheadPermits) : tomcatThreads;
+        int concurrency = requestThreads + backgroundThreads;
+        if (poolSize < concurrency) {
+            return Optional.of(String.format("%d threads can use the %d database connections at once, enable "
+                    + "samples.bulkhead.enabled or resize spring.datasource.hikari.maximum-pool-size", concurrency, poolSize));
+        }
+        if (poolSize > concurrency) {
+            return Optional.of(String.format("Only %d threads can use the %d database connections at once, %d of "
+                    + "them will stay idle", concurrency, poolSize, poolSize - concurrency));
+        }
+        return Optional.empty();
+    }
+}
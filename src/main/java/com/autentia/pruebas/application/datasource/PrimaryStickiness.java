@@ -0,0 +1,24 @@
+package com.autentia.pruebas.application.datasource;
+
+/**
+ * Marks the current thread as serving a client that wrote recently, so its read-only transactions are
+ * sent to the primary instead of a replica that may not have caught up yet.
+ */
+public final class PrimaryStickiness {
+    private static final ThreadLocal<Boolean> STICKY = new ThreadLocal<>();
+
+    private PrimaryStickiness() {
+    }
+
+    public static void stick() {
+        STICKY.set(Boolean.TRUE);
+    }
+
+    public static void release() {
+        STICKY.remove();
+    }
+
+    public static boolean isSticky() {
+        return STICKY.get() != null;
+    }
+}
@@ -0,0 +1,59 @@
+package com.autentia.pruebas.application.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+
+/**
+ * Primary and replica pools behind a {@link ReplicaRoutingDataSource}. The primary keeps the usual
+ * {@code spring.datasource.*} settings and the replica takes its own from {@code samples.datasource.replica.*}.
+ * Init scripts are only meant for an embedded stand-in replica, which nothing replicates into.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty("samples.datasource.replica.enabled")
+public class ReplicaDataSourceConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("samples.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${samples.datasource.replica.url}") String url,
+                                              @Value("${samples.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${samples.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        return DataSourceBuilder.create().type(HikariDataSource.class).url(url).username(username).password(password).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 @Value("${samples.datasource.replica.init-scripts:}") String[] initScripts,
+                                 ResourceLoader resourceLoader) {
+        if (initScripts.length > 0) {
+            DatabasePopulatorUtils.execute(new ResourceDatabasePopulator(Arrays.stream(initScripts)
+                    .map(resourceLoader::getResource).toArray(Resource[]::new)), replicaDataSource);
+        }
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource));
+    }
+}
@@ -3,6 +3,8 @@ package com.autentia.pruebas.application.exceptions;
 public class SampleBadRequestException extends Exception {
     private static final long serialVersionUID = 3L;
     public static final String ERROR_MESSAGE = "Sample id no coincide";
+    public static final String MISSING_ID_MESSAGE = "Sample id es obligatorio";
+    public static final String INVALID_SAMPLE_MESSAGE = "Sample no válido";
 
     public SampleBadRequestException() {
         this(ERROR_MESSAGE);
@@ -0,0 +1,14 @@
+package com.autentia.pruebas.application.exceptions;
+
+public class SampleInvalidCursorException extends Exception {
+    private static final long serialVersionUID = 4L;
+    public static final String ERROR_MESSAGE = "Cursor de paginación no válido";
+
+    public SampleInvalidCursorException() {
+        this(ERROR_MESSAGE);
+    }
+
+    public SampleInvalidCursorException(String errorMessage) {
+        super(errorMessage);
+    }
+}
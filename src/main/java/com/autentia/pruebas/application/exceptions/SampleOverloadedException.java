@@ -0,0 +1,14 @@
+package com.autentia.pruebas.application.exceptions;
+
+public class SampleOverloadedException extends Exception {
+    private static final long serialVersionUID = 5L;
+    public static final String ERROR_MESSAGE = "Servicio saturado, inténtelo más tarde";
+
+    public SampleOverloadedException() {
+        this(ERROR_MESSAGE);
+    }
+
+    public SampleOverloadedException(String errorMessage) {
+        super(errorMessage);
+    }
+}
@@ -0,0 +1,14 @@
+package com.autentia.pruebas.application.exceptions;
+
+public class SamplePreconditionFailedException extends Exception {
+    private static final long serialVersionUID = 6L;
+    public static final String ERROR_MESSAGE = "Sample ha cambiado, vuelva a leerlo antes de modificarlo";
+
+    public SamplePreconditionFailedException() {
+        this(ERROR_MESSAGE);
+    }
+
+    public SamplePreconditionFailedException(String errorMessage) {
+        super(errorMessage);
+    }
+}
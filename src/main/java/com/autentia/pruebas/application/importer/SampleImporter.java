@@ -0,0 +1,194 @@
+package com.autentia.pruebas.application.importer;
+
+import com.autentia.pruebas.application.cache.SampleCache;
+import com.autentia.pruebas.application.count.SampleTotal;
+import com.autentia.pruebas.application.metrics.SampleMetrics;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleImportChunk;
+import com.autentia.pruebas.application.model.SampleImportPolicy;
+import com.autentia.pruebas.application.model.SampleImportResult;
+import com.autentia.pruebas.application.repository.SampleRepository;
+import com.autentia.pruebas.application.search.SampleNameIndex;
+import com.autentia.pruebas.application.store.SampleStore;
+import com.autentia.pruebas.application.writebehind.SampleWriteBehind;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Loads a stream of samples in chunks of {@code chunk-size} rows, each one in its own transaction with
+ * batched statements, on {@code parallelism} worker threads. Reading waits while every worker is busy,
+ * so an import holds at most {@code parallelism + 1} chunks in memory however big the upload is.
+ * <p>
+ * Chunks are independent: one that fails is rolled back and reported while the rest are kept, and two
+ * chunks racing on the same new id make the later one fail. Once a chunk commits, only its ids are
+ * evicted from the cache, so other nodes read just those rows again and the rest stay cached.
+ */
+@Component
+@Profile("!reactive")
+public class SampleImporter {
+    private final SampleRepository sampleRepository;
+    private final SampleCache sampleCache;
+    private final SampleNameIndex sampleNameIndex;
+    private final SampleWriteBehind sampleWriteBehind;
+    private final SampleTotal sampleTotal;
+    private final SampleStore sampleStore;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int parallelism;
+    private final ExecutorService executor;
+    private final Counter createdCounter;
+    private final Counter updatedCounter;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+
+    public SampleImporter(SampleRepository sampleRepository, SampleCache sampleCache, SampleNameIndex sampleNameIndex,
+                          SampleWriteBehind sampleWriteBehind, SampleTotal sampleTotal, SampleStore sampleStore,
+                          PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                          @Value("${samples.import.chunk-size:5000}") int chunkSize,
+                          @Value("${samples.import.parallelism:4}") int parallelism) {
+        this.sampleRepository = sampleRepository;
+        this.sampleCache = sampleCache;
+        this.sampleNameIndex = sampleNameIndex;
+        this.sampleWriteBehind = sampleWriteBehind;
+        this.sampleTotal = sampleTotal;
+        this.sampleStore = sampleStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.executor = Executors.newFixedThreadPool(parallelism, Thread.ofPlatform().name("sample-import-", 0).daemon().factory());
+        this.createdCounter = meterRegistry.counter(SampleMetrics.IMPORT_ROWS_COUNTER, "status", "created");
+        this.updatedCounter = meterRegistry.counter(SampleMetrics.IMPORT_ROWS_COUNTER, "status", "updated");
+        this.rejectedCounter = meterRegistry.counter(SampleMetrics.IMPORT_ROWS_COUNTER, "status", "rejected");
+        this.failedCounter = meterRegistry.counter(SampleMetrics.IMPORT_ROWS_COUNTER, "status", "failed");
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Imports every sample the iterator returns. Rows whose id already exists are rejected or updated
+     * depending on the policy, and rows without an id are always rejected. An exception thrown by the
+     * iterator ends the import after the rows read so far are loaded.
+     */
+    public SampleImportResult importSamples(Iterator<Sample> samples, SampleImportPolicy policy) {
+        sampleWriteBehind.flush();
+        Semaphore workers = new Semaphore(parallelism);
+        List<CompletableFuture<SampleImportChunk>> chunks = new ArrayList<>();
+        List<Sample> chunk = new ArrayList<>(chunkSize);
+        SampleImportChunk unreadable = null;
+        long rows = 0;
+
+        try {
+            while (samples.hasNext()) {
+                chunk.add(samples.next());
+                rows++;
+                if (chunk.size() == chunkSize) {
+                    chunks.add(submit(chunk, rows - chunk.size() + 1, policy, workers));
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (RuntimeException e) {
+            unreadable = new SampleImportChunk(rows + 1, rows + 1, 0, 0, 0, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(submit(chunk, rows - chunk.size() + 1, policy, workers));
+        }
+
+        SampleImportResult result = new SampleImportResult(rows, 0, 0, 0, 0, unreadable == null, new ArrayList<>());
+        for (CompletableFuture<SampleImportChunk> future : chunks) {
+            SampleImportChunk loadedChunk = future.join();
+            result.setCreated(result.getCreated() + loadedChunk.getCreated());
+            result.setUpdated(result.getUpdated() + loadedChunk.getUpdated());
+            result.setRejected(result.getRejected() + loadedChunk.getRejected());
+            if (loadedChunk.getError() != null) {
+                result.setFailed(result.getFailed() + loadedChunk.getTo() - loadedChunk.getFrom() + 1);
+            }
+            if (loadedChunk.getError() != null || loadedChunk.getRejected() > 0) {
+                result.getErrors().add(loadedChunk);
+            }
+        }
+        if (unreadable != null) {
+            result.getErrors().add(unreadable);
+        }
+        return result;
+    }
+
+    private CompletableFuture<SampleImportChunk> submit(List<Sample> chunk, long from, SampleImportPolicy policy, Semaphore workers) {
+        workers.acquireUninterruptibly();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return load(chunk, from, policy);
+            } finally {
+                workers.release();
+            }
+        }, executor);
+    }
+
+    private SampleImportChunk load(List<Sample> samples, long from, SampleImportPolicy policy) {
+        long to = from + samples.size() - 1;
+        List<Sample> samplesToInsert = new ArrayList<>();
+        List<Sample> samplesToUpdate = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<Long> existingIds = new HashSet<>(sampleRepository.findExistingIds(idsOf(samples)));
+                for (Sample sample : samples) {
+                    if (sample.getId() == null) {
+                        continue;
+                    }
+                    if (existingIds.add(sample.getId())) {
+                        samplesToInsert.add(sample);
+                    } else if (policy == SampleImportPolicy.UPSERT) {
+                        samplesToUpdate.add(sample);
+                    }
+                }
+                sampleRepository.insertAll(samplesToInsert);
+                sampleRepository.updateAll(samplesToUpdate);
+            });
+        } catch (RuntimeException e) {
+            failedCounter.increment(samples.size());
+            return new SampleImportChunk(from, to, 0, 0, 0, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+
+        long rejected = samples.size() - samplesToInsert.size() - samplesToUpdate.size();
+        sampleTotal.added(samplesToInsert.size());
+        samplesToInsert.forEach(sample -> sampleCache.evict(sample.getId()));
+        samplesToUpdate.forEach(sample -> sampleCache.evict(sample.getId()));
+        samplesToInsert.forEach(sampleNameIndex::put);
+        samplesToUpdate.forEach(sampleNameIndex::put);
+        samplesToInsert.forEach(sampleStore::put);
+        samplesToUpdate.forEach(sampleStore::update);
+        createdCounter.increment(samplesToInsert.size());
+        updatedCounter.increment(samplesToUpdate.size());
+        rejectedCounter.increment(rejected);
+        return new SampleImportChunk(from, to, samplesToInsert.size(), samplesToUpdate.size(), rejected, null);
+    }
+
+    private static List<Long> idsOf(List<Sample> samples) {
+        List<Long> ids = new ArrayList<>(samples.size());
+        for (Sample sample : samples) {
+            if (sample.getId() != null) {
+                ids.add(sample.getId());
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,32 @@
+package com.autentia.pruebas.application.json;
+
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * CBOR and Smile converters built from the same {@link Jackson2ObjectMapperBuilder} as the JSON one, so
+ * binary clients get the same serializers and page envelope, chosen through Accept and Content-Type.
+ */
+@Configuration
+public class SampleBinaryFormatsConfiguration {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder
+                .factory(CBORFactory.builder().recyclerPool(JsonRecyclerPools.sharedLockFreePool()).build())
+                .build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder
+                .factory(SmileFactory.builder().recyclerPool(JsonRecyclerPools.sharedLockFreePool()).build())
+                .build());
+    }
+}
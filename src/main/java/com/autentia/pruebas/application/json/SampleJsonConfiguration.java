@@ -0,0 +1,32 @@
+package com.autentia.pruebas.application.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SampleJsonConfiguration {
+
+    @Bean
+    public SampleJsonModule sampleJsonModule(@Value("${samples.json.lean-pages:false}") boolean leanPages) {
+        return new SampleJsonModule(leanPages);
+    }
+
+    @Bean
+    @ConditionalOnProperty("samples.json.blackbird")
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sharedBufferRecyclerCustomizer() {
+        return builder -> builder.factory(JsonFactory.builder()
+                .recyclerPool(JsonRecyclerPools.sharedLockFreePool())
+                .build());
+    }
+}
@@ -0,0 +1,17 @@
+package com.autentia.pruebas.application.json;
+
+import com.autentia.pruebas.application.model.Sample;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.springframework.data.domain.Slice;
+
+public class SampleJsonModule extends SimpleModule {
+    private static final long serialVersionUID = 1L;
+
+    public SampleJsonModule(boolean leanPages) {
+        super(SampleJsonModule.class.getSimpleName());
+        addSerializer(Sample.class, new SampleSerializer());
+        if (leanPages) {
+            addSerializer(Slice.class, new SamplePageSerializer());
+        }
+    }
+}
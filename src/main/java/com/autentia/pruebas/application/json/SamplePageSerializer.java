@@ -0,0 +1,55 @@
+package com.autentia.pruebas.application.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link Page} as its content plus a small {@code page} object with the size, number and
+ * totals, instead of every property of {@code PageImpl} and its {@code Pageable} and {@code Sort}.
+ * A {@link Slice} has no totals, so it says whether there is a next one instead.
+ */
+@SuppressWarnings("rawtypes")
+public class SamplePageSerializer extends StdSerializer<Slice> {
+    private static final long serialVersionUID = 1L;
+    private static final SerializedString CONTENT = new SerializedString("content");
+    private static final SerializedString PAGE = new SerializedString("page");
+    private static final SerializedString SIZE = new SerializedString("size");
+    private static final SerializedString NUMBER = new SerializedString("number");
+    private static final SerializedString TOTAL_ELEMENTS = new SerializedString("totalElements");
+    private static final SerializedString TOTAL_PAGES = new SerializedString("totalPages");
+    private static final SerializedString HAS_NEXT = new SerializedString("hasNext");
+
+    public SamplePageSerializer() {
+        super(Slice.class);
+    }
+
+    @Override
+    public void serialize(Slice page, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(page);
+        generator.writeFieldName(CONTENT);
+        provider.defaultSerializeValue(page.getContent(), generator);
+        generator.writeFieldName(PAGE);
+        generator.writeStartObject();
+        generator.writeFieldName(SIZE);
+        generator.writeNumber(page.getSize());
+        generator.writeFieldName(NUMBER);
+        generator.writeNumber(page.getNumber());
+        if (page instanceof Page counted) {
+            generator.writeFieldName(TOTAL_ELEMENTS);
+            generator.writeNumber(counted.getTotalElements());
+            generator.writeFieldName(TOTAL_PAGES);
+            generator.writeNumber(counted.getTotalPages());
+        } else {
+            generator.writeFieldName(HAS_NEXT);
+            generator.writeBoolean(page.hasNext());
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+}
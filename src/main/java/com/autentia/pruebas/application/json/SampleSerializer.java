@@ -0,0 +1,37 @@
+package com.autentia.pruebas.application.json;
+
+import com.autentia.pruebas.application.model.Sample;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link Sample} field by field with pre-encoded names, producing the same output as the
+ * bean serializer without its per-property reflection and lookups.
+ */
+public class SampleSerializer extends StdSerializer<Sample> {
+    private static final long serialVersionUID = 1L;
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+
+    public SampleSerializer() {
+        super(Sample.class);
+    }
+
+    @Override
+    public void serialize(Sample sample, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(sample);
+        generator.writeFieldName(ID);
+        if (sample.getId() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(sample.getId().longValue());
+        }
+        generator.writeFieldName(NAME);
+        generator.writeString(sample.getName());
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,246 @@
+package com.autentia.pruebas.application.lookup;
+
+import com.autentia.pruebas.application.metrics.SampleMetrics;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.repository.SampleRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Merges concurrent lookups by id into one {@code findAllById}. The first lookup opens a batch that a
+ * background thread closes once {@code window} has passed or {@code max-size} ids are waiting, and
+ * lookups of an id already waiting share its result, so a hot id costs one query per batch however
+ * many requests ask for it. Up to {@code concurrency} batches are read at once; while they all run,
+ * new lookups pile up into the next batch.
+ * <p>
+ * What is looked up here is cached for the whole cache time to live, so every read, batched or not,
+ * goes to the primary in a read-write transaction: a replica lagging behind another node's write
+ * would otherwise put the old row back in the cache right after that write invalidated it.
+ * <p>
+ * Lookups return futures, so callers such as the cache can wait for them without holding anything.
+ * A lookup fails after {@code timeout}, and lookups read the repository themselves when the background
+ * thread is not running, so a dead or stuck dispatcher can't hang requests.
+ */
+@Component
+@Profile("!reactive")
+public class SampleLookupBatcher {
+    private final SampleRepository sampleRepository;
+    private final TransactionTemplate primaryTransaction;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxSize;
+    private final int concurrency;
+    private final Duration timeout;
+    private final DistributionSummary batchSizes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition lookupsWaiting = lock.newCondition();
+    private final Semaphore batchesRunning;
+    private Map<Long, CompletableFuture<Optional<Sample>>> pending = new HashMap<>();
+    private volatile boolean running;
+    private Thread dispatcher;
+    private ExecutorService queries;
+
+    public SampleLookupBatcher(SampleRepository sampleRepository, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                               @Value("${samples.lookup.batch.enabled:false}") boolean enabled,
+                               @Value("${samples.lookup.batch.window:2ms}") Duration window,
+                               @Value("${samples.lookup.batch.max-size:100}") int maxSize,
+                               @Value("${samples.lookup.batch.concurrency:4}") int concurrency,
+                               @Value("${samples.lookup.batch.timeout:1s}") Duration timeout) {
+        this.sampleRepository = sampleRepository;
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.maxSize = maxSize;
+        this.concurrency = concurrency;
+        this.batchesRunning = new Semaphore(concurrency);
+        this.timeout = timeout;
+        this.batchSizes = meterRegistry.summary(SampleMetrics.LOOKUP_BATCH_SIZE_SUMMARY);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        queries = Executors.newFixedThreadPool(concurrency, Thread.ofPlatform().name("sample-lookup-query-", 0).daemon().factory());
+        dispatcher = new Thread(this::dispatchLoop, "sample-lookup");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Stops the dispatcher, lets the running batches finish and reads whatever is still waiting, so no
+     * lookup is left hanging.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (dispatcher == null) {
+            return;
+        }
+        running = false;
+        signal();
+        dispatcher.join();
+        queries.shutdown();
+        queries.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        dispatch(takePending());
+    }
+
+    public Optional<Sample> findById(Long sampleId) {
+        try {
+            return lookup(sampleId).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * The sample with that id, read now on this thread when the lookup can't be batched.
+     */
+    public CompletableFuture<Optional<Sample>> lookup(Long sampleId) {
+        if (!enabled) {
+            return read(sampleId);
+        }
+        CompletableFuture<Optional<Sample>> lookup = null;
+        lock.lock();
+        try {
+            if (running && dispatcher.isAlive()) {
+                lookup = pending.computeIfAbsent(sampleId, id -> new CompletableFuture<>());
+                if (pending.size() == 1 || pending.size() == maxSize) {
+                    lookupsWaiting.signal();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (lookup == null) {
+            return read(sampleId);
+        }
+        return lookup.copy().orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS).exceptionallyCompose(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            return CompletableFuture.failedFuture(cause instanceof TimeoutException
+                    ? new QueryTimeoutException("Lookup of sample " + sampleId + " not read within " + timeout) : cause);
+        });
+    }
+
+    private CompletableFuture<Optional<Sample>> read(Long sampleId) {
+        try {
+            return CompletableFuture.completedFuture(primaryTransaction.execute(status -> sampleRepository.findById(sampleId)));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Hands each batch to a query thread once one is free, so batches closed meanwhile grow instead of
+     * queueing one query behind another.
+     */
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                batchesRunning.acquire();
+                Map<Long, CompletableFuture<Optional<Sample>>> batch;
+                try {
+                    batch = nextBatch();
+                } catch (InterruptedException e) {
+                    batchesRunning.release();
+                    throw e;
+                }
+                queries.execute(() -> {
+                    try {
+                        dispatch(batch);
+                    } finally {
+                        batchesRunning.release();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits for a first lookup, then for the window to pass or the batch to fill up.
+     */
+    private Map<Long, CompletableFuture<Optional<Sample>>> nextBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            while (pending.isEmpty() && running) {
+                lookupsWaiting.await();
+            }
+            long deadline = System.nanoTime() + windowNanos;
+            for (long wait = windowNanos; wait > 0 && pending.size() < maxSize && running; wait = deadline - System.nanoTime()) {
+                lookupsWaiting.awaitNanos(wait);
+            }
+            return takePending();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<Long, CompletableFuture<Optional<Sample>>> takePending() {
+        lock.lock();
+        try {
+            Map<Long, CompletableFuture<Optional<Sample>>> batch = pending;
+            pending = new HashMap<>();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatch(Map<Long, CompletableFuture<Optional<Sample>>> batch) {
+        List<Long> sampleIds = new ArrayList<>(batch.keySet());
+        for (int from = 0; from < sampleIds.size(); from += maxSize) {
+            List<Long> batchIds = sampleIds.subList(from, Math.min(from + maxSize, sampleIds.size()));
+            batchSizes.record(batchIds.size());
+            try {
+                Map<Long, Sample> samples = new HashMap<>();
+                primaryTransaction.executeWithoutResult(status ->
+                        sampleRepository.findAllById(batchIds).forEach(sample -> samples.put(sample.getId(), sample)));
+                batchIds.forEach(sampleId -> batch.get(sampleId).complete(Optional.ofNullable(samples.get(sampleId))));
+            } catch (RuntimeException | Error e) {
+                batchIds.forEach(sampleId -> batch.get(sampleId).completeExceptionally(e));
+            }
+        }
+    }
+
+    private void signal() {
+        lock.lock();
+        try {
+            lookupsWaiting.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
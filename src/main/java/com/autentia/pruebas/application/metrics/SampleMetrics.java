@@ -0,0 +1,32 @@
+package com.autentia.pruebas.application.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Names of the sample meters, and the counter of errors returned by the /samples endpoints tagged
+ * with the exception that caused them.
+ */
+@Component
+public class SampleMetrics {
+    public static final String SERVICE_TIMER = "samples.service";
+    public static final String ERRORS_COUNTER = "samples.errors";
+    public static final String CACHE_INVALIDATIONS_COUNTER = "samples.cache.invalidations";
+    public static final String WRITE_BEHIND_PENDING_GAUGE = "samples.write-behind.pending";
+    public static final String WRITE_BEHIND_FLUSH_TIMER = "samples.write-behind.flush";
+    public static final String WRITE_BEHIND_DROPPED_COUNTER = "samples.write-behind.dropped";
+    public static final String IMPORT_ROWS_COUNTER = "samples.import.rows";
+    public static final String LOOKUP_BATCH_SIZE_SUMMARY = "samples.lookup.batch.size";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public SampleMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void countError(Exception exception) {
+        meterRegistry.counter(ERRORS_COUNTER, "exception", exception.getClass().getSimpleName()).increment();
+    }
+}
@@ -1,14 +1,22 @@
 package com.autentia.pruebas.application.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
-import javax.persistence.Entity;
-import javax.persistence.Id;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
+@Table(indexes = @Index(name = "idx_sample_name", columnList = "name"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -18,4 +26,18 @@ public class Sample {
     @Id
     private Long id;
     private String name;
+
+    /**
+     * Bumped by every write and sent as the ETag instead of in the body.
+     */
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private Long version;
+
+    public Sample(Long id, String name) {
+        this(id, name, null);
+    }
 }
@@ -0,0 +1,13 @@
+package com.autentia.pruebas.application.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SampleBatchResult {
+    private Long id;
+    private SampleBatchStatus status;
+}
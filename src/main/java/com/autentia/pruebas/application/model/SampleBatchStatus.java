@@ -0,0 +1,9 @@
+package com.autentia.pruebas.application.model;
+
+public enum SampleBatchStatus {
+    CREATED,
+    UPDATED,
+    DELETED,
+    CONFLICT,
+    NOT_FOUND
+}
@@ -0,0 +1,15 @@
+package com.autentia.pruebas.application.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SampleCursorPage {
+    private List<Sample> content;
+    private String next;
+}
@@ -0,0 +1,21 @@
+package com.autentia.pruebas.application.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Rows {@code from} to {@code to} of an import, counted from 1, with how many of them were created,
+ * updated or rejected. A chunk with an {@code error} was rolled back as a whole.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SampleImportChunk {
+    private long from;
+    private long to;
+    private long created;
+    private long updated;
+    private long rejected;
+    private String error;
+}
@@ -0,0 +1,6 @@
+package com.autentia.pruebas.application.model;
+
+public enum SampleImportPolicy {
+    REJECT,
+    UPSERT
+}
@@ -0,0 +1,24 @@
+package com.autentia.pruebas.application.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Totals of an import and the chunks that rejected rows or failed. It is {@code complete} when the
+ * whole body could be read; otherwise the last error is the row that couldn't be parsed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SampleImportResult {
+    private long rows;
+    private long created;
+    private long updated;
+    private long rejected;
+    private long failed;
+    private boolean complete;
+    private List<SampleImportChunk> errors;
+}
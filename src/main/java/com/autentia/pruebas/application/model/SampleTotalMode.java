@@ -0,0 +1,5 @@
+package com.autentia.pruebas.application.model;
+
+public enum SampleTotalMode {
+    EXACT, CACHED, NONE
+}
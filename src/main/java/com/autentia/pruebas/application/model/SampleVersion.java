@@ -0,0 +1,8 @@
+package com.autentia.pruebas.application.model;
+
+public record SampleVersion(Long id, Long version) {
+
+    public static SampleVersion of(Sample sample) {
+        return new SampleVersion(sample.getId(), sample.getVersion());
+    }
+}
@@ -0,0 +1,193 @@
+package com.autentia.pruebas.application.repository;
+
+import com.autentia.pruebas.application.model.Sample;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Parameters;
+import io.r2dbc.spi.R2dbcType;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.binding.BindMarkers;
+import org.springframework.r2dbc.core.binding.BindMarkersFactory;
+import org.springframework.r2dbc.core.binding.BindMarkersFactoryResolver;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.BiConsumer;
+
+/**
+ * Non-blocking counterpart of {@link SampleRepository} for the {@code reactive} profile, with the same
+ * queries and the same chunked batch statements, written against R2DBC instead of JPA.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveSampleRepository {
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "name");
+    private static final String SELECT_SQL = "select id, name from sample";
+    private static final String INSERT_SQL = "insert into sample (id, name) values (?, ?)";
+    private static final String UPDATE_SQL = "update sample set name = ?, version = version + 1 where id = ?";
+    private static final String DELETE_SQL = "delete from sample where id = ?";
+
+    private final DatabaseClient databaseClient;
+    private final int batchSize;
+    private final String insertSql;
+    private final String updateSql;
+    private final String deleteSql;
+
+    @Autowired
+    public ReactiveSampleRepository(ConnectionFactory connectionFactory, @Value("${samples.batch.size:1000}") int batchSize) {
+        this.databaseClient = DatabaseClient.create(connectionFactory);
+        this.batchSize = batchSize;
+
+        BindMarkersFactory bindMarkersFactory = BindMarkersFactoryResolver.resolve(connectionFactory);
+        this.insertSql = withBindMarkers(INSERT_SQL, bindMarkersFactory.create());
+        this.updateSql = withBindMarkers(UPDATE_SQL, bindMarkersFactory.create());
+        this.deleteSql = withBindMarkers(DELETE_SQL, bindMarkersFactory.create());
+    }
+
+    public Flux<Sample> findAll(Pageable pageable) {
+        return databaseClient.sql(SELECT_SQL + orderBy(pageable.getSort()) + " limit :limit offset :offset")
+                .bind("limit", pageable.getPageSize())
+                .bind("offset", pageable.getOffset())
+                .map(ReactiveSampleRepository::toSample)
+                .all();
+    }
+
+    public Mono<Long> count() {
+        return databaseClient.sql("select count(*) from sample")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Flux<Sample> findByIdGreaterThan(Long sampleId, int limit) {
+        return databaseClient.sql(SELECT_SQL + " where id > :sampleId order by id limit :limit")
+                .bind("sampleId", sampleId)
+                .bind("limit", limit)
+                .map(ReactiveSampleRepository::toSample)
+                .all();
+    }
+
+    public Flux<Sample> streamByIdGreaterThan(Long sampleId) {
+        return databaseClient.sql(SELECT_SQL + " where id > :sampleId order by id")
+                .filter(statement -> statement.fetchSize(batchSize))
+                .bind("sampleId", sampleId)
+                .map(ReactiveSampleRepository::toSample)
+                .all();
+    }
+
+    public Mono<Sample> findById(Long sampleId) {
+        return databaseClient.sql(SELECT_SQL + " where id = :sampleId")
+                .bind("sampleId", sampleId)
+                .map(ReactiveSampleRepository::toSample)
+                .one();
+    }
+
+    public Mono<Long> insertSample(Sample sample) {
+        return databaseClient.sql("insert into sample (id, name) values (:id, :name)")
+                .bind("id", sample.getId())
+                .bind("name", Parameters.in(R2dbcType.VARCHAR, sample.getName()))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> updateSample(Sample sample) {
+        return databaseClient.sql("update sample set name = :name, version = version + 1 where id = :id")
+                .bind("name", Parameters.in(R2dbcType.VARCHAR, sample.getName()))
+                .bind("id", sample.getId())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteSampleById(Long sampleId) {
+        return databaseClient.sql("delete from sample where id = :sampleId")
+                .bind("sampleId", sampleId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Flux<Long> findExistingIds(Collection<Long> sampleIds) {
+        return Flux.fromIterable(sampleIds)
+                .buffer(batchSize)
+                .concatMap(chunk -> databaseClient.sql("select id from sample where id in (:sampleIds)")
+                        .bind("sampleIds", chunk)
+                        .map(row -> row.get(0, Long.class))
+                        .all());
+    }
+
+    public Mono<Long> insertAll(Collection<Sample> samples) {
+        return executeBatch(insertSql, samples, (statement, sample) -> statement
+                .bind(0, sample.getId())
+                .bind(1, Parameters.in(R2dbcType.VARCHAR, sample.getName())));
+    }
+
+    /**
+     * Rows updated by each sample, in the order given, so a sample that is missing or was deleted
+     * meanwhile reads as 0 without querying for it first.
+     */
+    public Flux<Long> updateAll(Collection<Sample> samples) {
+        return executeEach(updateSql, samples, (statement, sample) -> statement
+                .bind(0, Parameters.in(R2dbcType.VARCHAR, sample.getName()))
+                .bind(1, sample.getId()));
+    }
+
+    public Mono<Long> deleteAllById(Collection<Long> sampleIds) {
+        return executeBatch(deleteSql, sampleIds, (statement, sampleId) -> statement.bind(0, sampleId));
+    }
+
+    private <T> Mono<Long> executeBatch(String sql, Collection<T> items, BiConsumer<Statement, T> binder) {
+        return executeEach(sql, items, binder).reduce(0L, Long::sum);
+    }
+
+    private <T> Flux<Long> executeEach(String sql, Collection<T> items, BiConsumer<Statement, T> binder) {
+        return Flux.fromIterable(items)
+                .buffer(batchSize)
+                .concatMap(chunk -> databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(sql);
+                    Iterator<T> iterator = chunk.iterator();
+                    binder.accept(statement, iterator.next());
+                    while (iterator.hasNext()) {
+                        binder.accept(statement.add(), iterator.next());
+                    }
+                    return Flux.from(statement.execute()).concatMap(Result::getRowsUpdated);
+                }));
+    }
+
+    private static Sample toSample(Readable row) {
+        return new Sample(row.get("id", Long.class), row.get("name", String.class));
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return " order by id";
+        }
+        StringJoiner orderBy = new StringJoiner(", ", " order by ", "");
+        for (Sort.Order order : sort) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new IllegalArgumentException("No property " + order.getProperty() + " found for type Sample");
+            }
+            orderBy.add(order.getProperty() + " " + order.getDirection().name().toLowerCase());
+        }
+        return orderBy.toString();
+    }
+
+    private static String withBindMarkers(String sql, BindMarkers bindMarkers) {
+        StringBuilder builder = new StringBuilder();
+        int from = 0;
+        for (int marker = sql.indexOf('?'); marker >= 0; marker = sql.indexOf('?', from)) {
+            builder.append(sql, from, marker).append(bindMarkers.next().getPlaceholder());
+            from = marker + 1;
+        }
+        return builder.append(sql.substring(from)).toString();
+    }
+}
@@ -0,0 +1,21 @@
+package com.autentia.pruebas.application.repository;
+
+import com.autentia.pruebas.application.model.Sample;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface SampleBatchRepository {
+
+    List<Long> findExistingIds(Collection<Long> sampleIds);
+
+    void insertAll(Collection<Sample> samples);
+
+    /**
+     * Returns the rows each sample updated, in the order of {@code samples}, or {@link java.sql.Statement#SUCCESS_NO_INFO}
+     * when the driver doesn't tell.
+     */
+    int[] updateAll(Collection<Sample> samples);
+
+    void deleteAllById(Collection<Long> sampleIds);
+}
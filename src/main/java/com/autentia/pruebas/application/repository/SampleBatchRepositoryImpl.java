@@ -0,0 +1,64 @@
+package com.autentia.pruebas.application.repository;
+
+import com.autentia.pruebas.application.model.Sample;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public class SampleBatchRepositoryImpl implements SampleBatchRepository {
+    private static final String EXISTING_IDS_SQL = "select id from sample where id in (:sampleIds)";
+    private static final String INSERT_SQL = "insert into sample (id, name) values (?, ?)";
+    private static final String UPDATE_SQL = "update sample set name = ?, version = version + 1 where id = ?";
+    private static final String DELETE_SQL = "delete from sample where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final int batchSize;
+
+    @Autowired
+    public SampleBatchRepositoryImpl(JdbcTemplate jdbcTemplate, @Value("${samples.batch.size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public List<Long> findExistingIds(Collection<Long> sampleIds) {
+        List<Long> ids = new ArrayList<>(sampleIds);
+        List<Long> existingIds = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            existingIds.addAll(namedParameterJdbcTemplate.queryForList(EXISTING_IDS_SQL, Map.of("sampleIds", chunk), Long.class));
+        }
+        return existingIds;
+    }
+
+    @Override
+    public void insertAll(Collection<Sample> samples) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, samples, batchSize, (statement, sample) -> {
+            statement.setLong(1, sample.getId());
+            statement.setString(2, sample.getName());
+        });
+    }
+
+    @Override
+    public int[] updateAll(Collection<Sample> samples) {
+        int[][] batchCounts = jdbcTemplate.batchUpdate(UPDATE_SQL, samples, batchSize, (statement, sample) -> {
+            statement.setString(1, sample.getName());
+            statement.setLong(2, sample.getId());
+        });
+        return Arrays.stream(batchCounts).flatMapToInt(Arrays::stream).toArray();
+    }
+
+    @Override
+    public void deleteAllById(Collection<Long> sampleIds) {
+        jdbcTemplate.batchUpdate(DELETE_SQL, sampleIds, batchSize, (statement, sampleId) -> statement.setLong(1, sampleId));
+    }
+}
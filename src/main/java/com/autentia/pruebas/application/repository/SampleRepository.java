@@ -1,10 +1,104 @@
 package com.autentia.pruebas.application.repository;
 
 import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleVersion;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.QueryHint;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface SampleRepository extends PagingAndSortingRepository<Sample, Long> {
+@Transactional(readOnly = true)
+public interface SampleRepository extends CrudRepository<Sample, Long>, PagingAndSortingRepository<Sample, Long>, SampleBatchRepository {
+
+    @Override
+    @Query("select s from Sample s order by s.id")
+    Iterable<Sample> findAll();
+
+    Slice<Sample> findByIdGreaterThanOrderByIdAsc(Long sampleId, Pageable pageable);
+
+    Page<Sample> findByName(String name, Pageable pageable);
+
+    Page<Sample> findByNameIgnoreCase(String name, Pageable pageable);
+
+    Page<Sample> findByNameStartingWith(String name, Pageable pageable);
+
+    Page<Sample> findByNameStartingWithIgnoreCase(String name, Pageable pageable);
+
+    Page<Sample> findByNameContaining(String name, Pageable pageable);
+
+    Page<Sample> findByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    @Query("select s.version from Sample s where s.id = :sampleId")
+    Optional<Long> findVersionById(@Param("sampleId") Long sampleId);
+
+    @Query(value = "select new com.autentia.pruebas.application.model.SampleVersion(s.id, s.version) from Sample s",
+            countQuery = "select count(s) from Sample s")
+    Page<SampleVersion> findAllVersions(Pageable pageable);
+
+    @Query("select s from Sample s")
+    Slice<Sample> findAllAsSlice(Pageable pageable);
+
+    @Query("select new com.autentia.pruebas.application.model.SampleVersion(s.id, s.version) from Sample s")
+    Slice<SampleVersion> findAllVersionsAsSlice(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.autentia.pruebas.application.model.Sample(s.id, s.name) from Sample s where s.id > :sampleId order by s.id")
+    Stream<Sample> streamByIdGreaterThan(@Param("sampleId") Long sampleId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.autentia.pruebas.application.model.Sample(s.id, s.name, s.version) from Sample s "
+            + "where s.id > :sampleId order by s.id")
+    Stream<Sample> streamWithVersionByIdGreaterThan(@Param("sampleId") Long sampleId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.autentia.pruebas.application.model.SampleVersion(s.id, s.version) from Sample s "
+            + "where s.id <= :sampleId order by s.id")
+    Stream<SampleVersion> streamVersionsByIdLessThanEqual(@Param("sampleId") Long sampleId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "insert into sample (id, name) values (:#{#sample.id}, :#{#sample.name})", nativeQuery = true)
+    int insertSample(@Param("sample") Sample sample);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Sample s set s.name = :#{#sample.name}, s.version = s.version + 1 where s.id = :#{#sample.id}")
+    int updateSample(@Param("sample") Sample sample);
+
+    /**
+     * Updates the sample and reads its new version back in the same transaction, so on the primary and
+     * before anyone else can change it.
+     */
+    @Transactional
+    default Optional<Long> updateSampleReturningVersion(Sample sample) {
+        if (updateSample(sample) == 0) {
+            return Optional.empty();
+        }
+        return findVersionById(sample.getId());
+    }
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Sample s set s.name = :#{#sample.name}, s.version = s.version + 1 "
+            + "where s.id = :#{#sample.id} and s.version = :version")
+    int updateSample(@Param("sample") Sample sample, @Param("version") Long version);
 
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Sample s where s.id = :sampleId")
+    int deleteSampleById(@Param("sampleId") Long sampleId);
 }
\ No newline at end of file
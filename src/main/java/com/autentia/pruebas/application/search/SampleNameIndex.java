@@ -0,0 +1,334 @@
+package com.autentia.pruebas.application.search;
+
+import com.autentia.pruebas.application.cache.SampleCache;
+import com.autentia.pruebas.application.cache.SampleInvalidation;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleNameMatch;
+import com.autentia.pruebas.application.repository.SampleRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * In-process n-gram index over sample names, used for infix and case-insensitive searches that the
+ * database index on {@code name} can't serve. Every name is posted under its lower-cased n-grams of one
+ * to three characters, and a query reads the candidates of its rarest n-gram as long as the query
+ * itself, checking each against the current name. Posting lists are sorted arrays of ids, and searches
+ * keep only the matches that reach the requested page.
+ * <p>
+ * The index follows this node's renames and deletes through the service and importer. Other nodes'
+ * writes arrive as cache invalidations and are read again from the primary; a clear rebuilds the whole
+ * index from the primary, and searches go to the database until it is ready again.
+ */
+@Component
+@Profile("!reactive")
+public class SampleNameIndex {
+    private static final int GRAM = 3;
+
+    private final SampleRepository sampleRepository;
+    private final TransactionTemplate primaryTransaction;
+    private final boolean enabled;
+    private final ExecutorService refresher;
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+    private final Map<Long, Postings> postings = new ConcurrentHashMap<>();
+    private volatile Set<Long> removedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    public SampleNameIndex(SampleRepository sampleRepository, SampleCache sampleCache, PlatformTransactionManager transactionManager,
+                           @Value("${samples.search.name-index.enabled:false}") boolean enabled) {
+        this.sampleRepository = sampleRepository;
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.refresher = enabled ? Executors.newSingleThreadExecutor(Thread.ofPlatform().name("sample-name-index").daemon().factory()) : null;
+        if (enabled) {
+            sampleCache.subscribe(invalidation -> refresher.execute(() -> refresh(invalidation)));
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public void markReady() {
+        ready = true;
+        removedWhileLoading = null;
+    }
+
+    /**
+     * Adds a sample read while building the index, unless a write has already indexed or removed it,
+     * since the loaded row may be older than that write.
+     */
+    public void load(Sample sample) {
+        if (!enabled || sample.getName() == null) {
+            return;
+        }
+        names.compute(sample.getId(), (sampleId, currentName) -> {
+            Set<Long> removed = removedWhileLoading;
+            if (currentName != null || removed != null && removed.contains(sampleId)) {
+                return currentName;
+            }
+            addPostings(sampleId, grams(sample.getName()));
+            return sample.getName();
+        });
+    }
+
+    public void put(Sample sample) {
+        if (!enabled) {
+            return;
+        }
+        if (sample.getName() == null) {
+            remove(sample.getId());
+            return;
+        }
+        names.compute(sample.getId(), (sampleId, previousName) -> {
+            Set<Long> newGrams = grams(sample.getName());
+            if (previousName != null) {
+                Set<Long> oldGrams = grams(previousName);
+                Set<Long> staleGrams = new HashSet<>(oldGrams);
+                staleGrams.removeAll(newGrams);
+                removePostings(sampleId, staleGrams);
+                newGrams.removeAll(oldGrams);
+            }
+            addPostings(sampleId, newGrams);
+            return sample.getName();
+        });
+    }
+
+    public void remove(Long sampleId) {
+        if (!enabled) {
+            return;
+        }
+        names.compute(sampleId, (id, previousName) -> {
+            Set<Long> removed = removedWhileLoading;
+            if (removed != null) {
+                removed.add(id);
+            }
+            if (previousName != null) {
+                removePostings(id, grams(previousName));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Empties the index and marks it as loading, so searches go to the database and removals are
+     * remembered until it is loaded again and {@link #markReady()} is called.
+     */
+    public void clear() {
+        ready = false;
+        removedWhileLoading = ConcurrentHashMap.newKeySet();
+        names.clear();
+        postings.clear();
+    }
+
+    public Page<Sample> search(String name, SampleNameMatch match, boolean ignoreCase, Pageable pageRequest) {
+        Comparator<Sample> comparator = comparator(pageRequest.getSort());
+        long limit = pageRequest.isUnpaged() ? Long.MAX_VALUE : pageRequest.getOffset() + pageRequest.getPageSize();
+        PriorityQueue<Sample> firstMatches = new PriorityQueue<>(comparator.reversed());
+        long total = 0;
+
+        for (long sampleId : candidates(name.toLowerCase(Locale.ROOT))) {
+            String sampleName = names.get(sampleId);
+            if (sampleName == null || !matches(sampleName, name, match, ignoreCase)) {
+                continue;
+            }
+            total++;
+            Sample sample = new Sample(sampleId, sampleName);
+            if (firstMatches.size() < limit) {
+                firstMatches.add(sample);
+            } else if (comparator.compare(sample, firstMatches.peek()) < 0) {
+                firstMatches.poll();
+                firstMatches.add(sample);
+            }
+        }
+
+        List<Sample> matches = new ArrayList<>(firstMatches);
+        matches.sort(comparator);
+        if (pageRequest.isUnpaged()) {
+            return new PageImpl<>(matches);
+        }
+        int from = (int) Math.min(pageRequest.getOffset(), matches.size());
+        return new PageImpl<>(new ArrayList<>(matches.subList(from, matches.size())), pageRequest, total);
+    }
+
+    private void refresh(SampleInvalidation invalidation) {
+        if (invalidation.isAll()) {
+            rebuild();
+            return;
+        }
+        Optional<Sample> sample = primaryTransaction.execute(status -> sampleRepository.findById(invalidation.sampleId()));
+        if (sample.isPresent()) {
+            put(sample.get());
+        } else {
+            remove(invalidation.sampleId());
+        }
+    }
+
+    private void rebuild() {
+        clear();
+        primaryTransaction.executeWithoutResult(status -> {
+            try (Stream<Sample> samples = sampleRepository.streamByIdGreaterThan(Long.MIN_VALUE)) {
+                samples.forEach(this::load);
+            }
+        });
+        markReady();
+    }
+
+    /**
+     * Ids posted under the rarest n-gram of {@code key} that is as long as the key, up to three characters.
+     */
+    private long[] candidates(String key) {
+        if (key.isEmpty()) {
+            return names.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+        int length = Math.min(key.length(), GRAM);
+        Postings rarest = null;
+        for (int i = 0; i + length <= key.length(); i++) {
+            Postings candidates = postings.get(gram(key, i, length));
+            if (candidates == null) {
+                return new long[0];
+            }
+            if (rarest == null || candidates.size() < rarest.size()) {
+                rarest = candidates;
+            }
+        }
+        return rarest.toArray();
+    }
+
+    private void addPostings(Long sampleId, Set<Long> grams) {
+        for (Long gram : grams) {
+            postings.compute(gram, (key, ids) -> {
+                Postings gramIds = ids == null ? new Postings() : ids;
+                gramIds.add(sampleId);
+                return gramIds;
+            });
+        }
+    }
+
+    private void removePostings(Long sampleId, Set<Long> grams) {
+        for (Long gram : grams) {
+            postings.computeIfPresent(gram, (key, ids) -> ids.remove(sampleId) ? null : ids);
+        }
+    }
+
+    private static Set<Long> grams(String sampleName) {
+        String key = sampleName.toLowerCase(Locale.ROOT);
+        Set<Long> grams = new HashSet<>();
+        for (int length = 1; length <= GRAM; length++) {
+            for (int i = 0; i + length <= key.length(); i++) {
+                grams.add(gram(key, i, length));
+            }
+        }
+        return grams;
+    }
+
+    private static boolean matches(String sampleName, String name, SampleNameMatch match, boolean ignoreCase) {
+        return switch (match) {
+            case EXACT -> ignoreCase ? sampleName.equalsIgnoreCase(name) : sampleName.equals(name);
+            case PREFIX -> sampleName.regionMatches(ignoreCase, 0, name, 0, name.length());
+            case CONTAINS -> ignoreCase
+                    ? sampleName.toLowerCase(Locale.ROOT).contains(name.toLowerCase(Locale.ROOT))
+                    : sampleName.contains(name);
+        };
+    }
+
+    private static Comparator<Sample> comparator(Sort sort) {
+        Comparator<Sample> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<Sample> byProperty = switch (order.getProperty()) {
+                case "id" -> Comparator.comparing(Sample::getId);
+                case "name" -> Comparator.comparing(Sample::getName);
+                default -> throw new IllegalArgumentException("No property " + order.getProperty() + " found for type Sample");
+            };
+            if (order.isDescending()) {
+                byProperty = byProperty.reversed();
+            }
+            comparator = comparator == null ? byProperty : comparator.thenComparing(byProperty);
+        }
+        Comparator<Sample> byId = Comparator.comparing(Sample::getId);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    private static long gram(String key, int from, int length) {
+        long gram = length;
+        for (int i = from; i < from + length; i++) {
+            gram = (gram << 16) | key.charAt(i);
+        }
+        return gram;
+    }
+
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        synchronized void add(long sampleId) {
+            int at = Arrays.binarySearch(ids, 0, size, sampleId);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = sampleId;
+            size++;
+        }
+
+        /**
+         * Returns whether the list is left empty, shrinking it when it is mostly unused.
+         */
+        synchronized boolean remove(long sampleId) {
+            int at = Arrays.binarySearch(ids, 0, size, sampleId);
+            if (at >= 0) {
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                size--;
+                if (ids.length > 4 && size <= ids.length / 4) {
+                    ids = Arrays.copyOf(ids, ids.length / 2);
+                }
+            }
+            return size == 0;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.autentia.pruebas.application.service;
+
+import com.autentia.pruebas.application.cache.SampleCache;
+import com.autentia.pruebas.application.exceptions.SampleAlreadyCreatedException;
+import com.autentia.pruebas.application.exceptions.SampleBadRequestException;
+import com.autentia.pruebas.application.exceptions.SampleNotFoundException;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleBatchResult;
+import com.autentia.pruebas.application.model.SampleBatchStatus;
+import com.autentia.pruebas.application.repository.ReactiveSampleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+@Profile("reactive")
+public class ReactiveSampleService {
+    private final ReactiveSampleRepository sampleRepository;
+    private final SampleCache sampleCache;
+    private final TransactionalOperator transactionalOperator;
+
+    @Autowired
+    public ReactiveSampleService(ReactiveSampleRepository sampleRepository, SampleCache sampleCache,
+                                 TransactionalOperator transactionalOperator) {
+        this.sampleRepository = sampleRepository;
+        this.sampleCache = sampleCache;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    public Mono<Page<Sample>> getAllSamples(Pageable pageRequest) {
+        return Mono.zip(sampleRepository.findAll(pageRequest).collectList(), sampleRepository.count())
+                .map(page -> new PageImpl<>(page.getT1(), pageRequest, page.getT2()));
+    }
+
+    public Mono<Slice<Sample>> getSamplesAfter(Long sampleId, int size) {
+        Long afterId = sampleId == null ? Long.MIN_VALUE : sampleId;
+        return sampleRepository.findByIdGreaterThan(afterId, size + 1)
+                .collectList()
+                .map(samples -> {
+                    boolean hasNext = samples.size() > size;
+                    List<Sample> content = hasNext ? samples.subList(0, size) : samples;
+                    return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+                });
+    }
+
+    public Flux<Sample> exportSamples(Long sampleId) {
+        Long afterId = sampleId == null ? Long.MIN_VALUE : sampleId;
+        return sampleRepository.streamByIdGreaterThan(afterId);
+    }
+
+    public Mono<Sample> getSampleById(Long sampleId) {
+        Optional<Sample> cachedSample = sampleCache.getIfPresent(sampleId);
+        if (cachedSample != null) {
+            return Mono.justOrEmpty(cachedSample).switchIfEmpty(Mono.error(SampleNotFoundException::new));
+        }
+        return sampleRepository.findById(sampleId)
+                .doOnNext(sampleCache::put)
+                .switchIfEmpty(Mono.fromRunnable(() -> sampleCache.putMissing(sampleId)))
+                .switchIfEmpty(Mono.error(SampleNotFoundException::new));
+    }
+
+    public Mono<Sample> addSample(Sample sample) {
+        return sampleRepository.insertSample(sample)
+                .onErrorMap(DuplicateKeyException.class, e -> new SampleAlreadyCreatedException())
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> new SampleBadRequestException(SampleBadRequestException.INVALID_SAMPLE_MESSAGE))
+                .doOnSuccess(inserted -> sampleCache.put(sample))
+                .thenReturn(sample);
+    }
+
+    public Mono<Sample> updateSample(Sample sample) {
+        return sampleRepository.updateSample(sample)
+                .filter(updated -> updated > 0)
+                .switchIfEmpty(Mono.error(SampleNotFoundException::new))
+                .doOnNext(updated -> sampleCache.put(sample))
+                .thenReturn(sample);
+    }
+
+    public Mono<Void> deleteSample(Long sampleId) {
+        return sampleRepository.deleteSampleById(sampleId)
+                .filter(deleted -> deleted > 0)
+                .switchIfEmpty(Mono.error(SampleNotFoundException::new))
+                .doOnNext(deleted -> sampleCache.putMissing(sampleId))
+                .then();
+    }
+
+    public Mono<List<SampleBatchResult>> addSamples(List<Sample> samples) {
+        return findExistingIds(samples).flatMap(existingIds -> {
+            List<Sample> samplesToInsert = new ArrayList<>();
+            List<SampleBatchResult> results = new ArrayList<>(samples.size());
+
+            for (Sample sample : samples) {
+                if (existingIds.add(sample.getId())) {
+                    samplesToInsert.add(sample);
+                    results.add(new SampleBatchResult(sample.getId(), SampleBatchStatus.CREATED));
+                } else {
+                    results.add(new SampleBatchResult(sample.getId(), SampleBatchStatus.CONFLICT));
+                }
+            }
+
+            return sampleRepository.insertAll(samplesToInsert).thenReturn(results);
+        }).as(transactionalOperator::transactional).doOnSuccess(results -> evict(results, SampleBatchStatus.CREATED));
+    }
+
+    public Mono<List<SampleBatchResult>> updateSamples(List<Sample> samples) {
+        return sampleRepository.updateAll(samples).collectList().map(updateCounts -> {
+            List<SampleBatchResult> results = new ArrayList<>(samples.size());
+
+            for (int i = 0; i < samples.size(); i++) {
+                Sample sample = samples.get(i);
+                if (updateCounts.get(i) > 0) {
+                    results.add(new SampleBatchResult(sample.getId(), SampleBatchStatus.UPDATED));
+                } else {
+                    results.add(new SampleBatchResult(sample.getId(), SampleBatchStatus.NOT_FOUND));
+                }
+            }
+
+            return results;
+        }).as(transactionalOperator::transactional).doOnSuccess(results -> evict(results, SampleBatchStatus.UPDATED));
+    }
+
+    public Mono<List<SampleBatchResult>> deleteSamples(List<Sample> samples) {
+        return findExistingIds(samples).flatMap(existingIds -> {
+            List<Long> idsToDelete = new ArrayList<>();
+            List<SampleBatchResult> results = new ArrayList<>(samples.size());
+
+            for (Sample sample : samples) {
+                if (existingIds.remove(sample.getId())) {
+                    idsToDelete.add(sample.getId());
+                    results.add(new SampleBatchResult(sample.getId(), SampleBatchStatus.DELETED));
+                } else {
+                    results.add(new SampleBatchResult(sample.getId(), SampleBatchStatus.NOT_FOUND));
+                }
+            }
+
+            return sampleRepository.deleteAllById(idsToDelete).thenReturn(results);
+        }).as(transactionalOperator::transactional).doOnSuccess(results -> evict(results, SampleBatchStatus.DELETED));
+    }
+
+    private Mono<Set<Long>> findExistingIds(List<Sample> samples) {
+        List<Long> ids = new ArrayList<>(samples.size());
+        samples.forEach(sample -> ids.add(sample.getId()));
+        return sampleRepository.findExistingIds(ids).<Set<Long>>collect(HashSet::new, Set::add);
+    }
+
+    private void evict(List<SampleBatchResult> results, SampleBatchStatus status) {
+        results.stream()
+                .filter(result -> result.getStatus() == status)
+                .forEach(result -> sampleCache.evict(result.getId()));
+    }
+}
@@ -1,51 +1,466 @@
 package com.autentia.pruebas.application.service;
 
+import com.autentia.pruebas.application.cache.SampleCache;
+import com.autentia.pruebas.application.count.SampleTotal;
 import com.autentia.pruebas.application.exceptions.SampleAlreadyCreatedException;
+import com.autentia.pruebas.application.exceptions.SampleBadRequestException;
 import com.autentia.pruebas.application.exceptions.SampleNotFoundException;
+import com.autentia.pruebas.application.exceptions.SampleOverloadedException;
+import com.autentia.pruebas.application.exceptions.SamplePreconditionFailedException;
+import com.autentia.pruebas.application.lookup.SampleLookupBatcher;
+import com.autentia.pruebas.application.metrics.SampleMetrics;
 import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleBatchResult;
+import com.autentia.pruebas.application.model.SampleBatchStatus;
+import com.autentia.pruebas.application.model.SampleNameMatch;
+import com.autentia.pruebas.application.model.SampleTotalMode;
+import com.autentia.pruebas.application.model.SampleVersion;
 import com.autentia.pruebas.application.repository.SampleRepository;
+import com.autentia.pruebas.application.search.SampleNameIndex;
+import com.autentia.pruebas.application.store.SampleStore;
+import com.autentia.pruebas.application.writebehind.SampleWriteBehind;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.support.SQLExceptionSubclassTranslator;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Profile("!reactive")
+@Timed(SampleMetrics.SERVICE_TIMER)
 public class SampleService {
+    private static final SQLExceptionTranslator SQL_EXCEPTION_TRANSLATOR = new SQLExceptionSubclassTranslator();
+
     private final SampleRepository sampleRepository;
+    private final SampleCache sampleCache;
+    private final SampleNameIndex sampleNameIndex;
+    private final SampleWriteBehind sampleWriteBehind;
+    private final SampleTotal sampleTotal;
+    private final SampleStore sampleStore;
+    private final SampleLookupBatcher sampleLookupBatcher;
 
     @Autowired
-    public SampleService(SampleRepository sampleRepository) {
+    public SampleService(SampleRepository sampleRepository, SampleCache sampleCache, SampleNameIndex sampleNameIndex,
+                         SampleWriteBehind sampleWriteBehind, SampleTotal sampleTotal, SampleStore sampleStore,
+                         SampleLookupBatcher sampleLookupBatcher) {
         this.sampleRepository = sampleRepository;
+        this.sampleCache = sampleCache;
+        this.sampleNameIndex = sampleNameIndex;
+        this.sampleWriteBehind = sampleWriteBehind;
+        this.sampleTotal = sampleTotal;
+        this.sampleStore = sampleStore;
+        this.sampleLookupBatcher = sampleLookupBatcher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildNameIndex() {
+        if (!sampleNameIndex.isEnabled()) {
+            return;
+        }
+        try (Stream<Sample> samples = sampleRepository.streamByIdGreaterThan(Long.MIN_VALUE)) {
+            samples.forEach(sampleNameIndex::load);
+        }
+        sampleNameIndex.markReady();
     }
 
     public Page<Sample> getAllSamples(Pageable pageRequest) {
-        return sampleRepository.findAll(pageRequest);
+        Pageable orderedPageRequest = orderedById(pageRequest);
+        if (inStore(orderedPageRequest)) {
+            return sampleStore.getAll(orderedPageRequest);
+        }
+        return sampleRepository.findAll(orderedPageRequest);
+    }
+
+    public Page<SampleVersion> getAllSampleVersions(Pageable pageRequest) {
+        Pageable orderedPageRequest = orderedById(pageRequest);
+        if (inStore(orderedPageRequest)) {
+            return sampleStore.getAllVersions(orderedPageRequest);
+        }
+        return sampleRepository.findAllVersions(orderedPageRequest);
+    }
+
+    /**
+     * A page whose total is counted, kept by {@link SampleTotal}, or left out, in which case the result
+     * is only a {@link Slice} and no count query runs at all. The store knows its size, so pages read
+     * from it always carry the exact total.
+     */
+    public Slice<Sample> getAllSamples(Pageable pageRequest, SampleTotalMode total) {
+        if (inStore(orderedById(pageRequest))) {
+            return getAllSamples(pageRequest);
+        }
+        return switch (total) {
+            case EXACT -> getAllSamples(pageRequest);
+            case CACHED -> withTotal(sampleRepository.findAllAsSlice(orderedById(pageRequest)));
+            case NONE -> sampleRepository.findAllAsSlice(orderedById(pageRequest));
+        };
+    }
+
+    public Slice<SampleVersion> getAllSampleVersions(Pageable pageRequest, SampleTotalMode total) {
+        if (inStore(orderedById(pageRequest))) {
+            return getAllSampleVersions(pageRequest);
+        }
+        return switch (total) {
+            case EXACT -> getAllSampleVersions(pageRequest);
+            case CACHED -> withTotal(sampleRepository.findAllVersionsAsSlice(orderedById(pageRequest)));
+            case NONE -> sampleRepository.findAllVersionsAsSlice(orderedById(pageRequest));
+        };
+    }
+
+    public Slice<Sample> getSamplesAfter(Long sampleId, int size) {
+        Long afterId = sampleId == null ? Long.MIN_VALUE : sampleId;
+        if (sampleStore.isReady()) {
+            return sampleStore.getAfter(afterId, size);
+        }
+        return sampleRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, size));
+    }
+
+    @Transactional(readOnly = true)
+    public void exportSamples(Long sampleId, Consumer<Sample> consumer) {
+        Long afterId = sampleId == null ? Long.MIN_VALUE : sampleId;
+        try (Stream<Sample> samples = sampleRepository.streamByIdGreaterThan(afterId)) {
+            samples.forEach(consumer);
+        }
+    }
+
+    public Page<Sample> searchSamples(String name, SampleNameMatch match, boolean ignoreCase, Pageable pageable) {
+        Pageable pageRequest = orderedById(pageable);
+        if (sampleNameIndex.isReady() && (ignoreCase || match == SampleNameMatch.CONTAINS)) {
+            return sampleNameIndex.search(name, match, ignoreCase, pageRequest);
+        }
+        return switch (match) {
+            case EXACT -> ignoreCase ? sampleRepository.findByNameIgnoreCase(name, pageRequest)
+                    : sampleRepository.findByName(name, pageRequest);
+            case PREFIX -> ignoreCase ? sampleRepository.findByNameStartingWithIgnoreCase(name, pageRequest)
+                    : sampleRepository.findByNameStartingWith(name, pageRequest);
+            case CONTAINS -> ignoreCase ? sampleRepository.findByNameContainingIgnoreCase(name, pageRequest)
+                    : sampleRepository.findByNameContaining(name, pageRequest);
+        };
     }
 
+    /**
+     * Concurrent misses for the same id share one lookup, since the cache runs a single load per id and
+     * the other callers wait for it, missing samples included. With lookup batching the loads for
+     * different ids are merged into one query as well.
+     */
     public Sample getSampleById(Long sampleId) throws SampleNotFoundException {
-        return sampleRepository.findById(sampleId).orElseThrow(SampleNotFoundException::new);
+        Sample pendingSample = sampleWriteBehind.get(sampleId);
+        if (pendingSample != null) {
+            return pendingSample;
+        }
+        if (sampleStore.isReady()) {
+            return sampleStore.get(sampleId).orElseThrow(SampleNotFoundException::new);
+        }
+        return sampleCache.get(sampleId, sampleLookupBatcher::lookup).orElseThrow(SampleNotFoundException::new);
     }
 
-    public Sample addSample(Sample sample) throws SampleAlreadyCreatedException {
-        if (sampleRepository.findById(sample.getId()).isPresent()) {
-            throw new SampleAlreadyCreatedException();
-        } else {
-            sampleRepository.save(sample);
-            return sample;
+    public Long getSampleVersion(Long sampleId) throws SampleNotFoundException {
+        Sample pendingSample = sampleWriteBehind.get(sampleId);
+        if (pendingSample != null) {
+            return pendingSample.getVersion();
+        }
+        if (sampleStore.isReady()) {
+            return sampleStore.get(sampleId).orElseThrow(SampleNotFoundException::new).getVersion();
+        }
+        Optional<Sample> cachedSample = sampleCache.getIfPresent(sampleId);
+        if (cachedSample != null) {
+            return cachedSample.orElseThrow(SampleNotFoundException::new).getVersion();
         }
+        return sampleRepository.findVersionById(sampleId).orElseThrow(SampleNotFoundException::new);
     }
 
-    public Sample updateSample(Sample sample) throws SampleNotFoundException {
-        Sample sampleToUpdate = sampleRepository.findById(sample.getId()).orElseThrow(SampleNotFoundException::new);
+    public Sample addSample(Sample sample) throws SampleAlreadyCreatedException, SampleBadRequestException, SampleOverloadedException {
+        if (sampleWriteBehind.isEnabled()) {
+            if (exists(sample.getId()) || !sampleWriteBehind.create(sample)) {
+                throw new SampleAlreadyCreatedException();
+            }
+            sampleTotal.added(1);
+            return buffered(sample);
+        }
+        try {
+            sampleRepository.insertSample(sample);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateKey(e)) {
+                throw new SampleAlreadyCreatedException();
+            }
+            throw new SampleBadRequestException(SampleBadRequestException.INVALID_SAMPLE_MESSAGE);
+        }
+        sampleTotal.added(1);
+        return stored(sample, 0L);
+    }
 
-        sampleToUpdate.setName(sample.getName());
+    /**
+     * One conditional UPDATE when this node knows the current version. Otherwise the new version is read
+     * back in the same transaction, as MySQL has no UPDATE ... RETURNING: two statements on a cold cache,
+     * three when the known version turns out to be stale.
+     */
+    public Sample updateSample(Sample sample) throws SampleNotFoundException, SampleOverloadedException {
+        if (sampleWriteBehind.isEnabled()) {
+            if (!exists(sample.getId())) {
+                throw new SampleNotFoundException();
+            }
+            sampleWriteBehind.update(sample);
+            return buffered(sample);
+        }
+        Long knownVersion = cachedVersion(sample.getId());
+        if (knownVersion != null && sampleRepository.updateSample(sample, knownVersion) == 1) {
+            return stored(sample, knownVersion + 1);
+        }
+        Long version = sampleRepository.updateSampleReturningVersion(sample).orElseThrow(SampleNotFoundException::new);
+        return stored(sample, version);
+    }
 
-        sampleRepository.save(sampleToUpdate);
-        return sampleToUpdate;
+    public Sample updateSample(Sample sample, Long expectedVersion)
+            throws SampleNotFoundException, SamplePreconditionFailedException, SampleOverloadedException {
+        if (expectedVersion == null) {
+            return updateSample(sample);
+        }
+        sampleWriteBehind.flush();
+        if (sampleRepository.updateSample(sample, expectedVersion) == 0) {
+            if (!sampleRepository.existsById(sample.getId())) {
+                throw new SampleNotFoundException();
+            }
+            throw new SamplePreconditionFailedException();
+        }
+        return stored(sample, expectedVersion + 1);
     }
 
     public void deleteSample(Long sampleId) throws SampleNotFoundException {
-        Sample sampleToDelete = sampleRepository.findById(sampleId).orElseThrow(SampleNotFoundException::new);
-        sampleRepository.delete(sampleToDelete);
+        sampleWriteBehind.flush();
+        if (sampleRepository.deleteSampleById(sampleId) == 0) {
+            throw new SampleNotFoundException();
+        }
+        sampleTotal.removed(1);
+        sampleCache.putMissing(sampleId);
+        sampleNameIndex.remove(sampleId);
+        sampleStore.remove(sampleId);
+    }
+
+    @Transactional
+    public List<SampleBatchResult> addSamples(List<Sample> samples) {
+        sampleWriteBehind.flush();
+        Set<Long> existingIds = findExistingIds(samples);
+        List<Sample> samplesToInsert = new ArrayList<>();
+        List<SampleBatchResult> results = new ArrayList<>(samples.size());
+
+        for (Sample sample : samples) {
+            if (existingIds.add(sample.getId())) {
+                samplesToInsert.add(sample);
+                results.add(new SampleBatchResult(sample.getId(), SampleBatchStatus.CREATED));
+            } else {
+                results.add(new SampleBatchResult(sample.getId(), SampleBatchStatus.CONFLICT));
+            }
+        }
+
+        sampleRepository.insertAll(samplesToInsert);
+        afterCommit(() -> {
+            sampleTotal.added(samplesToInsert.size());
+            samplesToInsert.forEach(sample -> stored(sample, 0L));
+        });
+        return results;
+    }
+
+    @Transactional
+    public List<SampleBatchResult> updateSamples(List<Sample> samples) {
+        sampleWriteBehind.flush();
+        int[] updateCounts = sampleRepository.updateAll(samples);
+        Set<Long> existingIds = findExistingIds(withoutUpdateCount(samples, updateCounts));
+        List<Sample> samplesToUpdate = new ArrayList<>();
+        List<SampleBatchResult> results = new ArrayList<>(samples.size());
+
+        for (int i = 0; i < samples.size(); i++) {
+            Sample sample = samples.get(i);
+            if (updateCounts[i] > 0 || updateCounts[i] == Statement.SUCCESS_NO_INFO && existingIds.contains(sample.getId())) {
+                samplesToUpdate.add(sample);
+                results.add(new SampleBatchResult(sample.getId(), SampleBatchStatus.UPDATED));
+            } else {
+                results.add(new SampleBatchResult(sample.getId(), SampleBatchStatus.NOT_FOUND));
+            }
+        }
+
+        Map<Long, Long> versions = storedVersions(samplesToUpdate);
+        afterCommit(() -> samplesToUpdate.forEach(sample -> stored(sample, versions.get(sample.getId()))));
+        return results;
+    }
+
+    @Transactional
+    public List<SampleBatchResult> deleteSamples(List<Sample> samples) {
+        sampleWriteBehind.flush();
+        Set<Long> existingIds = findExistingIds(samples);
+        List<Long> idsToDelete = new ArrayList<>();
+        List<SampleBatchResult> results = new ArrayList<>(samples.size());
+
+        for (Sample sample : samples) {
+            if (existingIds.remove(sample.getId())) {
+                idsToDelete.add(sample.getId());
+                results.add(new SampleBatchResult(sample.getId(), SampleBatchStatus.DELETED));
+            } else {
+                results.add(new SampleBatchResult(sample.getId(), SampleBatchStatus.NOT_FOUND));
+            }
+        }
+
+        sampleRepository.deleteAllById(idsToDelete);
+        afterCommit(() -> {
+            sampleTotal.removed(idsToDelete.size());
+            idsToDelete.forEach(this::forget);
+        });
+        return results;
+    }
+
+    private <T> Page<T> withTotal(Slice<T> slice) {
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), sampleTotal.get());
+    }
+
+    private boolean inStore(Pageable orderedPageRequest) {
+        return sampleStore.isReady() && SampleStore.canPage(orderedPageRequest);
+    }
+
+    private Pageable orderedById(Pageable pageRequest) {
+        if (pageRequest.isUnpaged() || pageRequest.getSort().isSorted()) {
+            return pageRequest;
+        }
+        return PageRequest.of(pageRequest.getPageNumber(), pageRequest.getPageSize(), Sort.by("id"));
+    }
+
+    /**
+     * Whether a sample exists, answered from pending writes or the cache before asking the database.
+     */
+    private boolean exists(Long sampleId) {
+        if (sampleWriteBehind.get(sampleId) != null) {
+            return true;
+        }
+        if (sampleStore.isReady()) {
+            return sampleStore.get(sampleId).isPresent();
+        }
+        Optional<Sample> cachedSample = sampleCache.getIfPresent(sampleId);
+        if (cachedSample != null) {
+            return cachedSample.isPresent();
+        }
+        return sampleRepository.existsById(sampleId);
+    }
+
+    private Sample buffered(Sample sample) {
+        sampleCache.evict(sample.getId());
+        sampleNameIndex.put(sample);
+        return sample;
+    }
+
+    private Sample stored(Sample sample, Long version) {
+        sample.setVersion(version);
+        sampleCache.put(sample);
+        sampleNameIndex.put(sample);
+        sampleStore.put(sample);
+        return sample;
+    }
+
+    /**
+     * The version this node last saw, which spares reading the version back after an update as long as
+     * nobody else changed the sample in between.
+     */
+    private Long cachedVersion(Long sampleId) {
+        if (sampleStore.isReady()) {
+            return sampleStore.get(sampleId).map(Sample::getVersion).orElse(null);
+        }
+        Optional<Sample> cachedSample = sampleCache.getIfPresent(sampleId);
+        return cachedSample == null ? null : cachedSample.map(Sample::getVersion).orElse(null);
+    }
+
+    private Set<Long> findExistingIds(List<Sample> samples) {
+        if (samples.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(sampleRepository.findExistingIds(idsOf(samples)));
+    }
+
+    /**
+     * JPA hands over every constraint violation as a bare {@link DataIntegrityViolationException}, so the
+     * duplicate keys are told apart by the SQL state of the driver's exception.
+     */
+    private static boolean isDuplicateKey(DataIntegrityViolationException e) {
+        if (e instanceof DuplicateKeyException) {
+            return true;
+        }
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                return SQL_EXCEPTION_TRANSLATOR.translate("insertSample", null, sqlException) instanceof DuplicateKeyException;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Samples whose update the driver ran without counting the rows, so only looking them up tells whether they exist.
+     */
+    private static List<Sample> withoutUpdateCount(List<Sample> samples, int[] updateCounts) {
+        List<Sample> uncounted = new ArrayList<>();
+        for (int i = 0; i < samples.size(); i++) {
+            if (updateCounts[i] == Statement.SUCCESS_NO_INFO) {
+                uncounted.add(samples.get(i));
+            }
+        }
+        return uncounted;
+    }
+
+    private List<Long> idsOf(List<Sample> samples) {
+        List<Long> ids = new ArrayList<>(samples.size());
+        samples.forEach(sample -> ids.add(sample.getId()));
+        return ids;
+    }
+
+    /**
+     * Reads the versions the batch just wrote back inside its transaction, so from the primary, which lets
+     * the cache be written through instead of evicted and reloaded from a replica that may lag behind.
+     */
+    private Map<Long, Long> storedVersions(List<Sample> samples) {
+        Map<Long, Long> versions = new HashMap<>();
+        if (!samples.isEmpty()) {
+            sampleRepository.findAllById(idsOf(samples)).forEach(sample -> versions.put(sample.getId(), sample.getVersion()));
+        }
+        return versions;
+    }
+
+    private void forget(Long sampleId) {
+        sampleCache.evict(sampleId);
+        sampleNameIndex.remove(sampleId);
+        sampleStore.remove(sampleId);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
-}
\ No newline at end of file
+}
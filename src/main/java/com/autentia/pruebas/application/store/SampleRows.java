@@ -0,0 +1,347 @@
+package com.autentia.pruebas.application.store;
+
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleVersion;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Samples sorted by id in parallel primitive arrays. Each row's name is a pointer into pages of UTF-8
+ * bytes, holding the byte offset in the high bits and the length in the low ones. Deleted rows keep
+ * their id as a tombstone until {@link #compact()} drops them, so lookups stay a binary search and
+ * paging skips them by rank. Not thread safe.
+ */
+class SampleRows {
+    private static final int PAGE_BITS = 24;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int LENGTH_BITS = 20;
+    private static final int MAX_NAME_LENGTH = (1 << LENGTH_BITS) - 1;
+    private static final long NO_NAME = -1L;
+    private static final long DELETED = -2L;
+
+    private long[] ids;
+    private long[] versions;
+    private long[] names;
+    private int size;
+    private int[] tombstones = new int[16];
+    private int deleted;
+    private byte[][] pages = new byte[0][];
+    private long nameEnd;
+    private long deadNameBytes;
+
+    SampleRows(int capacity) {
+        ids = new long[capacity];
+        versions = new long[capacity];
+        names = new long[capacity];
+    }
+
+    int size() {
+        return size - deleted;
+    }
+
+    /**
+     * Highest id ever stored and not compacted away yet, so no live row has a greater one.
+     */
+    long lastId() {
+        return size == 0 ? Long.MIN_VALUE : ids[size - 1];
+    }
+
+    Sample get(long id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row < 0 || names[row] == DELETED ? null : sample(row);
+    }
+
+    /**
+     * The live rows from {@code offset} on, at most {@code limit} of them.
+     */
+    void page(long offset, int limit, List<Sample> samples) {
+        if (offset >= size()) {
+            return;
+        }
+        collect(rowOfRank((int) offset), limit, samples);
+    }
+
+    void versions(long offset, int limit, List<SampleVersion> samples) {
+        if (offset >= size()) {
+            return;
+        }
+        for (int row = rowOfRank((int) offset); row < size && samples.size() < limit; row++) {
+            if (names[row] != DELETED) {
+                samples.add(new SampleVersion(ids[row], versions[row]));
+            }
+        }
+    }
+
+    /**
+     * The live rows with an id greater than {@code afterId}, at most {@code limit} of them.
+     */
+    void after(long afterId, int limit, List<Sample> samples) {
+        int row = Arrays.binarySearch(ids, 0, size, afterId);
+        collect(row < 0 ? -row - 1 : row + 1, limit, samples);
+    }
+
+    /**
+     * Visits the live rows with an id greater than {@code afterId}, at most {@code limit} of them, and
+     * returns how many it visited. Names are handed over as a slice of their page, with a negative
+     * length when there is none.
+     */
+    <E extends Exception> int forEachAfter(long afterId, int limit, RowVisitor<E> visitor) throws E {
+        int row = Arrays.binarySearch(ids, 0, size, afterId);
+        int visited = 0;
+        for (row = row < 0 ? -row - 1 : row + 1; row < size && visited < limit; row++) {
+            long pointer = names[row];
+            if (pointer == DELETED) {
+                continue;
+            }
+            if (pointer == NO_NAME) {
+                visitor.visit(ids[row], versions[row], null, 0, -1);
+            } else {
+                visitor.visit(ids[row], versions[row], pageOf(pages, pointer), positionOf(pointer), lengthOf(pointer));
+            }
+            visited++;
+        }
+        return visited;
+    }
+
+    /**
+     * Adds a row after the last one, copying {@code length} name bytes from {@code source}, or none
+     * when the length is negative.
+     */
+    void append(long id, long version, ByteBuffer source, int length) {
+        if (size > 0 && id <= ids[size - 1]) {
+            throw new IllegalArgumentException("Sample " + id + " is out of order");
+        }
+        insertRow(size);
+        ids[size - 1] = id;
+        versions[size - 1] = version;
+        if (length < 0) {
+            names[size - 1] = NO_NAME;
+            return;
+        }
+        long pointer = allocateName(length);
+        source.get(pageOf(pages, pointer), positionOf(pointer), length);
+        names[size - 1] = pointer;
+    }
+
+    void put(long id, String name, long version) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row >= 0) {
+            if (names[row] == DELETED) {
+                removeTombstone(row);
+            } else {
+                forgetName(names[row]);
+            }
+        } else {
+            row = -row - 1;
+            insertRow(row);
+            ids[row] = id;
+        }
+        versions[row] = version;
+        names[row] = storeName(name);
+    }
+
+    /**
+     * Puts the sample unless a live row holds a newer version of it.
+     */
+    boolean putUnlessOlder(long id, String name, long version) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row >= 0 && names[row] != DELETED && versions[row] > version) {
+            return false;
+        }
+        put(id, name, version);
+        return true;
+    }
+
+    /**
+     * Renames a row the way an update statement does, bumping its version.
+     */
+    boolean update(long id, String name) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row < 0 || names[row] == DELETED) {
+            return false;
+        }
+        forgetName(names[row]);
+        names[row] = storeName(name);
+        versions[row]++;
+        return true;
+    }
+
+    boolean remove(long id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        if (row < 0 || names[row] == DELETED) {
+            return false;
+        }
+        forgetName(names[row]);
+        names[row] = DELETED;
+        addTombstone(row);
+        if (deleted > Math.max(1024, size >>> 6)) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Drops deleted rows and, once more than half of the name bytes are dead, rewrites the names into
+     * fresh pages.
+     */
+    void compact() {
+        boolean rewriteNames = deadNameBytes > nameEnd / 2;
+        byte[][] oldPages = pages;
+        if (rewriteNames) {
+            pages = new byte[0][];
+            nameEnd = 0;
+            deadNameBytes = 0;
+        }
+        int live = 0;
+        for (int row = 0; row < size; row++) {
+            if (names[row] == DELETED) {
+                continue;
+            }
+            ids[live] = ids[row];
+            versions[live] = versions[row];
+            names[live] = rewriteNames ? copyName(oldPages, names[row]) : names[row];
+            live++;
+        }
+        size = live;
+        deleted = 0;
+    }
+
+    private void collect(int fromRow, int limit, List<Sample> samples) {
+        for (int row = fromRow; row < size && samples.size() < limit; row++) {
+            if (names[row] != DELETED) {
+                samples.add(sample(row));
+            }
+        }
+    }
+
+    private Sample sample(int row) {
+        return new Sample(ids[row], name(pages, names[row]), versions[row]);
+    }
+
+    /**
+     * Row holding the live row number {@code rank}: the rank plus the tombstones before it. The rank of
+     * tombstone {@code j} among live rows, {@code tombstones[j] - j}, never decreases, so they are
+     * counted by binary search.
+     */
+    private int rowOfRank(int rank) {
+        int low = 0;
+        int high = deleted;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (tombstones[middle] - middle <= rank) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return rank + low;
+    }
+
+    private void insertRow(int row) {
+        if (size == ids.length) {
+            int capacity = Math.max(16, size + (size >> 1));
+            ids = Arrays.copyOf(ids, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            names = Arrays.copyOf(names, capacity);
+        }
+        if (row < size) {
+            System.arraycopy(ids, row, ids, row + 1, size - row);
+            System.arraycopy(versions, row, versions, row + 1, size - row);
+            System.arraycopy(names, row, names, row + 1, size - row);
+            int tombstone = Arrays.binarySearch(tombstones, 0, deleted, row);
+            for (int i = tombstone < 0 ? -tombstone - 1 : tombstone; i < deleted; i++) {
+                tombstones[i]++;
+            }
+        }
+        size++;
+    }
+
+    private void addTombstone(int row) {
+        if (deleted == tombstones.length) {
+            tombstones = Arrays.copyOf(tombstones, deleted * 2);
+        }
+        int position = -Arrays.binarySearch(tombstones, 0, deleted, row) - 1;
+        System.arraycopy(tombstones, position, tombstones, position + 1, deleted - position);
+        tombstones[position] = row;
+        deleted++;
+    }
+
+    private void removeTombstone(int row) {
+        int position = Arrays.binarySearch(tombstones, 0, deleted, row);
+        System.arraycopy(tombstones, position + 1, tombstones, position, deleted - position - 1);
+        deleted--;
+    }
+
+    private long storeName(String name) {
+        if (name == null) {
+            return NO_NAME;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        long pointer = allocateName(bytes.length);
+        System.arraycopy(bytes, 0, pageOf(pages, pointer), positionOf(pointer), bytes.length);
+        return pointer;
+    }
+
+    private long copyName(byte[][] fromPages, long pointer) {
+        if (pointer == NO_NAME) {
+            return NO_NAME;
+        }
+        long copy = allocateName(lengthOf(pointer));
+        System.arraycopy(pageOf(fromPages, pointer), positionOf(pointer), pageOf(pages, copy), positionOf(copy), lengthOf(pointer));
+        return copy;
+    }
+
+    /**
+     * Room for a name at the end of the last page, or at the start of a new one when it doesn't fit.
+     */
+    private long allocateName(int length) {
+        if (length > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Sample names can't be longer than " + MAX_NAME_LENGTH + " bytes");
+        }
+        int position = (int) (nameEnd & (PAGE_SIZE - 1));
+        if (position + length > PAGE_SIZE) {
+            deadNameBytes += PAGE_SIZE - position;
+            nameEnd += PAGE_SIZE - position;
+        }
+        int page = (int) (nameEnd >>> PAGE_BITS);
+        if (page == pages.length) {
+            pages = Arrays.copyOf(pages, page + 1);
+            pages[page] = new byte[PAGE_SIZE];
+        }
+        long pointer = nameEnd << LENGTH_BITS | length;
+        nameEnd += length;
+        return pointer;
+    }
+
+    private void forgetName(long pointer) {
+        if (pointer >= 0) {
+            deadNameBytes += lengthOf(pointer);
+        }
+    }
+
+    private static String name(byte[][] pages, long pointer) {
+        if (pointer == NO_NAME) {
+            return null;
+        }
+        return new String(pageOf(pages, pointer), positionOf(pointer), lengthOf(pointer), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] pageOf(byte[][] pages, long pointer) {
+        return pages[(int) (pointer >>> LENGTH_BITS >>> PAGE_BITS)];
+    }
+
+    private static int positionOf(long pointer) {
+        return (int) (pointer >>> LENGTH_BITS & (PAGE_SIZE - 1));
+    }
+
+    private static int lengthOf(long pointer) {
+        return (int) (pointer & MAX_NAME_LENGTH);
+    }
+
+    interface RowVisitor<E extends Exception> {
+        void visit(long id, long version, byte[] page, int offset, int length) throws E;
+    }
+}
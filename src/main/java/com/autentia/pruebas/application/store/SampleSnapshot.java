@@ -0,0 +1,120 @@
+package com.autentia.pruebas.application.store;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary file with every sample in id order: a header, then each row's id, version, name length (-1
+ * without a name) and UTF-8 name bytes, then the row count and the header marker again, so a file cut
+ * short by a crash is told apart from a complete one. It is read through memory-mapped windows, which
+ * costs a copy of the bytes into {@link SampleRows} instead of a query and a few objects per row.
+ */
+final class SampleSnapshot {
+    private static final int MARKER = 0x534D504C;
+    private static final int FORMAT = 1;
+    private static final int HEADER = 2 * Integer.BYTES;
+    private static final int ROW_HEADER = 2 * Long.BYTES + Integer.BYTES;
+    private static final int TRAILER = Long.BYTES + Integer.BYTES;
+    private static final long WINDOW = 1L << 30;
+
+    private SampleSnapshot() {
+    }
+
+    static Writer create(Path path) throws IOException {
+        return new Writer(path);
+    }
+
+    static SampleRows read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long end = channel.size() - TRAILER;
+            if (end < HEADER) {
+                throw new IOException("Snapshot " + path + " is truncated");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            ByteBuffer trailer = channel.map(FileChannel.MapMode.READ_ONLY, end, TRAILER);
+            long rowCount = trailer.getLong();
+            if (header.getInt() != MARKER || trailer.getInt() != MARKER) {
+                throw new IOException("Snapshot " + path + " is truncated or not a sample snapshot");
+            }
+            if (header.getInt() != FORMAT) {
+                throw new IOException("Snapshot " + path + " has an unknown format");
+            }
+
+            SampleRows rows = new SampleRows(Math.toIntExact(rowCount));
+            long windowStart = HEADER;
+            ByteBuffer window = map(channel, windowStart, end);
+            while (windowStart + window.position() < end) {
+                if (window.remaining() < ROW_HEADER) {
+                    windowStart += window.position();
+                    window = map(channel, windowStart, end);
+                }
+                long id = window.getLong();
+                long version = window.getLong();
+                int length = window.getInt();
+                if (length > window.remaining()) {
+                    windowStart += window.position();
+                    window = map(channel, windowStart, end);
+                }
+                rows.append(id, version, window, length);
+            }
+            if (rows.size() != rowCount) {
+                throw new IOException("Snapshot " + path + " holds " + rows.size() + " samples instead of " + rowCount);
+            }
+            return rows;
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long start, long end) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, end - start));
+    }
+
+    /**
+     * Writes rows in increasing id order. Only {@link #finish()} completes the file; closing it before
+     * leaves a file {@link #read(Path)} refuses.
+     */
+    static final class Writer implements Closeable {
+        private final DataOutputStream output;
+        private long rowCount;
+        private long lastId = Long.MIN_VALUE;
+
+        private Writer(Path path) throws IOException {
+            output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+            output.writeInt(MARKER);
+            output.writeInt(FORMAT);
+        }
+
+        void write(long id, long version, byte[] name, int offset, int length) throws IOException {
+            output.writeLong(id);
+            output.writeLong(version);
+            output.writeInt(length);
+            if (length > 0) {
+                output.write(name, offset, length);
+            }
+            rowCount++;
+            lastId = id;
+        }
+
+        long lastId() {
+            return lastId;
+        }
+
+        long finish() throws IOException {
+            output.writeLong(rowCount);
+            output.writeInt(MARKER);
+            output.flush();
+            return rowCount;
+        }
+
+        @Override
+        public void close() throws IOException {
+            output.close();
+        }
+    }
+}
@@ -0,0 +1,503 @@
+package com.autentia.pruebas.application.store;
+
+import com.autentia.pruebas.application.cache.SampleCache;
+import com.autentia.pruebas.application.cache.SampleInvalidation;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleVersion;
+import com.autentia.pruebas.application.repository.SampleRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Every sample held in memory, for nodes that serve reads without going to the database. Rows are kept
+ * in {@link SampleRows}, a handful of primitive arrays and byte pages, instead of a boxed id, a
+ * {@link Sample}, a String and its bytes per row, so the collector has almost nothing to trace however
+ * many samples there are.
+ * <p>
+ * It is loaded from the database once the application is ready and follows this node's writes through
+ * the service. Other nodes' writes arrive as cache invalidations and are read again from the primary.
+ * Write-behind is not supported, since the store would have to guess the versions of coalesced writes.
+ * <p>
+ * With a snapshot path, the rows are also written to a {@link SampleSnapshot} file every so often and
+ * the next start loads that file instead of the database, so the node is ready after a file copy
+ * rather than a full read. The database is then compared with the loaded rows in the background, by
+ * id and version, to read again what changed since the snapshot and the samples past its highest id.
+ */
+@Component
+@Profile("!reactive")
+public class SampleStore {
+    private static final Logger log = LoggerFactory.getLogger(SampleStore.class);
+    private static final int BATCH = 1000;
+
+    private final SampleRepository sampleRepository;
+    private final TransactionTemplate replicaTransaction;
+    private final TransactionTemplate primaryTransaction;
+    private final boolean enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock loading = new ReentrantLock();
+    private final ExecutorService refresher;
+    private final Path snapshotPath;
+    private final Duration snapshotInterval;
+    private final ScheduledExecutorService snapshotWriter;
+    private SampleRows rows = new SampleRows(0);
+    private List<Consumer<SampleRows>> changesWhileLoading;
+    private volatile boolean ready;
+
+    public SampleStore(SampleRepository sampleRepository, SampleCache sampleCache, PlatformTransactionManager transactionManager,
+                       @Value("${samples.store.enabled:false}") boolean enabled,
+                       @Value("${samples.write-behind.enabled:false}") boolean writeBehindEnabled,
+                       @Value("${samples.store.snapshot.path:}") String snapshotPath,
+                       @Value("${samples.store.snapshot.interval:10m}") Duration snapshotInterval) {
+        if (enabled && writeBehindEnabled) {
+            throw new IllegalStateException("samples.store.enabled can't be combined with samples.write-behind.enabled");
+        }
+        this.sampleRepository = sampleRepository;
+        this.replicaTransaction = new TransactionTemplate(transactionManager);
+        this.replicaTransaction.setReadOnly(true);
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.refresher = enabled ? Executors.newSingleThreadExecutor(Thread.ofPlatform().name("sample-store").daemon().factory()) : null;
+        if (enabled) {
+            sampleCache.subscribe(invalidation -> refresher.execute(() -> refresh(invalidation)));
+        }
+        this.snapshotPath = enabled && !snapshotPath.isBlank() ? Path.of(snapshotPath) : null;
+        this.snapshotInterval = snapshotInterval;
+        this.snapshotWriter = this.snapshotPath != null
+                ? Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("sample-store-snapshot").daemon().factory())
+                : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (loadSnapshot()) {
+            ready = true;
+            log.info("Loaded {} samples from {} in {} ms", size(), snapshotPath, (System.nanoTime() - start) / 1_000_000);
+            refresher.execute(this::reconcile);
+        } else {
+            replace(replicaTransaction);
+            ready = true;
+            log.info("Loaded {} samples in {} ms", size(), (System.nanoTime() - start) / 1_000_000);
+            if (snapshotWriter != null) {
+                snapshotWriter.execute(this::writeSnapshot);
+            }
+        }
+        if (snapshotWriter != null && snapshotInterval.isPositive()) {
+            snapshotWriter.scheduleWithFixedDelay(this::writeSnapshot, snapshotInterval.toMillis(), snapshotInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+        if (snapshotWriter != null) {
+            snapshotWriter.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes every sample to a temporary file next to the snapshot and moves it over the previous one once
+     * complete. Rows are copied a batch at a time under the read lock, so writes go on meanwhile and may
+     * or may not make it into the file; the start that loads it reconciles them anyway.
+     */
+    public synchronized void writeSnapshot() {
+        if (snapshotPath == null || !ready) {
+            return;
+        }
+        long start = System.nanoTime();
+        Path temporary = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try {
+            if (snapshotPath.getParent() != null) {
+                Files.createDirectories(snapshotPath.getParent());
+            }
+            long written;
+            try (SampleSnapshot.Writer writer = SampleSnapshot.create(temporary)) {
+                int batch;
+                do {
+                    lock.readLock().lock();
+                    try {
+                        batch = rows.forEachAfter(writer.lastId(), BATCH, writer::write);
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                } while (batch == BATCH);
+                written = writer.finish();
+            }
+            Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote {} samples to {} in {} ms", written, snapshotPath, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write the sample snapshot {}", snapshotPath, e);
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+                // Overwritten by the next snapshot
+            }
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rows.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Sample> get(Long sampleId) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(rows.get(sampleId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the page can be read from the store, which only keeps samples in id order.
+     */
+    public static boolean canPage(Pageable pageRequest) {
+        Sort sort = pageRequest.getSort();
+        return sort.isUnsorted() || sort.equals(Sort.by("id"));
+    }
+
+    public Page<Sample> getAll(Pageable pageRequest) {
+        List<Sample> samples = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (pageRequest.isUnpaged()) {
+                rows.page(0, Integer.MAX_VALUE, samples);
+                return new PageImpl<>(samples);
+            }
+            rows.page(pageRequest.getOffset(), pageRequest.getPageSize(), samples);
+            return new PageImpl<>(samples, pageRequest, rows.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Page<SampleVersion> getAllVersions(Pageable pageRequest) {
+        List<SampleVersion> samples = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (pageRequest.isUnpaged()) {
+                rows.versions(0, Integer.MAX_VALUE, samples);
+                return new PageImpl<>(samples);
+            }
+            rows.versions(pageRequest.getOffset(), pageRequest.getPageSize(), samples);
+            return new PageImpl<>(samples, pageRequest, rows.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Slice<Sample> getAfter(long sampleId, int size) {
+        List<Sample> samples = new ArrayList<>(size + 1);
+        lock.readLock().lock();
+        try {
+            rows.after(sampleId, size + 1, samples);
+        } finally {
+            lock.readLock().unlock();
+        }
+        boolean hasNext = samples.size() > size;
+        return new SliceImpl<>(hasNext ? samples.subList(0, size) : samples, PageRequest.of(0, size), hasNext);
+    }
+
+    /**
+     * Stores the sample unless the store already holds a newer version of it, which a read from the
+     * database that raced with a write of this node would otherwise overwrite.
+     */
+    public void put(Sample sample) {
+        long version = sample.getVersion() == null ? 0L : sample.getVersion();
+        change(sampleRows -> sampleRows.putUnlessOlder(sample.getId(), sample.getName(), version));
+    }
+
+    /**
+     * Renames a stored sample, bumping its version the way the update statement did. A load in progress
+     * gets the resulting version rather than a second bump.
+     */
+    public void update(Sample sample) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (rows.update(sample.getId(), sample.getName()) && changesWhileLoading != null) {
+                long version = rows.get(sample.getId()).getVersion();
+                changesWhileLoading.add(sampleRows -> sampleRows.putUnlessOlder(sample.getId(), sample.getName(), version));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long sampleId) {
+        change(sampleRows -> sampleRows.remove(sampleId));
+    }
+
+    /**
+     * Applies a change to the rows and, while new rows are being loaded, records it to apply to them too.
+     */
+    private void change(Consumer<SampleRows> change) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            change.accept(rows);
+            if (changesWhileLoading != null) {
+                changesWhileLoading.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void refresh(SampleInvalidation invalidation) {
+        if (invalidation.isAll()) {
+            replace(primaryTransaction);
+            return;
+        }
+        Optional<Sample> sample = primaryTransaction.execute(status -> sampleRepository.findById(invalidation.sampleId()));
+        if (sample.isPresent()) {
+            put(sample.get());
+        } else {
+            remove(invalidation.sampleId());
+        }
+    }
+
+    private boolean loadSnapshot() {
+        if (snapshotPath == null || !Files.exists(snapshotPath)) {
+            return false;
+        }
+        SampleRows loadedRows = null;
+        startLoading();
+        try {
+            loadedRows = SampleSnapshot.read(snapshotPath);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring the sample snapshot {}, loading from the database: {}", snapshotPath, e.getMessage());
+            return false;
+        } finally {
+            finishLoading(loadedRows);
+        }
+    }
+
+    /**
+     * Brings rows loaded from a snapshot up to date. Ids and versions up to the highest id in the
+     * snapshot are walked in id order alongside the rows: samples whose version differs or that are
+     * missing are read again, and rows the database no longer has are removed once the primary confirms
+     * it, since this node may have created them after the comparison started. Samples past that id were
+     * created after the snapshot and are streamed in. Closing the store stops the comparison.
+     */
+    private void reconcile() {
+        long start = System.nanoTime();
+        long lastId;
+        lock.readLock().lock();
+        try {
+            lastId = rows.lastId();
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Long> changedIds = new ArrayList<>();
+        List<Long> goneIds = new ArrayList<>();
+        replicaTransaction.executeWithoutResult(status -> {
+            try (Stream<SampleVersion> versions = sampleRepository.streamVersionsByIdLessThanEqual(lastId)) {
+                compare(versions.iterator(), lastId, changedIds, goneIds);
+            }
+        });
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+
+        for (int from = 0; from < changedIds.size(); from += BATCH) {
+            List<Long> sampleIds = changedIds.subList(from, Math.min(from + BATCH, changedIds.size()));
+            Set<Long> missingIds = new HashSet<>(sampleIds);
+            primaryTransaction.executeWithoutResult(status -> sampleRepository.findAllById(sampleIds).forEach(sample -> {
+                put(sample);
+                missingIds.remove(sample.getId());
+            }));
+            missingIds.forEach(this::remove);
+        }
+        for (int from = 0; from < goneIds.size(); from += BATCH) {
+            List<Long> sampleIds = goneIds.subList(from, Math.min(from + BATCH, goneIds.size()));
+            Set<Long> existingIds = new HashSet<>(primaryTransaction.execute(status -> sampleRepository.findExistingIds(sampleIds)));
+            sampleIds.stream().filter(sampleId -> !existingIds.contains(sampleId)).forEach(this::remove);
+        }
+        long[] created = {0};
+        primaryTransaction.executeWithoutResult(status -> {
+            try (Stream<Sample> samples = sampleRepository.streamWithVersionByIdGreaterThan(lastId)) {
+                samples.forEach(sample -> {
+                    put(sample);
+                    created[0]++;
+                });
+            }
+        });
+        log.info("Reconciled the sample snapshot in {} ms: {} changed, {} removed, {} created", (System.nanoTime() - start) / 1_000_000,
+                changedIds.size(), goneIds.size(), created[0]);
+    }
+
+    private void compare(Iterator<SampleVersion> versions, long lastId, List<Long> changedIds, List<Long> goneIds) {
+        StoredVersions stored = new StoredVersions();
+        while (versions.hasNext() && !Thread.currentThread().isInterrupted()) {
+            SampleVersion sample = versions.next();
+            for (; stored.id() < sample.id(); stored.advance()) {
+                goneIds.add(stored.id());
+            }
+            if (stored.id() != sample.id()) {
+                changedIds.add(sample.id());
+                continue;
+            }
+            if (stored.version() != sample.version()) {
+                changedIds.add(sample.id());
+            }
+            stored.advance();
+        }
+        for (; stored.id() <= lastId; stored.advance()) {
+            goneIds.add(stored.id());
+        }
+    }
+
+    /**
+     * Starts recording the changes made to the current rows, to apply them to the rows being loaded.
+     * Only one load runs at a time.
+     */
+    private void startLoading() {
+        loading.lock();
+        lock.writeLock().lock();
+        try {
+            changesWhileLoading = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the changes recorded while loading to the loaded rows and swaps them in, or keeps the
+     * current rows, which already have those changes, when the load failed.
+     */
+    private void finishLoading(SampleRows loadedRows) {
+        lock.writeLock().lock();
+        try {
+            if (loadedRows != null) {
+                changesWhileLoading.forEach(change -> change.accept(loadedRows));
+                rows = loadedRows;
+            }
+            changesWhileLoading = null;
+        } finally {
+            lock.writeLock().unlock();
+            loading.unlock();
+        }
+    }
+
+    /**
+     * Reads every sample into new rows, presized from a count, and swaps them in at once.
+     */
+    private void replace(TransactionTemplate transaction) {
+        SampleRows loadedRows = null;
+        startLoading();
+        try {
+            loadedRows = transaction.execute(status -> {
+                SampleRows newRows = new SampleRows(Math.toIntExact(sampleRepository.count()));
+                try (Stream<Sample> samples = sampleRepository.streamWithVersionByIdGreaterThan(Long.MIN_VALUE)) {
+                    samples.forEach(sample -> newRows.put(sample.getId(), sample.getName(), sample.getVersion()));
+                }
+                return newRows;
+            });
+        } finally {
+            finishLoading(loadedRows);
+        }
+    }
+
+    /**
+     * Ids and versions of the rows in id order, copied a batch at a time under the read lock. The id is
+     * {@link Long#MAX_VALUE} past the last row.
+     */
+    private final class StoredVersions {
+        private final long[] ids = new long[BATCH];
+        private final long[] versions = new long[BATCH];
+        private int count;
+        private int next;
+        private boolean exhausted;
+
+        long id() {
+            if (next == count && !exhausted) {
+                fill();
+            }
+            return next < count ? ids[next] : Long.MAX_VALUE;
+        }
+
+        long version() {
+            return versions[next];
+        }
+
+        void advance() {
+            next++;
+        }
+
+        private void fill() {
+            long afterId = count == 0 ? Long.MIN_VALUE : ids[count - 1];
+            int[] filled = {0};
+            lock.readLock().lock();
+            try {
+                count = rows.forEachAfter(afterId, BATCH, (id, version, page, offset, length) -> {
+                    ids[filled[0]] = id;
+                    versions[filled[0]++] = version;
+                });
+            } finally {
+                lock.readLock().unlock();
+            }
+            next = 0;
+            exhausted = count < BATCH;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.autentia.pruebas.application.web;
+
+import com.autentia.pruebas.application.exceptions.SampleAlreadyCreatedException;
+import com.autentia.pruebas.application.exceptions.SampleBadRequestException;
+import com.autentia.pruebas.application.exceptions.SampleInvalidCursorException;
+import com.autentia.pruebas.application.exceptions.SampleNotFoundException;
+import com.autentia.pruebas.application.metrics.SampleMetrics;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleBatchResult;
+import com.autentia.pruebas.application.model.SampleCursorPage;
+import com.autentia.pruebas.application.service.ReactiveSampleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@Profile("reactive")
+@RequestMapping("/samples")
+public class ReactiveSampleController {
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
+    private final ReactiveSampleService sampleService;
+    private final SampleMetrics sampleMetrics;
+
+    @Autowired
+    public ReactiveSampleController(ReactiveSampleService sampleService, SampleMetrics sampleMetrics) {
+        this.sampleService = sampleService;
+        this.sampleMetrics = sampleMetrics;
+    }
+
+    @GetMapping
+    public Mono<Page<Sample>> getAllSamples(Pageable pageRequest) {
+        return sampleService.getAllSamples(pageRequest);
+    }
+
+    @GetMapping(params = "after")
+    public Mono<SampleCursorPage> getSamplesAfter(@RequestParam("after") String after,
+                                                  @RequestParam(value = "size", defaultValue = "20") int size) throws SampleInvalidCursorException {
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+
+        return sampleService.getSamplesAfter(SampleCursor.decode(after), pageSize).map(samples -> {
+            String next = null;
+            if (samples.hasNext()) {
+                next = SampleCursor.encode(samples.getContent().get(samples.getNumberOfElements() - 1).getId());
+            }
+            return new SampleCursorPage(samples.getContent(), next);
+        });
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Sample> exportSamples(@RequestParam(value = "after", required = false) Long after) {
+        return sampleService.exportSamples(after);
+    }
+
+    @GetMapping(value = "/{sampleId}")
+    public Mono<Sample> getSampleById(@PathVariable("sampleId") Long sampleId) {
+        return sampleService.getSampleById(sampleId);
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Sample>> addSample(@RequestBody Sample sample, ServerHttpRequest request) {
+        return sampleService.addSample(sample).map(createdSample -> ResponseEntity
+                .created(UriComponentsBuilder.fromUri(request.getURI()).path("/{id}").buildAndExpand(createdSample.getId()).toUri())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(createdSample));
+    }
+
+    @PutMapping(value = "/{sampleId}")
+    public Mono<Sample> updateSample(@PathVariable("sampleId") Long userId, @RequestBody Sample sample) {
+        if (!userId.equals(sample.getId())) {
+            return Mono.error(new SampleBadRequestException());
+        }
+        return sampleService.updateSample(sample);
+    }
+
+    @DeleteMapping(value = "/{sampleId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteSample(@PathVariable("sampleId") Long sampleId) {
+        return sampleService.deleteSample(sampleId);
+    }
+
+    @PostMapping(value = "/batch")
+    public Mono<List<SampleBatchResult>> addSamples(@RequestBody List<Sample> samples) {
+        if (!hasIds(samples)) {
+            return Mono.error(new SampleBadRequestException(SampleBadRequestException.MISSING_ID_MESSAGE));
+        }
+        return sampleService.addSamples(samples);
+    }
+
+    @PutMapping(value = "/batch")
+    public Mono<List<SampleBatchResult>> updateSamples(@RequestBody List<Sample> samples) {
+        if (!hasIds(samples)) {
+            return Mono.error(new SampleBadRequestException(SampleBadRequestException.MISSING_ID_MESSAGE));
+        }
+        return sampleService.updateSamples(samples);
+    }
+
+    @DeleteMapping(value = "/batch")
+    public Mono<List<SampleBatchResult>> deleteSamples(@RequestBody List<Sample> samples) {
+        if (!hasIds(samples)) {
+            return Mono.error(new SampleBadRequestException(SampleBadRequestException.MISSING_ID_MESSAGE));
+        }
+        return sampleService.deleteSamples(samples);
+    }
+
+    @ExceptionHandler(SampleNotFoundException.class)
+    public ResponseEntity<Object> sampleNotFoundException(SampleNotFoundException e) {
+        sampleMetrics.countError(e);
+        return new ResponseEntity<>(SampleNotFoundException.ERROR_MESSAGE, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(SampleAlreadyCreatedException.class)
+    public ResponseEntity<Object> sampleAlreadyCreatedException(SampleAlreadyCreatedException e) {
+        sampleMetrics.countError(e);
+        return new ResponseEntity<>(SampleAlreadyCreatedException.ERROR_MESSAGE, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(SampleBadRequestException.class)
+    public ResponseEntity<Object> sampleBadRequestException(SampleBadRequestException e) {
+        sampleMetrics.countError(e);
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(SampleInvalidCursorException.class)
+    public ResponseEntity<Object> sampleInvalidCursorException(SampleInvalidCursorException e) {
+        sampleMetrics.countError(e);
+        return new ResponseEntity<>(SampleInvalidCursorException.ERROR_MESSAGE, HttpStatus.BAD_REQUEST);
+    }
+
+    private static boolean hasIds(List<Sample> samples) {
+        return samples.stream().allMatch(sample -> sample != null && sample.getId() != null);
+    }
+}
\ No newline at end of file
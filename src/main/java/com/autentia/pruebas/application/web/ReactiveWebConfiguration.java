@@ -0,0 +1,67 @@
+package com.autentia.pruebas.application.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.web.ReactivePageableHandlerMethodArgumentResolver;
+import org.springframework.data.web.ReactiveSortHandlerMethodArgumentResolver;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+
+import java.util.Map;
+
+@Configuration
+@Profile("reactive")
+public class ReactiveWebConfiguration implements WebFluxConfigurer {
+
+    @Override
+    public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+        configurer.addCustomResolver(new ReactivePageableHandlerMethodArgumentResolver(),
+                new ReactiveSortHandlerMethodArgumentResolver());
+    }
+
+    /**
+     * Tomcat is on the classpath for the servlet stack and Boot would start it for WebFlux too, so Netty is
+     * declared here.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(ObjectProvider<NettyServerCustomizer> serverCustomizers) {
+        NettyReactiveWebServerFactory serverFactory = new NettyReactiveWebServerFactory();
+        serverCustomizers.orderedStream().forEach(serverFactory::addServerCustomizers);
+        return serverFactory;
+    }
+
+    @Bean
+    @Order(1)
+    public CodecCustomizer compactNdjsonCodecCustomizer(ObjectMapper objectMapper) {
+        return configurer -> configurer.defaultCodecs().jackson2JsonEncoder(new CompactNdjsonEncoder(objectMapper));
+    }
+
+    private static class CompactNdjsonEncoder extends Jackson2JsonEncoder {
+        CompactNdjsonEncoder(ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        @Override
+        protected ObjectWriter customizeWriter(ObjectWriter writer, MimeType mimeType, ResolvableType elementType,
+                                               Map<String, Object> hints) {
+            ObjectWriter customizedWriter = super.customizeWriter(writer, mimeType, elementType, hints);
+            if (mimeType != null && MediaType.APPLICATION_NDJSON.isCompatibleWith(mimeType)) {
+                return customizedWriter.without(SerializationFeature.INDENT_OUTPUT);
+            }
+            return customizedWriter;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.autentia.pruebas.application.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty("samples.datasource.replica.enabled")
+public class ReadYourWritesConfiguration implements WebMvcConfigurer {
+    private final Duration stickyWindow;
+
+    public ReadYourWritesConfiguration(@Value("${samples.datasource.replica.sticky-window:5s}") Duration stickyWindow) {
+        this.stickyWindow = stickyWindow;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadYourWritesInterceptor(stickyWindow))
+                .addPathPatterns("/samples", "/samples/**");
+    }
+}
@@ -0,0 +1,56 @@
+package com.autentia.pruebas.application.web;
+
+import com.autentia.pruebas.application.datasource.PrimaryStickiness;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.util.WebUtils;
+
+import java.time.Duration;
+
+/**
+ * Gives a client read-your-writes on top of replica routing. Every write hands out a cookie that lives
+ * for the sticky window, and requests carrying it read from the primary until the replica has had time
+ * to catch up.
+ */
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+    static final String COOKIE_NAME = "samples-primary";
+
+    private final int stickySeconds;
+
+    public ReadYourWritesInterceptor(Duration stickyWindow) {
+        this.stickySeconds = (int) Math.max(1, (stickyWindow.toMillis() + 999) / 1000);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (isWrite(request)) {
+            Cookie cookie = new Cookie(COOKIE_NAME, "1");
+            cookie.setMaxAge(stickySeconds);
+            cookie.setPath("/samples");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+            PrimaryStickiness.stick();
+        } else if (WebUtils.getCookie(request, COOKIE_NAME) != null) {
+            PrimaryStickiness.stick();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        PrimaryStickiness.release();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        PrimaryStickiness.release();
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        return method != HttpMethod.GET && method != HttpMethod.HEAD && method != HttpMethod.OPTIONS;
+    }
+}
@@ -0,0 +1,65 @@
+package com.autentia.pruebas.application.web;
+
+import com.autentia.pruebas.application.exceptions.SampleOverloadedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the number of requests using a database connection at the same time. Requests beyond the
+ * cap wait for a permit up to {@code maxWait}, and once {@code maxWaiting} requests are already
+ * queued new ones are rejected straight away instead of piling up on the connection pool.
+ */
+@Component
+@ConditionalOnProperty("samples.bulkhead.enabled")
+public class SampleBulkhead {
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final int maxWaiting;
+    private final long maxWaitNanos;
+
+    public SampleBulkhead(@Value("${samples.bulkhead.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+                          @Value("${samples.bulkhead.max-waiting:100}") int maxWaiting,
+                          @Value("${samples.bulkhead.max-wait:1s}") Duration maxWait) {
+        this.permits = new Semaphore(permits, true);
+        this.maxWaiting = maxWaiting;
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    public void acquire() throws SampleOverloadedException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            throw new SampleOverloadedException();
+        }
+        try {
+            if (!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                throw new SampleOverloadedException();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SampleOverloadedException();
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int waiting() {
+        return waiting.get();
+    }
+}
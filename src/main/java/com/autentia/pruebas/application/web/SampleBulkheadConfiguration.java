@@ -0,0 +1,22 @@
+package com.autentia.pruebas.application.web;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty("samples.bulkhead.enabled")
+public class SampleBulkheadConfiguration implements WebMvcConfigurer {
+    private final SampleBulkhead sampleBulkhead;
+
+    public SampleBulkheadConfiguration(SampleBulkhead sampleBulkhead) {
+        this.sampleBulkhead = sampleBulkhead;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SampleBulkheadInterceptor(sampleBulkhead))
+                .addPathPatterns("/samples", "/samples/**");
+    }
+}
@@ -0,0 +1,38 @@
+package com.autentia.pruebas.application.web;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Holds a {@link SampleBulkhead} permit for the whole request, including the async part of
+ * streamed responses, and releases it once the request completes.
+ */
+public class SampleBulkheadInterceptor implements AsyncHandlerInterceptor {
+    static final String PERMIT_ATTRIBUTE = SampleBulkheadInterceptor.class.getName() + ".PERMIT";
+
+    private final SampleBulkhead sampleBulkhead;
+
+    public SampleBulkheadInterceptor(SampleBulkhead sampleBulkhead) {
+        this.sampleBulkhead = sampleBulkhead;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (request.getDispatcherType() == DispatcherType.ASYNC || request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true;
+        }
+        sampleBulkhead.acquire();
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            sampleBulkhead.release();
+        }
+    }
+}
@@ -2,53 +2,120 @@ package com.autentia.pruebas.application.web;
 
 import com.autentia.pruebas.application.exceptions.SampleAlreadyCreatedException;
 import com.autentia.pruebas.application.exceptions.SampleBadRequestException;
+import com.autentia.pruebas.application.exceptions.SampleInvalidCursorException;
 import com.autentia.pruebas.application.exceptions.SampleNotFoundException;
+import com.autentia.pruebas.application.exceptions.SampleOverloadedException;
+import com.autentia.pruebas.application.exceptions.SamplePreconditionFailedException;
+import com.autentia.pruebas.application.metrics.SampleMetrics;
 import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleBatchResult;
+import com.autentia.pruebas.application.model.SampleCursorPage;
+import com.autentia.pruebas.application.model.SampleNameMatch;
+import com.autentia.pruebas.application.model.SampleTotalMode;
+import com.autentia.pruebas.application.model.SampleVersion;
 import com.autentia.pruebas.application.service.SampleService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.util.List;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/samples")
 public class SampleController {
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
     private final SampleService sampleService;
+    private final SampleMetrics sampleMetrics;
 
     @Autowired
-    public SampleController(SampleService sampleService) {
+    public SampleController(SampleService sampleService, SampleMetrics sampleMetrics) {
         this.sampleService = sampleService;
+        this.sampleMetrics = sampleMetrics;
     }
 
     @GetMapping
-    public Page<Sample> getAllSamples(Pageable pageRequest) {
-        return sampleService.getAllSamples(pageRequest);
+    public ResponseEntity<Page<Sample>> getAllSamples(Pageable pageRequest, WebRequest webRequest) {
+        if (isConditional(webRequest)
+                && webRequest.checkNotModified(SampleETag.of(sampleService.getAllSampleVersions(pageRequest)))) {
+            return null;
+        }
+        Page<Sample> samples = sampleService.getAllSamples(pageRequest);
+
+        return ResponseEntity.ok().eTag(SampleETag.of(samples.map(SampleVersion::of))).body(samples);
+    }
+
+    @GetMapping(params = {"total", "!after"})
+    public ResponseEntity<Slice<Sample>> getAllSamples(Pageable pageRequest, @RequestParam("total") SampleTotalMode total,
+                                                       WebRequest webRequest) {
+        if (isConditional(webRequest)
+                && webRequest.checkNotModified(SampleETag.of(sampleService.getAllSampleVersions(pageRequest, total)))) {
+            return null;
+        }
+        Slice<Sample> samples = sampleService.getAllSamples(pageRequest, total);
+
+        return ResponseEntity.ok().eTag(SampleETag.of(samples.map(SampleVersion::of))).body(samples);
+    }
+
+    @GetMapping(params = "after")
+    public SampleCursorPage getSamplesAfter(@RequestParam("after") String after,
+                                            @RequestParam(value = "size", defaultValue = "20") int size) throws SampleInvalidCursorException {
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        Slice<Sample> samples = sampleService.getSamplesAfter(SampleCursor.decode(after), pageSize);
+
+        String next = null;
+        if (samples.hasNext()) {
+            next = SampleCursor.encode(samples.getContent().get(samples.getNumberOfElements() - 1).getId());
+        }
+        return new SampleCursorPage(samples.getContent(), next);
+    }
+
+    @GetMapping(value = "/search")
+    public Page<Sample> searchSamples(@RequestParam("name") String name,
+                                      @RequestParam(value = "match", defaultValue = "EXACT") SampleNameMatch match,
+                                      @RequestParam(value = "ignoreCase", defaultValue = "false") boolean ignoreCase,
+                                      Pageable pageRequest) {
+        return sampleService.searchSamples(name, match, ignoreCase, pageRequest);
     }
 
     @GetMapping(value = "/{sampleId}")
-    public Sample getSampleById(@PathVariable("sampleId") Long sampleId) throws SampleNotFoundException {
-        return sampleService.getSampleById(sampleId);
+    public ResponseEntity<Sample> getSampleById(@PathVariable("sampleId") Long sampleId, WebRequest webRequest) throws SampleNotFoundException {
+        if (isConditional(webRequest) && isNotModified(webRequest, SampleETag.of(sampleService.getSampleVersion(sampleId)))) {
+            return null;
+        }
+        Sample sample = sampleService.getSampleById(sampleId);
+
+        return ResponseEntity.ok().eTag(SampleETag.of(sample.getVersion())).body(sample);
     }
 
     @PostMapping
-    public ResponseEntity<Sample> addSample(@RequestBody Sample sample) throws SampleAlreadyCreatedException {
+    public ResponseEntity<Sample> addSample(@RequestBody Sample sample)
+            throws SampleAlreadyCreatedException, SampleBadRequestException, SampleOverloadedException {
         Sample createdSample = sampleService.addSample(sample);
 
-        return ResponseEntity.created(getUri(createdSample)).contentType(MediaType.APPLICATION_JSON).body(createdSample);
+        return ResponseEntity.created(getUri(createdSample)).eTag(SampleETag.of(createdSample.getVersion())).body(createdSample);
     }
 
     @PutMapping(value = "/{sampleId}")
-    public Sample updateSample(@PathVariable("sampleId") Long userId, @RequestBody Sample sample) throws SampleNotFoundException, SampleBadRequestException {
+    public ResponseEntity<Sample> updateSample(@PathVariable("sampleId") Long userId,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                               @RequestBody Sample sample)
+            throws SampleNotFoundException, SampleBadRequestException, SamplePreconditionFailedException, SampleOverloadedException {
         if (!userId.equals(sample.getId())) {
             throw new SampleBadRequestException();
         }
-        return sampleService.updateSample(sample);
+        Sample updatedSample = sampleService.updateSample(sample, SampleETag.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(SampleETag.of(updatedSample.getVersion())).body(updatedSample);
     }
 
     @DeleteMapping(value = "/{sampleId}")
@@ -57,21 +124,72 @@ public class SampleController {
         sampleService.deleteSample(sampleId);
     }
 
+    @PostMapping(value = "/batch")
+    public List<SampleBatchResult> addSamples(@RequestBody List<Sample> samples) throws SampleBadRequestException {
+        requireIds(samples);
+        return sampleService.addSamples(samples);
+    }
+
+    @PutMapping(value = "/batch")
+    public List<SampleBatchResult> updateSamples(@RequestBody List<Sample> samples) throws SampleBadRequestException {
+        requireIds(samples);
+        return sampleService.updateSamples(samples);
+    }
+
+    @DeleteMapping(value = "/batch")
+    public List<SampleBatchResult> deleteSamples(@RequestBody List<Sample> samples) throws SampleBadRequestException {
+        requireIds(samples);
+        return sampleService.deleteSamples(samples);
+    }
+
     @ExceptionHandler(SampleNotFoundException.class)
-    public ResponseEntity<Object> sampleNotFoundException() {
+    public ResponseEntity<Object> sampleNotFoundException(SampleNotFoundException e) {
+        sampleMetrics.countError(e);
         return new ResponseEntity<>(SampleNotFoundException.ERROR_MESSAGE, HttpStatus.NOT_FOUND);
     }
 
     @ExceptionHandler(SampleAlreadyCreatedException.class)
-    public ResponseEntity<Object> sampleAlreadyCreatedException() {
+    public ResponseEntity<Object> sampleAlreadyCreatedException(SampleAlreadyCreatedException e) {
+        sampleMetrics.countError(e);
         return new ResponseEntity<>(SampleAlreadyCreatedException.ERROR_MESSAGE, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(SampleBadRequestException.class)
-    public ResponseEntity<Object> sampleBadRequestException() {
-        return new ResponseEntity<>(SampleBadRequestException.ERROR_MESSAGE, HttpStatus.BAD_REQUEST);
+    public ResponseEntity<Object> sampleBadRequestException(SampleBadRequestException e) {
+        sampleMetrics.countError(e);
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(SampleInvalidCursorException.class)
+    public ResponseEntity<Object> sampleInvalidCursorException(SampleInvalidCursorException e) {
+        sampleMetrics.countError(e);
+        return new ResponseEntity<>(SampleInvalidCursorException.ERROR_MESSAGE, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(SamplePreconditionFailedException.class)
+    public ResponseEntity<Object> samplePreconditionFailedException(SamplePreconditionFailedException e) {
+        sampleMetrics.countError(e);
+        return new ResponseEntity<>(SamplePreconditionFailedException.ERROR_MESSAGE, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    private static void requireIds(List<Sample> samples) throws SampleBadRequestException {
+        for (Sample sample : samples) {
+            if (sample == null || sample.getId() == null) {
+                throw new SampleBadRequestException(SampleBadRequestException.MISSING_ID_MESSAGE);
+            }
+        }
+    }
+
+    /**
+     * Only requests carrying If-None-Match pay for the version lookup; the rest go straight to the samples.
+     */
+    private static boolean isConditional(WebRequest webRequest) {
+        return webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null;
+    }
+
+    private static boolean isNotModified(WebRequest webRequest, String eTag) {
+        return eTag != null && webRequest.checkNotModified(eTag);
+    }
 
     private URI getUri(Sample createdSample) {
         return ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(createdSample.getId()).toUri();
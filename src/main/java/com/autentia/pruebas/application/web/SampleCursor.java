@@ -0,0 +1,32 @@
+package com.autentia.pruebas.application.web;
+
+import com.autentia.pruebas.application.exceptions.SampleInvalidCursorException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+final class SampleCursor {
+
+    private SampleCursor() {
+    }
+
+    static String encode(Long sampleId) {
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES).putLong(sampleId).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    static Long decode(String cursor) throws SampleInvalidCursorException {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            if (bytes.length != Long.BYTES) {
+                throw new SampleInvalidCursorException();
+            }
+            return ByteBuffer.wrap(bytes).getLong();
+        } catch (IllegalArgumentException e) {
+            throw new SampleInvalidCursorException();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.autentia.pruebas.application.web;
+
+import com.autentia.pruebas.application.exceptions.SamplePreconditionFailedException;
+import com.autentia.pruebas.application.model.SampleVersion;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.Objects;
+
+/**
+ * Strong ETags built from sample versions. A single sample is tagged with its version and a page with a
+ * hash of the ids and versions it holds plus its total, or whether there is a next slice when it has no
+ * total, so both can be checked without serializing them.
+ */
+final class SampleETag {
+    private static final String ANY = "*";
+
+    private SampleETag() {
+    }
+
+    /**
+     * Tag of a sample version, or null for samples whose version isn't known yet, like buffered writes.
+     */
+    static String of(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    static String of(Slice<SampleVersion> page) {
+        long hash = page instanceof Page<SampleVersion> counted ? counted.getTotalElements() : page.hasNext() ? -1 : -2;
+        for (SampleVersion sampleVersion : page) {
+            hash = 31 * hash + Objects.hashCode(sampleVersion.id());
+            hash = 31 * hash + Objects.hashCode(sampleVersion.version());
+        }
+        return "\"p" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Version an If-Match header expects, or null when there is no header or it accepts any version.
+     */
+    static Long expectedVersion(String ifMatch) throws SamplePreconditionFailedException {
+        if (ifMatch == null || ifMatch.trim().equals(ANY)) {
+            return null;
+        }
+        String eTag = ifMatch.trim();
+        if (eTag.length() < 3 || eTag.charAt(0) != '"' || eTag.charAt(eTag.length() - 1) != '"') {
+            throw new SamplePreconditionFailedException();
+        }
+        try {
+            return Long.valueOf(eTag.substring(1, eTag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new SamplePreconditionFailedException();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.autentia.pruebas.application.web;
+
+import com.autentia.pruebas.application.datasource.PrimaryStickiness;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.service.SampleService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/samples")
+public class SampleExportController {
+    public static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+    public static final MediaType APPLICATION_CBOR_SEQ = MediaType.parseMediaType(APPLICATION_CBOR_SEQ_VALUE);
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private final SampleService sampleService;
+    private final ObjectWriter jsonWriter;
+    private final ObjectWriter cborWriter;
+    private final ObjectWriter smileWriter;
+
+    @Autowired
+    public SampleExportController(SampleService sampleService, ObjectMapper objectMapper,
+                                  MappingJackson2CborHttpMessageConverter cborConverter,
+                                  MappingJackson2SmileHttpMessageConverter smileConverter) {
+        this.sampleService = sampleService;
+        this.jsonWriter = sampleWriter(objectMapper);
+        this.cborWriter = sampleWriter(cborConverter.getObjectMapper());
+        this.smileWriter = sampleWriter(smileConverter.getObjectMapper());
+    }
+
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE, APPLICATION_CBOR_SEQ_VALUE, APPLICATION_SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportSamples(@RequestParam(value = "after", required = false) Long after,
+                                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        MediaType mediaType = negotiate(accept);
+        ObjectWriter objectWriter = mediaType.equals(APPLICATION_CBOR_SEQ) ? cborWriter
+                : mediaType.equals(APPLICATION_SMILE) ? smileWriter : jsonWriter;
+        boolean newlineDelimited = objectWriter == jsonWriter;
+        // the body is written on an async thread, which has to read from the primary too if this request does
+        boolean sticky = PrimaryStickiness.isSticky();
+        StreamingResponseBody body = outputStream -> {
+            if (sticky) {
+                PrimaryStickiness.stick();
+            }
+            try {
+                writeSamples(after, outputStream, objectWriter, newlineDelimited);
+            } finally {
+                PrimaryStickiness.release();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(mediaType).body(body);
+    }
+
+    private static MediaType negotiate(String accept) {
+        if (accept != null) {
+            for (MediaType acceptedType : MediaType.parseMediaTypes(accept)) {
+                if (acceptedType.getQualityValue() == 0) {
+                    continue;
+                }
+                for (MediaType mediaType : new MediaType[]{MediaType.APPLICATION_NDJSON, APPLICATION_CBOR_SEQ, APPLICATION_SMILE}) {
+                    if (acceptedType.includes(mediaType)) {
+                        return mediaType;
+                    }
+                }
+            }
+        }
+        return MediaType.APPLICATION_NDJSON;
+    }
+
+    private static ObjectWriter sampleWriter(ObjectMapper objectMapper) {
+        return objectMapper.writerFor(Sample.class).without(SerializationFeature.INDENT_OUTPUT)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private void writeSamples(Long after, OutputStream outputStream, ObjectWriter objectWriter, boolean newlineDelimited) throws IOException {
+        try (JsonGenerator generator = objectWriter.getFactory().createGenerator(outputStream)) {
+            if (newlineDelimited) {
+                generator.setRootValueSeparator(null);
+            }
+            int[] written = {0};
+            try {
+                sampleService.exportSamples(after, sample -> {
+                    try {
+                        objectWriter.writeValue(generator, sample);
+                        if (newlineDelimited) {
+                            generator.writeRaw('\n');
+                        }
+                        if (written[0]++ % FLUSH_INTERVAL == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
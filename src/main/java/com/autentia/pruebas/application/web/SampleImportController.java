@@ -0,0 +1,61 @@
+package com.autentia.pruebas.application.web;
+
+import com.autentia.pruebas.application.importer.SampleImporter;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleImportPolicy;
+import com.autentia.pruebas.application.model.SampleImportResult;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Bulk load from a raw NDJSON or CSV request body, read row by row as it arrives. CSV files start with
+ * a header naming the {@code id} and {@code name} columns.
+ */
+@RestController
+@Profile("!reactive")
+@RequestMapping("/samples")
+public class SampleImportController {
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final SampleImporter sampleImporter;
+    private final ObjectReader jsonReader;
+    private final ObjectReader csvReader;
+
+    @Autowired
+    public SampleImportController(SampleImporter sampleImporter, ObjectMapper objectMapper) {
+        this.sampleImporter = sampleImporter;
+        this.jsonReader = objectMapper.readerFor(Sample.class);
+        this.csvReader = new CsvMapper().readerFor(Sample.class).with(CsvSchema.emptySchema().withHeader());
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public SampleImportResult importNdjson(@RequestParam(value = "policy", defaultValue = "REJECT") SampleImportPolicy policy,
+                                           InputStream body) throws IOException {
+        return importSamples(jsonReader, body, policy);
+    }
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    public SampleImportResult importCsv(@RequestParam(value = "policy", defaultValue = "REJECT") SampleImportPolicy policy,
+                                        InputStream body) throws IOException {
+        return importSamples(csvReader, body, policy);
+    }
+
+    private SampleImportResult importSamples(ObjectReader reader, InputStream body, SampleImportPolicy policy) throws IOException {
+        try (MappingIterator<Sample> samples = reader.readValues(body)) {
+            return sampleImporter.importSamples(samples, policy);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.autentia.pruebas.application.web;
+
+import com.autentia.pruebas.application.exceptions.SampleOverloadedException;
+import com.autentia.pruebas.application.metrics.SampleMetrics;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class SampleOverloadedHandler {
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final SampleMetrics sampleMetrics;
+
+    public SampleOverloadedHandler(SampleMetrics sampleMetrics) {
+        this.sampleMetrics = sampleMetrics;
+    }
+
+    @ExceptionHandler(SampleOverloadedException.class)
+    public ResponseEntity<Object> sampleOverloadedException(SampleOverloadedException e) {
+        sampleMetrics.countError(e);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(SampleOverloadedException.ERROR_MESSAGE);
+    }
+}
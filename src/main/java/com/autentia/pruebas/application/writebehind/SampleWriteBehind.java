@@ -0,0 +1,345 @@
+package com.autentia.pruebas.application.writebehind;
+
+import com.autentia.pruebas.application.cache.SampleCache;
+import com.autentia.pruebas.application.exceptions.SampleOverloadedException;
+import com.autentia.pruebas.application.metrics.SampleMetrics;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.repository.SampleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded buffer of single creates and updates that a background thread writes in JDBC batches.
+ * Writes to the same id are coalesced while they wait, so a hot sample costs one statement per flush,
+ * and once {@code capacity} distinct ids are pending callers wait up to {@code max-wait} for the
+ * flusher to catch up before the write is rejected as overloaded. Pending samples stay readable through {@link #get} until their batch is committed.
+ * <p>
+ * A batch the database refuses for its data is split in halves until the offending samples are found,
+ * which are dropped and counted so the rest of the batch commits. Any other failure puts the batch
+ * back to be retried.
+ */
+@Component
+@Profile("!reactive")
+public class SampleWriteBehind {
+    private static final Logger log = LoggerFactory.getLogger(SampleWriteBehind.class);
+
+    private final SampleRepository sampleRepository;
+    private final SampleCache sampleCache;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long maxWaitNanos;
+    private final Timer flushTimer;
+    private final Counter droppedCounter;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition flushNeeded = lock.newCondition();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private Map<Long, PendingWrite> pending = new LinkedHashMap<>();
+    private Map<Long, PendingWrite> flushing = Map.of();
+    private volatile boolean running;
+    private Thread flusher;
+
+    public SampleWriteBehind(SampleRepository sampleRepository, SampleCache sampleCache,
+                             PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                             @Value("${samples.write-behind.enabled:false}") boolean enabled,
+                             @Value("${samples.write-behind.capacity:10000}") int capacity,
+                             @Value("${samples.write-behind.batch-size:1000}") int batchSize,
+                             @Value("${samples.write-behind.flush-interval:100ms}") Duration flushInterval,
+                             @Value("${samples.write-behind.max-wait:1s}") Duration maxWait) {
+        this.sampleRepository = sampleRepository;
+        this.sampleCache = sampleCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.maxWaitNanos = maxWait.toNanos();
+        this.flushTimer = meterRegistry.timer(SampleMetrics.WRITE_BEHIND_FLUSH_TIMER);
+        this.droppedCounter = meterRegistry.counter(SampleMetrics.WRITE_BEHIND_DROPPED_COUNTER);
+        meterRegistry.gauge(SampleMetrics.WRITE_BEHIND_PENDING_GAUGE, this, SampleWriteBehind::size);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "sample-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Stops the flusher and writes whatever is still pending, so an orderly shutdown loses nothing.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        signalFlush();
+        flusher.join();
+        flush();
+    }
+
+    /**
+     * Queues a new sample, or returns false if a write for its id is already pending.
+     */
+    public boolean create(Sample sample) throws SampleOverloadedException {
+        return enqueue(new PendingWrite(sample, true), false);
+    }
+
+    /**
+     * Queues an update, folding it into any write already pending for the same id.
+     */
+    public void update(Sample sample) throws SampleOverloadedException {
+        enqueue(new PendingWrite(sample, false), true);
+    }
+
+    public Sample get(Long sampleId) {
+        lock.lock();
+        try {
+            PendingWrite write = pending.get(sampleId);
+            if (write == null) {
+                write = flushing.get(sampleId);
+            }
+            return write == null ? null : write.sample();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return pending.size() + flushing.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes everything queued so far before returning. Deletes, batches and conditional updates call
+     * this first so they never race with a buffered write to the same id.
+     */
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            while (writeBatch()) {
+                // keep going until the buffer is empty
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private boolean enqueue(PendingWrite write, boolean coalesce) throws SampleOverloadedException {
+        Long sampleId = write.sample().getId();
+        lock.lock();
+        try {
+            long wait = maxWaitNanos;
+            while (!pending.containsKey(sampleId) && pending.size() >= capacity) {
+                if (wait <= 0) {
+                    throw new SampleOverloadedException();
+                }
+                wait = notFull.awaitNanos(wait);
+            }
+            PendingWrite previous = pending.get(sampleId);
+            if (!coalesce && (previous != null || flushing.containsKey(sampleId))) {
+                return false;
+            }
+            // a write already being flushed is committed on its own, this one goes in the next batch
+            pending.put(sampleId, previous == null ? write : previous.then(write));
+            if (pending.size() >= batchSize) {
+                flushNeeded.signal();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SampleOverloadedException();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (running) {
+            lock.lock();
+            try {
+                if (running && pending.size() < batchSize) {
+                    flushNeeded.awaitNanos(flushIntervalNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Write-behind flush failed, {} samples will be retried", size(), e);
+                sleepQuietly();
+            }
+        }
+    }
+
+    private boolean writeBatch() {
+        Map<Long, PendingWrite> batch = takeBatch();
+        if (batch.isEmpty()) {
+            return false;
+        }
+        Set<Long> writtenIds = new HashSet<>();
+        try {
+            flushTimer.record(() -> writeOrSplit(new ArrayList<>(batch.values()), writtenIds));
+        } catch (RuntimeException e) {
+            batch.keySet().removeAll(writtenIds);
+            restore(batch);
+            writtenIds.forEach(sampleCache::evict);
+            throw e;
+        }
+        lock.lock();
+        try {
+            flushing = Map.of();
+        } finally {
+            lock.unlock();
+        }
+        batch.keySet().forEach(sampleCache::evict);
+        return true;
+    }
+
+    /**
+     * Writes the samples in one transaction or, if the database refuses them, each half in its own, down
+     * to single samples, which are dropped. {@code writtenIds} collects the samples that are done with.
+     */
+    private void writeOrSplit(List<PendingWrite> writes, Set<Long> writtenIds) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(writes));
+        } catch (DataIntegrityViolationException e) {
+            if (writes.size() > 1) {
+                int half = writes.size() / 2;
+                writeOrSplit(writes.subList(0, half), writtenIds);
+                writeOrSplit(writes.subList(half, writes.size()), writtenIds);
+                return;
+            }
+            droppedCounter.increment();
+            log.warn("Write-behind dropped sample {}, refused by the database: {}", writes.get(0).sample().getId(),
+                    NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+        writes.forEach(write -> writtenIds.add(write.sample().getId()));
+    }
+
+    private Map<Long, PendingWrite> takeBatch() {
+        lock.lock();
+        try {
+            Map<Long, PendingWrite> batch;
+            if (pending.size() <= batchSize) {
+                batch = pending;
+                pending = new LinkedHashMap<>();
+            } else {
+                batch = new LinkedHashMap<>();
+                var iterator = pending.entrySet().iterator();
+                while (batch.size() < batchSize) {
+                    var entry = iterator.next();
+                    batch.put(entry.getKey(), entry.getValue());
+                    iterator.remove();
+                }
+            }
+            flushing = batch;
+            notFull.signalAll();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(Iterable<PendingWrite> writes) {
+        List<Sample> creates = new ArrayList<>();
+        List<Sample> updates = new ArrayList<>();
+        for (PendingWrite write : writes) {
+            (write.create() ? creates : updates).add(write.sample());
+        }
+        if (!creates.isEmpty()) {
+            Set<Long> existingIds = new HashSet<>(sampleRepository.findExistingIds(creates.stream().map(Sample::getId).toList()));
+            if (!existingIds.isEmpty()) {
+                creates.removeIf(sample -> existingIds.contains(sample.getId()));
+                droppedCounter.increment(existingIds.size());
+                log.warn("Write-behind dropped {} creates of samples that already existed", existingIds.size());
+            }
+            sampleRepository.insertAll(creates);
+        }
+        sampleRepository.updateAll(updates);
+    }
+
+    private void restore(Map<Long, PendingWrite> batch) {
+        lock.lock();
+        try {
+            Map<Long, PendingWrite> restored = new LinkedHashMap<>(batch);
+            pending.forEach((sampleId, write) -> restored.merge(sampleId, write, PendingWrite::then));
+            pending = restored;
+            flushing = Map.of();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signalFlush() {
+        lock.lock();
+        try {
+            flushNeeded.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            TimeUnit.NANOSECONDS.sleep(flushIntervalNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record PendingWrite(Sample sample, boolean create) {
+
+        PendingWrite then(PendingWrite next) {
+            return new PendingWrite(next.sample(), create || next.create());
+        }
+    }
+}
@@ -0,0 +1,2 @@
+create table if not exists sample (id bigint not null, name varchar(255), version bigint default 0 not null, primary key (id));
+create index if not exists idx_sample_name on sample (name);
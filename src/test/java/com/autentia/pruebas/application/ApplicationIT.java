@@ -1,11 +1,17 @@
 package com.autentia.pruebas.application;
 
+import com.autentia.pruebas.application.cache.SampleCache;
 import com.autentia.pruebas.application.exceptions.SampleAlreadyCreatedException;
 import com.autentia.pruebas.application.exceptions.SampleBadRequestException;
+import com.autentia.pruebas.application.exceptions.SampleInvalidCursorException;
 import com.autentia.pruebas.application.exceptions.SampleNotFoundException;
+import com.autentia.pruebas.application.exceptions.SamplePreconditionFailedException;
 import com.autentia.pruebas.application.model.Sample;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,10 +20,12 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
+import static junit.framework.TestCase.assertEquals;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.stringContainsInOrder;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -31,12 +39,19 @@ public class ApplicationIT {
     @Autowired
     private MockMvc mvc;
 
+    @Autowired
+    private SampleCache sampleCache;
+
     private ObjectWriter objectWriter = new ObjectMapper().writerWithDefaultPrettyPrinter();
 
     private Sample sample1 = new Sample(1L, "Juan");
     private Sample sample2 = new Sample(2L, "Ana");
     private Sample newSample = new Sample(3L, "Alex");
 
+    @After
+    public void clearCache() {
+        sampleCache.clear();
+    }
 
     @Test
     public void returnsOKAndAllSamplesWhenYouRequestAllSamples() throws Exception {
@@ -47,6 +62,104 @@ public class ApplicationIT {
                 .andExpect(content().string(stringContainsInOrder(sample1.getName(), sample2.getName())));
     }
 
+    @Test
+    public void returnsOKAndSamplesWithTheTotalYouAskFor() throws Exception {
+        mvc.perform(get("/samples").param("total", "CACHED").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value(sample1.getName()))
+                .andExpect(jsonPath("$.totalElements").value(2));
+
+        mvc.perform(get("/samples").param("total", "NONE").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value(sample1.getName()))
+                .andExpect(jsonPath("$.last").value(false))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    public void returnsOKAndSamplesPageByPageWhenYouSeekWithCursor() throws Exception {
+        String response = mvc.perform(get("/samples?after=&size=1").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value(sample1.getName()))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        String next = new ObjectMapper().readTree(response).get("next").asText();
+
+        mvc.perform(get("/samples").param("after", next).param("size", "1").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value(sample2.getName()))
+                .andExpect(jsonPath("$.next").isEmpty());
+    }
+
+    @Test
+    public void returnsOKAndMatchingSamplesWhenYouSearchByName() throws Exception {
+        mvc.perform(get("/samples/search").param("name", "ju").param("match", "PREFIX").param("ignoreCase", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value(sample1.getName()))
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        mvc.perform(get("/samples/search").param("name", "ju"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    public void returnsERRORWhenYouSeekWithInvalidCursor() throws Exception {
+        mvc.perform(get("/samples?after=***").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString(SampleInvalidCursorException.ERROR_MESSAGE)));
+    }
+
+    @Test
+    public void returnsOKAndOneLinePerSampleWhenYouExportSamples() throws Exception {
+        MvcResult result = mvc.perform(get("/samples/export").param("after", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", containsString("application/x-ndjson")))
+                .andExpect(content().string("{\"id\":2,\"name\":\"Ana\"}\n"));
+    }
+
+    @Test
+    public void returnsOKAndACborSequenceWhenYouExportSamplesAsCbor() throws Exception {
+        MvcResult result = mvc.perform(get("/samples/export").accept("application/cbor-seq"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", containsString("application/cbor-seq")))
+                .andReturn().getResponse().getContentAsByteArray();
+        List<Sample> samples = new CBORMapper().readerFor(Sample.class).<Sample>readValues(body).readAll();
+
+        assertEquals(samples, List.of(sample1, sample2));
+    }
+
+    @Test
+    public void returnsOKAndCborSample1WhenYouAcceptCbor() throws Exception {
+        byte[] body = mvc.perform(get("/samples/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", containsString("application/cbor")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(new CBORMapper().readValue(body, Sample.class), sample1);
+    }
+
+    @Test
+    public void returnsCreatedAndSmileSample3WhenYouAddSample3AsSmile() throws Exception {
+        SmileMapper smileMapper = new SmileMapper();
+
+        byte[] body = mvc.perform(post("/samples").contentType("application/x-jackson-smile")
+                .accept("application/x-jackson-smile")
+                .content(smileMapper.writeValueAsBytes(newSample)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(smileMapper.readValue(body, Sample.class), newSample);
+    }
+
     @Test
     public void returnsOKAndSample1WhenYouRequestSample1() throws Exception {
         mvc.perform(get("/samples/1").contentType(MediaType.APPLICATION_JSON))
@@ -54,6 +167,54 @@ public class ApplicationIT {
                 .andExpect(content().string(containsString(objectWriter.writeValueAsString(sample1))));
     }
 
+    @Test
+    public void returnsNotModifiedWhenSample1DidNotChangeSinceYouReadIt() throws Exception {
+        String eTag = mvc.perform(get("/samples/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/samples/1").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void returnsNotModifiedUntilAPageChanges() throws Exception {
+        String eTag = mvc.perform(get("/samples"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/samples").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        mvc.perform(put("/samples/2").contentType(MediaType.APPLICATION_JSON)
+                .content(objectWriter.writeValueAsString(new Sample(2L, "Alex"))))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/samples").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Alex")));
+    }
+
+    @Test
+    public void returnsPreconditionFailedWhenYouUpdateAStaleSample() throws Exception {
+        Sample updatedSample = new Sample(1L, "Alex");
+
+        mvc.perform(put("/samples/1").header("If-Match", "\"0\"").contentType(MediaType.APPLICATION_JSON)
+                .content(objectWriter.writeValueAsString(updatedSample)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+
+        mvc.perform(put("/samples/1").header("If-Match", "\"0\"").contentType(MediaType.APPLICATION_JSON)
+                .content(objectWriter.writeValueAsString(new Sample(1L, "Juan"))))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().string(containsString(SamplePreconditionFailedException.ERROR_MESSAGE)));
+
+        mvc.perform(get("/samples/1").header("If-None-Match", "\"1\""))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     public void returnsERRORWhenYouRequestSampleOutOfBounds() throws Exception {
         mvc.perform(get("/samples/3").contentType(MediaType.APPLICATION_JSON))
@@ -78,6 +239,14 @@ public class ApplicationIT {
                 .andExpect(content().string(containsString(SampleAlreadyCreatedException.ERROR_MESSAGE)));
     }
 
+    @Test
+    public void returnsERRORWhenYouAddSampleWithoutId() throws Exception {
+        mvc.perform(post("/samples").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Alex\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString(SampleBadRequestException.INVALID_SAMPLE_MESSAGE)));
+    }
+
     @Test
     public void returnsOKAndSample1WhenYouEditSample1() throws Exception {
         String newName = "Alex";
@@ -86,7 +255,8 @@ public class ApplicationIT {
         mvc.perform(put("/samples/1").contentType(MediaType.APPLICATION_JSON)
                 .content(objectWriter.writeValueAsString(updatedSample)))
                 .andExpect(status().isOk())
-                .andExpect(content().string(containsString(objectWriter.writeValueAsString(updatedSample))));
+                .andExpect(content().string(containsString(objectWriter.writeValueAsString(updatedSample))))
+                .andExpect(header().string("ETag", "\"1\""));
     }
 
     @Test
@@ -138,4 +308,44 @@ public class ApplicationIT {
         mvc.perform(post("/samples/1").contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isMethodNotAllowed());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void returnsOKAndOutcomePerSampleWhenYouAddSamplesInBatch() throws Exception {
+        mvc.perform(post("/samples/batch").contentType(MediaType.APPLICATION_JSON)
+                .content(objectWriter.writeValueAsString(List.of(sample1, newSample))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CONFLICT"))
+                .andExpect(jsonPath("$[1].status").value("CREATED"));
+
+        mvc.perform(get("/samples/3").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(objectWriter.writeValueAsString(newSample))));
+    }
+
+    @Test
+    public void returnsOKAndOutcomePerSampleWhenYouEditSamplesInBatch() throws Exception {
+        Sample updatedSample = new Sample(1L, "Alex");
+
+        mvc.perform(put("/samples/batch").contentType(MediaType.APPLICATION_JSON)
+                .content(objectWriter.writeValueAsString(List.of(updatedSample, newSample))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+
+        mvc.perform(get("/samples/1").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(objectWriter.writeValueAsString(updatedSample))));
+    }
+
+    @Test
+    public void returnsOKAndOutcomePerSampleWhenYouDeleteSamplesInBatch() throws Exception {
+        mvc.perform(delete("/samples/batch").contentType(MediaType.APPLICATION_JSON)
+                .content(objectWriter.writeValueAsString(List.of(sample1, newSample))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("DELETED"))
+                .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+
+        mvc.perform(get("/samples/1").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,37 @@
+package com.autentia.pruebas.application;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static junit.framework.TestCase.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:faststartit")
+@AutoConfigureMockMvc
+@ActiveProfiles("fast-start")
+public class FastStartProfileIT {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    public void servesSamplesFromTheScriptedSchemaWithoutTheH2Console() throws Exception {
+        mvc.perform(get("/samples/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Juan"));
+
+        assertFalse(applicationContext.containsBean("h2Console"));
+    }
+}
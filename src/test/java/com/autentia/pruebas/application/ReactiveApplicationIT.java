@@ -0,0 +1,228 @@
+package com.autentia.pruebas.application;
+
+import com.autentia.pruebas.application.cache.SampleCache;
+import com.autentia.pruebas.application.exceptions.SampleAlreadyCreatedException;
+import com.autentia.pruebas.application.exceptions.SampleBadRequestException;
+import com.autentia.pruebas.application.exceptions.SampleNotFoundException;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleCursorPage;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Result;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+import static org.hamcrest.Matchers.containsString;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.r2dbc.url=r2dbc:h2:mem:///reactivetestdb")
+@ActiveProfiles("reactive")
+public class ReactiveApplicationIT {
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private SampleCache sampleCache;
+
+    @Autowired
+    private ReactiveWebServerApplicationContext applicationContext;
+
+    private Sample sample1 = new Sample(1L, "Juan");
+    private Sample sample2 = new Sample(2L, "Ana");
+    private Sample newSample = new Sample(3L, "Alex");
+
+    @Before
+    public void resetSamples() {
+        DatabaseClient databaseClient = DatabaseClient.create(connectionFactory);
+        databaseClient.sql("delete from sample").then()
+                .then(databaseClient.sql("insert into sample (id, name) values (1, 'Juan'), (2, 'Ana')").then())
+                .block();
+        sampleCache.clear();
+    }
+
+    @Test
+    public void runsOnNetty() {
+        assertTrue(applicationContext.getWebServer() instanceof NettyWebServer);
+    }
+
+    @Test
+    public void returnsOKAndAllSamplesWhenYouRequestAllSamples() {
+        client.get().uri("/samples?size=1&page=1").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content[0].name").isEqualTo(sample2.getName())
+                .jsonPath("$.totalElements").isEqualTo(2);
+    }
+
+    @Test
+    public void returnsOKAndSamplesPageByPageWhenYouSeekWithCursor() {
+        SampleCursorPage firstPage = client.get().uri("/samples?after=&size=1").exchange()
+                .expectStatus().isOk()
+                .expectBody(SampleCursorPage.class)
+                .returnResult().getResponseBody();
+        String next = firstPage.getNext();
+        assertEquals(firstPage.getContent(), List.of(sample1));
+
+        client.get().uri("/samples?after={after}&size=1", next).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content[0].name").isEqualTo(sample2.getName())
+                .jsonPath("$.next").isEmpty();
+    }
+
+    @Test
+    public void returnsOKAndOneLinePerSampleWhenYouExportSamples() {
+        client.get().uri("/samples/export?after=1").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).isEqualTo("{\"id\":2,\"name\":\"Ana\"}\n");
+    }
+
+    @Test
+    public void returnsOKAndSample1WhenYouRequestSample1() {
+        client.get().uri("/samples/1").exchange()
+                .expectStatus().isOk()
+                .expectBody(Sample.class).isEqualTo(sample1);
+    }
+
+    @Test
+    public void returnsERRORWhenYouRequestSampleOutOfBounds() {
+        client.get().uri("/samples/3").exchange()
+                .expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo(SampleNotFoundException.ERROR_MESSAGE);
+    }
+
+    @Test
+    public void returnsOKAndSample3WhenYouAddSample3() {
+        client.post().uri("/samples").bodyValue(newSample).exchange()
+                .expectStatus().isCreated()
+                .expectHeader().value("Location", containsString("samples/3"))
+                .expectBody(Sample.class).isEqualTo(newSample);
+
+        client.get().uri("/samples/3").exchange()
+                .expectStatus().isOk()
+                .expectBody(Sample.class).isEqualTo(newSample);
+    }
+
+    @Test
+    public void returnsERRORWhenYouWhenYouAddSampleAlreadyInDb() {
+        client.post().uri("/samples").bodyValue(sample1).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo(SampleAlreadyCreatedException.ERROR_MESSAGE);
+    }
+
+    @Test
+    public void returnsOKAndSample1WhenYouEditSample1() {
+        Sample updatedSample = new Sample(1L, "Alex");
+
+        client.put().uri("/samples/1").bodyValue(updatedSample).exchange()
+                .expectStatus().isOk()
+                .expectBody(Sample.class).isEqualTo(updatedSample);
+    }
+
+    @Test
+    public void returnsERRORWhenYouWhenYouEditSampleAndSampleIdDoesntMatchUrlId() {
+        client.put().uri("/samples/3").bodyValue(new Sample(1L, "Alex")).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo(SampleBadRequestException.ERROR_MESSAGE);
+    }
+
+    @Test
+    public void returnsOKWhenYouDeleteSample1() {
+        client.delete().uri("/samples/1").exchange()
+                .expectStatus().isNoContent();
+
+        client.get().uri("/samples/1").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void returnsERRORWhenYouWhenYouDeleteSampleNotInDb() {
+        client.delete().uri("/samples/3").exchange()
+                .expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo(SampleNotFoundException.ERROR_MESSAGE);
+    }
+
+    @Test
+    public void returnsOKAndOutcomePerSampleWhenYouAddSamplesInBatch() {
+        client.post().uri("/samples/batch").bodyValue(List.of(sample1, newSample)).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].status").isEqualTo("CONFLICT")
+                .jsonPath("$[1].status").isEqualTo("CREATED");
+
+        client.get().uri("/samples/3").exchange()
+                .expectStatus().isOk()
+                .expectBody(Sample.class).isEqualTo(newSample);
+    }
+
+    @Test
+    public void returnsOKAndOutcomePerSampleWhenYouUpdateAndDeleteSamplesInBatch() {
+        Sample updatedSample = new Sample(2L, "Alex");
+
+        client.put().uri("/samples/batch").bodyValue(List.of(updatedSample, newSample)).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].status").isEqualTo("UPDATED")
+                .jsonPath("$[1].status").isEqualTo("NOT_FOUND");
+
+        client.method(HttpMethod.DELETE).uri("/samples/batch").bodyValue(List.of(sample1)).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].status").isEqualTo("DELETED");
+
+        client.get().uri("/samples/2").exchange()
+                .expectBody(Sample.class).isEqualTo(updatedSample);
+        client.get().uri("/samples/1").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void returnsOKAndNotFoundForASampleDeletedWhileYouUpdateSamplesInBatch() throws Exception {
+        Connection connection = Mono.from(connectionFactory.create()).block();
+        try {
+            Mono.from(connection.beginTransaction()).block();
+            Flux.from(connection.createStatement("delete from sample where id = 1").execute())
+                    .concatMap(Result::getRowsUpdated).blockLast();
+
+            CompletableFuture<Void> batchUpdate = CompletableFuture.runAsync(() ->
+                    client.put().uri("/samples/batch").bodyValue(List.of(new Sample(1L, "Julia"), new Sample(2L, "Alex")))
+                            .exchange()
+                            .expectStatus().isOk()
+                            .expectBody()
+                            .jsonPath("$[0].status").isEqualTo("NOT_FOUND")
+                            .jsonPath("$[1].status").isEqualTo("UPDATED"));
+            Thread.sleep(200);
+            Mono.from(connection.commitTransaction()).block();
+            batchUpdate.get(10, TimeUnit.SECONDS);
+        } finally {
+            Mono.from(connection.close()).block();
+        }
+
+        client.get().uri("/samples/1").exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,38 @@
+package com.autentia.pruebas.application;
+
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleVersion;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static junit.framework.TestCase.assertTrue;
+
+public class SampleRuntimeHintsTest {
+    private RuntimeHints hints;
+
+    @Before
+    public void init() {
+        hints = new RuntimeHints();
+        new SampleRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    public void sampleRuntimeHintsShouldLetHibernateBuildSamplesAndVersions() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onConstructor(Sample.class.getConstructor(Long.class, String.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onConstructor(SampleVersion.class.getConstructor(Long.class, Long.class)).test(hints));
+    }
+
+    @Test
+    public void sampleRuntimeHintsShouldLetSpelReadSampleGetters() throws NoSuchMethodException {
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(Sample.class.getMethod("getName")).test(hints));
+    }
+
+    @Test
+    public void sampleRuntimeHintsShouldIncludeTheSchemaScript() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("sample-schema.sql").test(hints));
+    }
+}
@@ -0,0 +1,56 @@
+package com.autentia.pruebas.application.benchmark;
+
+import com.autentia.pruebas.application.Application;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.repository.SampleRepository;
+import com.autentia.pruebas.application.service.SampleService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+public class SampleApplicationState {
+    public static final int SAMPLES = 10_000;
+
+    ConfigurableApplicationContext context;
+    SampleService sampleService;
+    SampleRepository sampleRepository;
+    ObjectMapper objectMapper;
+    MockMvc mvc;
+    AtomicLong nextId;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(Application.class)
+                .properties("server.port=0", "spring.profiles.active=benchmark")
+                .run();
+        sampleService = context.getBean(SampleService.class);
+        sampleRepository = context.getBean(SampleRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        mvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+        List<Sample> samples = new ArrayList<>(SAMPLES);
+        for (long id = 3; id < SAMPLES + 3; id++) {
+            samples.add(new Sample(id, "Sample " + id));
+        }
+        sampleService.addSamples(samples);
+        nextId = new AtomicLong(SAMPLES + 3);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+}
@@ -0,0 +1,35 @@
+package com.autentia.pruebas.application.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SampleControllerBenchmark {
+
+    @Benchmark
+    public MvcResult getSampleById(SampleApplicationState state) throws Exception {
+        long id = 1 + ThreadLocalRandom.current().nextInt(SampleApplicationState.SAMPLES);
+        return state.mvc.perform(get("/samples/{sampleId}", id)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getAllSamples(SampleApplicationState state) throws Exception {
+        int page = ThreadLocalRandom.current().nextInt(SampleApplicationState.SAMPLES / 20);
+        return state.mvc.perform(get("/samples").param("page", String.valueOf(page)).param("size", "20")).andReturn();
+    }
+}
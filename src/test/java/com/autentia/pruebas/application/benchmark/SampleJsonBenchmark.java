@@ -0,0 +1,115 @@
+package com.autentia.pruebas.application.benchmark;
+
+import com.autentia.pruebas.application.json.SampleJsonModule;
+import com.autentia.pruebas.application.model.Sample;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the indented bean serialization we used to send with the compact-json profile plus lean
+ * pages and the CBOR and Smile representations bulk consumers can ask for. Run with {@code -prof gc}
+ * to get the allocated bytes per operation; the payload size of each response is printed when the
+ * trial starts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SampleJsonBenchmark {
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"indented", "compact", "cbor", "smile"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private Sample sample;
+    private Page<Sample> page;
+    private byte[] sampleBytes;
+    private byte[] batchBytes;
+    private ObjectReader batchReader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        switch (format) {
+            case "compact" -> objectMapper = compactMapper(JsonFactory.builder()
+                    .recyclerPool(JsonRecyclerPools.sharedLockFreePool()).build());
+            case "cbor" -> objectMapper = compactMapper(CBORFactory.builder()
+                    .recyclerPool(JsonRecyclerPools.sharedLockFreePool()).build());
+            case "smile" -> objectMapper = compactMapper(SmileFactory.builder()
+                    .recyclerPool(JsonRecyclerPools.sharedLockFreePool()).build());
+            default -> objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        }
+        sample = new Sample(1L, "Juan");
+
+        List<Sample> content = new ArrayList<>();
+        for (long id = 3; id < 23; id++) {
+            content.add(new Sample(id, "Sample " + id));
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, 20), SampleApplicationState.SAMPLES + 2);
+        List<Sample> batch = new ArrayList<>();
+        for (long id = 1; id <= BATCH_SIZE; id++) {
+            batch.add(new Sample(id, "Sample " + id));
+        }
+        sampleBytes = objectMapper.writeValueAsBytes(sample);
+        batchBytes = objectMapper.writeValueAsBytes(batch);
+        batchReader = objectMapper.readerFor(new TypeReference<List<Sample>>() {
+        });
+        System.out.printf("%n%s payload: sample %d bytes, page %d bytes, batch of %d %d bytes%n", format,
+                sampleBytes.length, objectMapper.writeValueAsBytes(page).length, BATCH_SIZE, batchBytes.length);
+    }
+
+    private static ObjectMapper compactMapper(JsonFactory factory) {
+        return new ObjectMapper(factory)
+                .registerModule(new SampleJsonModule(true))
+                .registerModule(new BlackbirdModule());
+    }
+
+    @Benchmark
+    public byte[] serializeSample() throws IOException {
+        return objectMapper.writeValueAsBytes(sample);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public Sample deserializeSample() throws IOException {
+        return objectMapper.readValue(sampleBytes, Sample.class);
+    }
+
+    @Benchmark
+    public List<Sample> deserializeBatch() throws IOException {
+        return batchReader.readValue(batchBytes);
+    }
+}
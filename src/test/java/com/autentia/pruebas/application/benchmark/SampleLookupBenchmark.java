@@ -0,0 +1,139 @@
+package com.autentia.pruebas.application.benchmark;
+
+import com.autentia.pruebas.application.cache.SampleCache;
+import com.autentia.pruebas.application.count.SampleTotal;
+import com.autentia.pruebas.application.exceptions.SampleNotFoundException;
+import com.autentia.pruebas.application.lookup.SampleLookupBatcher;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.repository.SampleRepository;
+import com.autentia.pruebas.application.search.SampleNameIndex;
+import com.autentia.pruebas.application.service.SampleService;
+import com.autentia.pruebas.application.store.SampleStore;
+import com.autentia.pruebas.application.writebehind.SampleWriteBehind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * 64 threads asking for random ids among {@code ids}, with samples expiring from the cache 10 ms after
+ * they are read, so hot ids are missed by a crowd of requests over and over. The repository is a stub
+ * that takes a millisecond per query, like a database round trip. Lookups read the cache and load
+ * misses themselves ({@code cache-aside}), go through the service, whose cache runs one load per id at
+ * a time ({@code single-flight}), or through the service and the {@link SampleLookupBatcher}
+ * ({@code batched}). Each iteration prints how many queries a lookup cost.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SampleLookupBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int ids;
+
+    @Param({"cache-aside", "single-flight", "batched"})
+    public String lookup;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+    private SampleRepository sampleRepository;
+    private SampleCache sampleCache;
+    private SampleLookupBatcher sampleLookupBatcher;
+    private SampleService sampleService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        sampleRepository = mock(SampleRepository.class, withSettings().stubOnly());
+        when(sampleRepository.findById(any())).thenAnswer(invocation -> {
+            query();
+            Long sampleId = invocation.getArgument(0);
+            return Optional.of(new Sample(sampleId, "Sample " + sampleId));
+        });
+        when(sampleRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            query();
+            List<Sample> samples = new ArrayList<>();
+            for (Long sampleId : invocation.<Iterable<Long>>getArgument(0)) {
+                samples.add(new Sample(sampleId, "Sample " + sampleId));
+            }
+            return samples;
+        });
+
+        sampleCache = new SampleCache(100_000, Duration.ofMillis(10), Duration.ofMillis(10));
+        sampleLookupBatcher = new SampleLookupBatcher(sampleRepository, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                lookup.equals("batched"), Duration.ofMillis(2), 100, 4, Duration.ofSeconds(1));
+        sampleLookupBatcher.start();
+        sampleService = new SampleService(sampleRepository, sampleCache, new SampleNameIndex(sampleRepository, sampleCache, mock(PlatformTransactionManager.class), false),
+                new SampleWriteBehind(sampleRepository, sampleCache, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                        false, 100, 100, Duration.ofMinutes(1), Duration.ofSeconds(1)),
+                new SampleTotal(sampleRepository, Duration.ofMinutes(1)),
+                new SampleStore(sampleRepository, sampleCache, mock(PlatformTransactionManager.class), false, false, "", Duration.ZERO),
+                sampleLookupBatcher);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounts() {
+        lookups.reset();
+        queries.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printCounts() {
+        System.out.printf("%n%s with %d ids: %d lookups, %d queries, %.4f queries per lookup%n",
+                lookup, ids, lookups.sum(), queries.sum(), (double) queries.sum() / lookups.sum());
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws InterruptedException {
+        sampleLookupBatcher.stop();
+    }
+
+    @Benchmark
+    public Sample getSampleById() throws SampleNotFoundException {
+        long sampleId = ThreadLocalRandom.current().nextLong(1, ids + 1);
+        lookups.increment();
+        if (!lookup.equals("cache-aside")) {
+            return sampleService.getSampleById(sampleId);
+        }
+        Optional<Sample> sample = sampleCache.getIfPresent(sampleId);
+        if (sample == null) {
+            sample = sampleRepository.findById(sampleId);
+            sampleCache.put(sample.get());
+        }
+        return sample.get();
+    }
+
+    private void query() throws InterruptedException {
+        queries.increment();
+        Thread.sleep(1);
+    }
+}
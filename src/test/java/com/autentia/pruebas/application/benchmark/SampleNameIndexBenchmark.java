@@ -0,0 +1,76 @@
+package com.autentia.pruebas.application.benchmark;
+
+import com.autentia.pruebas.application.cache.SampleCache;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleNameMatch;
+import com.autentia.pruebas.application.repository.SampleRepository;
+import com.autentia.pruebas.application.search.SampleNameIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SampleNameIndexBenchmark {
+    private static final String[] SYLLABLES = {"an", "ju", "ma", "ri", "al", "ex", "lo", "pe", "sa", "to", "ne", "vi"};
+
+    @Param({"1000000"})
+    public int samples;
+
+    private SampleNameIndex sampleNameIndex;
+    private Pageable pageRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        sampleNameIndex = new SampleNameIndex(mock(SampleRepository.class), new SampleCache(1, Duration.ofMinutes(1), Duration.ofMinutes(1)),
+                mock(PlatformTransactionManager.class), true);
+        for (long id = 1; id <= samples; id++) {
+            StringBuilder name = new StringBuilder();
+            for (int syllable = 0; syllable < 4; syllable++) {
+                name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            sampleNameIndex.load(new Sample(id, name.append(id).toString()));
+        }
+        sampleNameIndex.markReady();
+        pageRequest = PageRequest.of(0, 20);
+    }
+
+    @Benchmark
+    public Page<Sample> selectiveInfixIgnoringCase() {
+        return sampleNameIndex.search("XJU12345", SampleNameMatch.CONTAINS, true, pageRequest);
+    }
+
+    @Benchmark
+    public Page<Sample> prefixIgnoringCase() {
+        return sampleNameIndex.search("JUMARIAL9", SampleNameMatch.PREFIX, true, pageRequest);
+    }
+
+    @Benchmark
+    public Page<Sample> shortInfixIgnoringCase() {
+        return sampleNameIndex.search("X7", SampleNameMatch.CONTAINS, true, pageRequest);
+    }
+}
@@ -0,0 +1,70 @@
+package com.autentia.pruebas.application.benchmark;
+
+import com.autentia.pruebas.application.Application;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleTotalMode;
+import com.autentia.pruebas.application.service.SampleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one of the first pages of {@code GET /samples} over a large table, with the total counted,
+ * kept by the service or left out.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SamplePagingBenchmark {
+
+    @Param({"1000000"})
+    public int samples;
+
+    @Param({"EXACT", "CACHED", "NONE"})
+    public SampleTotalMode total;
+
+    private ConfigurableApplicationContext context;
+    private SampleService sampleService;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(Application.class)
+                .properties("server.port=0", "spring.profiles.active=benchmark")
+                .run();
+        sampleService = context.getBean(SampleService.class);
+        context.getBean(JdbcTemplate.class)
+                .update("insert into sample (id, name, version) select x, concat('Sample ', x), 0 from system_range(3, ?)", samples);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Slice<Sample> getAllSamples() {
+        int page = ThreadLocalRandom.current().nextInt(50);
+        return sampleService.getAllSamples(PageRequest.of(page, 20), total);
+    }
+}
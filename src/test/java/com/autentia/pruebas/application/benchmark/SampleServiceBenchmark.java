@@ -0,0 +1,55 @@
+package com.autentia.pruebas.application.benchmark;
+
+import com.autentia.pruebas.application.exceptions.SampleAlreadyCreatedException;
+import com.autentia.pruebas.application.exceptions.SampleBadRequestException;
+import com.autentia.pruebas.application.exceptions.SampleNotFoundException;
+import com.autentia.pruebas.application.exceptions.SampleOverloadedException;
+import com.autentia.pruebas.application.model.Sample;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SampleServiceBenchmark {
+
+    @Benchmark
+    public Sample getSampleById(SampleApplicationState state) throws SampleNotFoundException {
+        return state.sampleService.getSampleById(randomId());
+    }
+
+    @Benchmark
+    public Optional<Sample> findSampleByIdInRepository(SampleApplicationState state) {
+        return state.sampleRepository.findById(randomId());
+    }
+
+    @Benchmark
+    public Sample addSample(SampleApplicationState state)
+            throws SampleAlreadyCreatedException, SampleBadRequestException, SampleOverloadedException {
+        long id = state.nextId.getAndIncrement();
+        return state.sampleService.addSample(new Sample(id, "Sample " + id));
+    }
+
+    @Benchmark
+    public Page<Sample> getAllSamples(SampleApplicationState state) {
+        int page = ThreadLocalRandom.current().nextInt(SampleApplicationState.SAMPLES / 20);
+        return state.sampleService.getAllSamples(PageRequest.of(page, 20));
+    }
+
+    private static long randomId() {
+        return 1 + ThreadLocalRandom.current().nextInt(SampleApplicationState.SAMPLES);
+    }
+}
@@ -0,0 +1,171 @@
+package com.autentia.pruebas.application.benchmark;
+
+import com.autentia.pruebas.application.Application;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Time from launching the packaged application to its first successful {@code GET /samples/1}, so it
+ * needs {@code target/*.jar} to be built first. The exploded modes run the jar unpacked the way the
+ * Docker image does, with and without the AppCDS archive from a training run.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SampleStartupBenchmark {
+    private static final Path STARTUP_DIRECTORY = Paths.get("target", "startup");
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    @Param({"default", "fast-start", "fast-start-exploded", "fast-start-cds"})
+    public String mode;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private Path applicationJar;
+    private Path archive;
+    private Process application;
+
+    @Setup(Level.Trial)
+    public void prepare() throws Exception {
+        applicationJar = packagedJar();
+        archive = STARTUP_DIRECTORY.resolve("application.jsa");
+        if (mode.startsWith("fast-start-")) {
+            explode();
+        }
+        if (mode.equals("fast-start-cds")) {
+            List<String> training = new ArrayList<>(List.of(javaExecutable(), "-XX:ArchiveClassesAtExit=" + archive,
+                    "-Dspring.context.exit=onRefresh", "-Dspring.main.lazy-initialization=false"));
+            training.addAll(explodedArguments());
+            Process trainingRun = new ProcessBuilder(training).inheritIO().start();
+            if (trainingRun.waitFor() != 0) {
+                throw new IllegalStateException("AppCDS training run failed");
+            }
+        }
+    }
+
+    @Benchmark
+    public int firstSampleRequest() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>(List.of(javaExecutable()));
+        if (mode.equals("fast-start-cds")) {
+            command.add("-XX:SharedArchiveFile=" + archive);
+        }
+        if (mode.equals("default")) {
+            command.addAll(List.of("-jar", applicationJar.toString()));
+        } else if (mode.equals("fast-start")) {
+            command.addAll(List.of("-jar", applicationJar.toString(), "--spring.profiles.include=fast-start"));
+        } else {
+            command.addAll(explodedArguments());
+        }
+        command.add("--server.port=" + port);
+        application = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(STARTUP_DIRECTORY.resolve(mode + ".log").toFile()).start();
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/samples/1")).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline && application.isAlive()) {
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return response.statusCode();
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("The application did not serve GET /samples/1, see " + mode + ".log");
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() throws InterruptedException {
+        if (application != null) {
+            application.destroy();
+            application.waitFor();
+        }
+    }
+
+    private static Path packagedJar() throws IOException {
+        Files.createDirectories(STARTUP_DIRECTORY);
+        try (Stream<Path> files = Files.list(Paths.get("target"))) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jar")).findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Package the application before running this benchmark"));
+        }
+    }
+
+    private static String javaExecutable() {
+        return Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private List<String> explodedArguments() {
+        return List.of("-cp", STARTUP_DIRECTORY.resolve("lib") + File.separator + "*", Application.class.getName(),
+                "--spring.profiles.include=fast-start");
+    }
+
+    /**
+     * Unpacks the nested dependency jars into {@code lib} and the application classes into one more jar there,
+     * since the JVM only archives classes loaded from jars.
+     */
+    private void explode() throws IOException {
+        Path lib = STARTUP_DIRECTORY.resolve("lib");
+        Files.createDirectories(lib);
+        try (JarFile jar = new JarFile(applicationJar.toFile());
+             JarOutputStream classes = new JarOutputStream(Files.newOutputStream(lib.resolve("application.jar")))) {
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (entry.getName().startsWith("BOOT-INF/lib/") && !entry.isDirectory()) {
+                    try (InputStream in = jar.getInputStream(entry)) {
+                        Files.copy(in, lib.resolve(entry.getName().substring("BOOT-INF/lib/".length())),
+                                StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } else if (entry.getName().startsWith("BOOT-INF/classes/") && !entry.getName().equals("BOOT-INF/classes/")) {
+                    // directory entries too, component scanning looks packages up as resources
+                    classes.putNextEntry(new JarEntry(entry.getName().substring("BOOT-INF/classes/".length())));
+                    try (InputStream in = jar.getInputStream(entry)) {
+                        in.transferTo(classes);
+                    }
+                    classes.closeEntry();
+                }
+            }
+        }
+    }
+}
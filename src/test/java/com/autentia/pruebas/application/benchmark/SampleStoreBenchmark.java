@@ -0,0 +1,89 @@
+package com.autentia.pruebas.application.benchmark;
+
+import com.autentia.pruebas.application.cache.SampleCache;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.repository.SampleRepository;
+import com.autentia.pruebas.application.store.SampleStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reads by id with every sample held in the {@link SampleStore} or in a {@link SampleCache} big enough
+ * for all of them, which is what the JPA path needs to serve the same reads from memory. The setup
+ * prints the heap each one retains and how long a full collection takes with it; run with
+ * {@code -prof gc} to see the collections during the reads too.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class SampleStoreBenchmark {
+
+    @Param({"10000000"})
+    public int samples;
+
+    @Param({"store", "cache"})
+    public String backend;
+
+    private SampleStore sampleStore;
+    private SampleCache sampleCache;
+
+    @Setup(Level.Trial)
+    public void load() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+        SampleRepository sampleRepository = mock(SampleRepository.class);
+        if (backend.equals("store")) {
+            when(sampleRepository.count()).thenReturn((long) samples);
+            when(sampleRepository.streamWithVersionByIdGreaterThan(Long.MIN_VALUE))
+                    .thenAnswer(invocation -> LongStream.rangeClosed(1, samples).mapToObj(id -> new Sample(id, "Sample " + id, 0L)));
+            sampleStore = new SampleStore(sampleRepository, new SampleCache(1, Duration.ofMinutes(1), Duration.ofMinutes(1)),
+                    mock(PlatformTransactionManager.class), true, false, "", Duration.ZERO);
+            sampleStore.load();
+        } else {
+            sampleCache = new SampleCache(samples, Duration.ofHours(1), Duration.ofHours(1));
+            for (long id = 1; id <= samples; id++) {
+                sampleCache.put(new Sample(id, "Sample " + id, 0L));
+            }
+        }
+
+        long start = System.nanoTime();
+        System.gc();
+        long fullGcMillis = (System.nanoTime() - start) / 1_000_000;
+        long retained = memory.getHeapMemoryUsage().getUsed() - heapBefore;
+        System.out.printf("%n%s with %d samples retains %d MB, %.1f bytes per sample, full GC %d ms%n",
+                backend, samples, retained >> 20, (double) retained / samples, fullGcMillis);
+    }
+
+    @Benchmark
+    public Optional<Sample> getById() {
+        long id = ThreadLocalRandom.current().nextLong(1, samples + 1);
+        return backend.equals("store") ? sampleStore.get(id) : sampleCache.getIfPresent(id);
+    }
+}
@@ -0,0 +1,98 @@
+package com.autentia.pruebas.application.benchmark;
+
+import com.autentia.pruebas.application.cache.SampleCache;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleVersion;
+import com.autentia.pruebas.application.repository.SampleRepository;
+import com.autentia.pruebas.application.store.SampleStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Time until the {@link SampleStore} is ready, loading every sample from the repository or from the
+ * snapshot an earlier store wrote. The repository is a mock streaming samples built on the fly, so the
+ * database load measured here leaves out the query and the network and is a lower bound of the real one.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class SampleStoreStartupBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int samples;
+
+    @Param({"database", "snapshot"})
+    public String source;
+
+    private SampleRepository sampleRepository;
+    private Path snapshotPath;
+    private SampleStore sampleStore;
+
+    @Setup(Level.Trial)
+    public void writeSnapshot() throws IOException {
+        sampleRepository = mock(SampleRepository.class);
+        when(sampleRepository.count()).thenReturn((long) samples);
+        when(sampleRepository.streamWithVersionByIdGreaterThan(Long.MIN_VALUE))
+                .thenAnswer(invocation -> LongStream.rangeClosed(1, samples).mapToObj(id -> new Sample(id, "Sample " + id, 0L)));
+        when(sampleRepository.streamVersionsByIdLessThanEqual(anyLong()))
+                .thenAnswer(invocation -> LongStream.rangeClosed(1, samples).mapToObj(id -> new SampleVersion(id, 0L)));
+        when(sampleRepository.streamWithVersionByIdGreaterThan((long) samples)).thenAnswer(invocation -> Stream.empty());
+
+        snapshotPath = Files.createTempFile("samples", ".snapshot");
+        SampleStore loadedStore = store(snapshotPath.toString());
+        loadedStore.load();
+        loadedStore.writeSnapshot();
+        loadedStore.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() {
+        sampleStore.close();
+        sampleStore = null;
+        System.gc();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSnapshot() throws IOException {
+        Files.deleteIfExists(snapshotPath);
+    }
+
+    @Benchmark
+    public boolean load() {
+        sampleStore = store(source.equals("snapshot") ? snapshotPath.toString() : "");
+        sampleStore.load();
+        return sampleStore.isReady();
+    }
+
+    private SampleStore store(String path) {
+        return new SampleStore(sampleRepository, new SampleCache(1, Duration.ofMinutes(1), Duration.ofMinutes(1)),
+                mock(PlatformTransactionManager.class), true, false, path, Duration.ofHours(1));
+    }
+}
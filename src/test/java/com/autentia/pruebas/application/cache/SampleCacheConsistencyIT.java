@@ -0,0 +1,99 @@
+package com.autentia.pruebas.application.cache;
+
+import com.autentia.pruebas.application.Application;
+import com.autentia.pruebas.application.exceptions.SampleNotFoundException;
+import com.autentia.pruebas.application.metrics.SampleMetrics;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.service.SampleService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.TestCase.assertEquals;
+
+/**
+ * Two nodes in one JVM sharing a database, the in-memory shared tier and the loopback transport.
+ */
+public class SampleCacheConsistencyIT {
+    private static ConfigurableApplicationContext node1;
+    private static ConfigurableApplicationContext node2;
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @BeforeClass
+    public static void startNodes() {
+        node1 = startNode();
+        node2 = startNode();
+    }
+
+    @AfterClass
+    public static void stopNodes() {
+        node2.close();
+        node1.close();
+    }
+
+    @Test
+    public void nodesShouldServeEachOthersWritesAndDeletes() throws Exception {
+        SampleService sampleService1 = node1.getBean(SampleService.class);
+        SampleService sampleService2 = node2.getBean(SampleService.class);
+        assertEquals(sampleService1.getSampleById(2L).getName(), "Ana");
+        assertEquals(sampleService2.getSampleById(2L).getName(), "Ana");
+
+        sampleService1.updateSample(new Sample(2L, "Anabel"));
+        assertEquals(sampleService2.getSampleById(2L).getName(), "Anabel");
+
+        sampleService2.deleteSample(2L);
+        expectedException.expect(SampleNotFoundException.class);
+        sampleService1.getSampleById(2L);
+    }
+
+    @Test
+    public void loadsShouldNotOverwriteAChangeStoredWhileLoading() throws Exception {
+        SampleCache sampleCache1 = node1.getBean(SampleCache.class);
+        SampleCache sampleCache2 = node2.getBean(SampleCache.class);
+        FunctionCounter invalidations1 = node1.getBean(MeterRegistry.class).get(SampleMetrics.CACHE_INVALIDATIONS_COUNTER).functionCounter();
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        try {
+            // node 1 reads the row before node 2 updates it, and finishes loading once node 2's change reached it
+            Optional<Sample> loadedSample = sampleCache1.get(1000L, sampleId -> {
+                double invalidationsBeforeWrite = invalidations1.count();
+                writer.submit(() -> sampleCache2.put(new Sample(1000L, "Nueva", 1L)));
+                while (invalidations1.count() == invalidationsBeforeWrite) {
+                    Thread.onSpinWait();
+                }
+                return CompletableFuture.completedFuture(Optional.of(new Sample(1000L, "Antigua", 0L)));
+            });
+            writer.shutdown();
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+
+            assertEquals(loadedSample.get().getName(), "Antigua");
+            assertEquals(node1.getBean(SharedSampleCache.class).getIfPresent(1000L).get().getName(), "Nueva");
+            assertEquals(sampleCache1.getIfPresent(1000L).get().getName(), "Nueva");
+        } finally {
+            writer.shutdownNow();
+        }
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(Application.class).run("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:samplecacheconsistencyit;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--samples.cache.shared.store=in-memory",
+                "--samples.cache.shared.name=samplecacheconsistencyit",
+                "--samples.cache.invalidation.transport=loopback",
+                "--samples.cache.invalidation.channel=samplecacheconsistencyit");
+    }
+}
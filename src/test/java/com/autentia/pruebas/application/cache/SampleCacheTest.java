@@ -0,0 +1,162 @@
+package com.autentia.pruebas.application.cache;
+
+import com.autentia.pruebas.application.model.Sample;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+
+public class SampleCacheTest {
+    private SampleCache sampleCache;
+    private AtomicInteger loads;
+
+    @Before
+    public void init() {
+        sampleCache = new SampleCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void sampleCacheShouldCountHitsAndMisses() {
+        Sample sample1 = new Sample(1L, "Juan");
+
+        sampleCache.get(1L, id -> load(sample1));
+        sampleCache.get(1L, id -> load(sample1));
+
+        assertEquals(loads.get(), 1);
+        assertEquals(sampleCache.stats().hitCount(), 1);
+        assertEquals(sampleCache.stats().missCount(), 1);
+    }
+
+    @Test
+    public void sampleCacheShouldReturnPutSampleWithoutLoading() {
+        Sample sample1 = new Sample(1L, "Juan");
+
+        sampleCache.put(sample1);
+        Optional<Sample> cachedSample = sampleCache.get(1L, id -> load(null));
+
+        assertEquals(loads.get(), 0);
+        assertEquals(cachedSample.get(), sample1);
+    }
+
+    @Test
+    public void sampleCacheShouldReloadEvictedSample() {
+        Sample sample1 = new Sample(1L, "Juan");
+
+        sampleCache.get(1L, id -> load(sample1));
+        sampleCache.evict(1L);
+        sampleCache.get(1L, id -> load(sample1));
+
+        assertEquals(loads.get(), 2);
+    }
+
+    @Test
+    public void sampleCacheShouldRememberMissingSamples() {
+        sampleCache.putMissing(3L);
+
+        Optional<Sample> cachedSample = sampleCache.get(3L, id -> load(new Sample(3L, "Alex")));
+
+        assertEquals(loads.get(), 0);
+        assertFalse(cachedSample.isPresent());
+    }
+
+    @Test
+    public void sampleCacheShouldExpireMissingSamplesWithTheirOwnTtl() throws InterruptedException {
+        sampleCache = new SampleCache(100, Duration.ofMinutes(1), Duration.ofMillis(1));
+
+        sampleCache.get(3L, id -> load(null));
+        Thread.sleep(10);
+        sampleCache.get(3L, id -> load(null));
+
+        assertEquals(loads.get(), 2);
+    }
+
+    @Test
+    public void sampleCacheShouldTakeWritesWhileASampleIsLoading() throws Exception {
+        CompletableFuture<Optional<Sample>> pendingLoad = new CompletableFuture<>();
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            Future<Optional<Sample>> loadedSample = reader.submit(() -> sampleCache.get(1L, id -> {
+                loads.incrementAndGet();
+                return pendingLoad;
+            }));
+            for (int attempt = 0; attempt < 100 && loads.get() == 0; attempt++) {
+                Thread.sleep(10);
+            }
+
+            sampleCache.put(new Sample(1L, "Juana"));
+            pendingLoad.complete(Optional.of(new Sample(1L, "Juan")));
+
+            assertEquals(loadedSample.get(5, TimeUnit.SECONDS).get().getName(), "Juan");
+            assertEquals(sampleCache.getIfPresent(1L).get().getName(), "Juana");
+        } finally {
+            reader.shutdownNow();
+        }
+    }
+
+    @Test
+    public void sampleCacheShouldFillNearMissesFromTheSharedTier() {
+        SharedSampleCache sharedCache = new InMemorySharedSampleCache("fill", 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        SampleCache node1 = node(sharedCache, null);
+        SampleCache node2 = node(sharedCache, null);
+        Sample sample1 = new Sample(1L, "Juan");
+
+        node1.get(1L, id -> load(sample1));
+        Optional<Sample> cachedSample = node2.get(1L, id -> load(null));
+
+        assertEquals(loads.get(), 1);
+        assertEquals(cachedSample.get(), sample1);
+    }
+
+    @Test
+    public void sampleCacheShouldDropNearCopiesOnOtherNodesWhenASampleChanges() {
+        SharedSampleCache sharedCache = new InMemorySharedSampleCache("change", 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        LoopbackSampleInvalidationTransport transport1 = new LoopbackSampleInvalidationTransport("change");
+        LoopbackSampleInvalidationTransport transport2 = new LoopbackSampleInvalidationTransport("change");
+        SampleCache node1 = node(sharedCache, transport1);
+        SampleCache node2 = node(sharedCache, transport2);
+        node2.get(1L, id -> load(new Sample(1L, "Juan")));
+
+        node1.put(new Sample(1L, "Juana"));
+        node1.putMissing(2L);
+
+        assertEquals(node2.get(1L, id -> load(null)).get().getName(), "Juana");
+        assertFalse(node2.get(2L, id -> load(new Sample(2L, "Ana"))).isPresent());
+        assertEquals(loads.get(), 1);
+        transport1.close();
+        transport2.close();
+    }
+
+    @Test
+    public void sampleCacheShouldIgnoreItsOwnInvalidations() {
+        LoopbackSampleInvalidationTransport transport = new LoopbackSampleInvalidationTransport("own");
+        SampleCache node1 = node(null, transport);
+        node1.get(1L, id -> load(new Sample(1L, "Juan")));
+
+        node1.put(new Sample(2L, "Ana"));
+        node1.get(1L, id -> load(null));
+
+        assertEquals(loads.get(), 1);
+        transport.close();
+    }
+
+    private SampleCache node(SharedSampleCache sharedCache, SampleInvalidationTransport transport) {
+        return new SampleCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1),
+                Optional.ofNullable(sharedCache), Optional.ofNullable(transport));
+    }
+
+    private CompletableFuture<Optional<Sample>> load(Sample sample) {
+        loads.incrementAndGet();
+        return CompletableFuture.completedFuture(Optional.ofNullable(sample));
+    }
+}
@@ -0,0 +1,63 @@
+package com.autentia.pruebas.application.datasource;
+
+import org.junit.Test;
+
+import javax.sql.DataSource;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class DataSourcePoolCheckTest {
+
+    @Test
+    public void dataSourcePoolCheckShouldAcceptPoolSizedForBulkheadAndFlusher() {
+        DataSourcePoolCheck check = new DataSourcePoolCheck(mock(DataSource.class), false, 200, true, 19, true, 0, null);
+
+        assertFalse(check.check(20).isPresent());
+    }
+
+    @Test
+    public void dataSourcePoolCheckShouldLeaveConnectionsForTheImportWorkers() {
+        DataSourcePoolCheck check = new DataSourcePoolCheck(mock(DataSource.class), false, 200, true, 20, false, 4, null);
+
+        assertFalse(check.check(24).isPresent());
+        assertEquals(check.check(20).get(), "24 threads can use the 20 database connections at once, enable "
+                + "samples.bulkhead.enabled or resize spring.datasource.hikari.maximum-pool-size");
+    }
+
+    @Test
+    public void dataSourcePoolCheckShouldWarnWhenTomcatThreadsOutnumberConnections() {
+        DataSourcePoolCheck check = new DataSourcePoolCheck(mock(DataSource.class), false, 200, false, null, false, 0, null);
+
+        assertEquals(check.check(10).get(), "200 threads can use the 10 database connections at once, enable "
+                + "samples.bulkhead.enabled or resize spring.datasource.hikari.maximum-pool-size");
+    }
+
+    @Test
+    public void dataSourcePoolCheckShouldWarnAboutIdleConnections() {
+        DataSourcePoolCheck check = new DataSourcePoolCheck(mock(DataSource.class), false, 200, true, 10, false, 0, null);
+
+        assertEquals(check.check(20).get(), "Only 10 threads can use the 20 database connections at once, 10 of "
+                + "them will stay idle");
+    }
+
+    @Test
+    public void dataSourcePoolCheckShouldWarnAboutVirtualThreadsWithoutBulkhead() {
+        DataSourcePoolCheck check = new DataSourcePoolCheck(mock(DataSource.class), true, 200, false, null, false, 0, null);
+
+        assertTrue(check.check(10).get().startsWith("Virtual threads without samples.bulkhead.enabled"));
+    }
+
+    @Test
+    public void dataSourcePoolCheckShouldOnlyWarnAboutTunedPools() {
+        DataSourcePoolCheck defaults = new DataSourcePoolCheck(mock(DataSource.class), false, 200, false, null, false, 4, null);
+        DataSourcePoolCheck sizedPool = new DataSourcePoolCheck(mock(DataSource.class), false, 200, false, null, false, 4, 24);
+        DataSourcePoolCheck bulkhead = new DataSourcePoolCheck(mock(DataSource.class), false, 200, true, 20, false, 4, null);
+
+        assertFalse(defaults.isActionable());
+        assertTrue(sizedPool.isActionable());
+        assertTrue(bulkhead.isActionable());
+    }
+}
@@ -0,0 +1,44 @@
+package com.autentia.pruebas.application.datasource;
+
+import com.autentia.pruebas.application.web.SampleBulkhead;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.sql.DataSource;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@ActiveProfiles("high-throughput")
+public class HighThroughputProfileIT {
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SampleBulkhead sampleBulkhead;
+
+    @Autowired
+    private DataSourcePoolCheck dataSourcePoolCheck;
+
+    @Test
+    public void configuresPoolDriverAndHibernateBatchingWithAMatchingBulkhead() throws Exception {
+        HikariDataSource hikariDataSource = dataSource.unwrap(HikariDataSource.class);
+
+        assertEquals(hikariDataSource.getMaximumPoolSize(), 24);
+        assertEquals(hikariDataSource.getDataSourceProperties().getProperty("rewriteBatchedStatements"), "true");
+        assertEquals(entityManagerFactory.getProperties().get("hibernate.jdbc.batch_size"), "1000");
+        assertEquals(sampleBulkhead.availablePermits(), 20);
+        assertFalse(dataSourcePoolCheck.check(hikariDataSource.getMaximumPoolSize()).isPresent());
+    }
+}
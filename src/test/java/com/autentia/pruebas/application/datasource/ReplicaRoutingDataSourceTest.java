@@ -0,0 +1,55 @@
+package com.autentia.pruebas.application.datasource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static junit.framework.TestCase.assertEquals;
+import static org.mockito.Mockito.when;
+
+public class ReplicaRoutingDataSourceTest {
+    private Connection primaryConnection = Mockito.mock(Connection.class);
+    private Connection replicaConnection = Mockito.mock(Connection.class);
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Before
+    public void init() throws SQLException {
+        DataSource primary = Mockito.mock(DataSource.class);
+        DataSource replica = Mockito.mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        replicaRoutingDataSource = new ReplicaRoutingDataSource(primary, replica);
+    }
+
+    @After
+    public void reset() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        PrimaryStickiness.release();
+    }
+
+    @Test
+    public void replicaRoutingDataSourceShouldSendReadOnlyTransactionsToTheReplica() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(replicaRoutingDataSource.getConnection(), replicaConnection);
+    }
+
+    @Test
+    public void replicaRoutingDataSourceShouldSendWritesToThePrimary() throws SQLException {
+        assertEquals(replicaRoutingDataSource.getConnection(), primaryConnection);
+    }
+
+    @Test
+    public void replicaRoutingDataSourceShouldKeepStickyThreadsOnThePrimary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        PrimaryStickiness.stick();
+
+        assertEquals(replicaRoutingDataSource.getConnection(), primaryConnection);
+    }
+}
@@ -0,0 +1,97 @@
+package com.autentia.pruebas.application.datasource;
+
+import com.autentia.pruebas.application.cache.SampleCache;
+import jakarta.servlet.http.Cookie;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "samples.datasource.replica.url=jdbc:h2:mem:replicaroutingit")
+@AutoConfigureMockMvc
+@ActiveProfiles("read-replica")
+public class ReplicaRoutingIT {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private SampleCache sampleCache;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Before
+    public void lagReplica() {
+        new JdbcTemplate(replicaDataSource).update("update sample set name = 'Juan (réplica)' where id = 1");
+    }
+
+    @After
+    public void restoreSamples() {
+        new JdbcTemplate(primaryDataSource).update("update sample set name = 'Juan', version = 0 where id = 1");
+        new JdbcTemplate(replicaDataSource).update("update sample set name = 'Juan' where id = 1");
+        sampleCache.clear();
+    }
+
+    @Test
+    public void readsFromTheReplicaWhenTheClientHasNotWritten() throws Exception {
+        assertNull(mvc.perform(get("/samples?size=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Juan (réplica)"))
+                .andReturn().getResponse().getCookie("samples-primary"));
+    }
+
+    @Test
+    public void loadsCacheMissesFromThePrimaryWhileTheReplicaLags() throws Exception {
+        // another node renames the sample, the replica hasn't caught up and this node's copy is invalidated
+        new JdbcTemplate(primaryDataSource).update("update sample set name = 'Juana', version = 1 where id = 1");
+        sampleCache.evict(1L);
+
+        mvc.perform(get("/samples/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Juana"));
+        assertEquals(sampleCache.getIfPresent(1L).get().getName(), "Juana");
+    }
+
+    @Test
+    public void readsItsOwnWritesFromThePrimaryWithinTheStickyWindow() throws Exception {
+        Cookie sticky = mvc.perform(put("/samples/1").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":1,\"name\":\"Juana\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie("samples-primary");
+        assertEquals(sticky.getMaxAge(), 5);
+        sampleCache.clear();
+
+        mvc.perform(get("/samples/1").cookie(sticky))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Juana"));
+        sampleCache.clear();
+
+        mvc.perform(get("/samples?size=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Juan (réplica)"));
+    }
+}
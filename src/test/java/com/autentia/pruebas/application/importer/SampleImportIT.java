@@ -0,0 +1,71 @@
+package com.autentia.pruebas.application.importer;
+
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.repository.SampleRepository;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "samples.import.chunk-size=2")
+@AutoConfigureMockMvc
+public class SampleImportIT {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private SampleRepository sampleRepository;
+
+    @After
+    public void cleanUp() {
+        sampleRepository.deleteAllById(List.of(100L, 101L, 102L, 103L));
+    }
+
+    @Test
+    public void importsCsvRejectingIdsAlreadyInDb() throws Exception {
+        mvc.perform(post("/samples/import").contentType("text/csv")
+                        .content("id,name\n1,Juana\n100,Alex\n101,\"Pérez, Eva\"\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(3))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.complete").value(true))
+                .andExpect(jsonPath("$.errors[0].from").value(1))
+                .andExpect(jsonPath("$.errors[0].to").value(2));
+
+        assertEquals(sampleRepository.findById(1L).get().getName(), "Juan");
+        assertEquals(sampleRepository.findById(101L).get().getName(), "Pérez, Eva");
+    }
+
+    @Test
+    public void importsNdjsonUpsertingAndStopsAtAnUnreadableRow() throws Exception {
+        sampleRepository.insertAll(List.of(new Sample(100L, "Alex")));
+
+        mvc.perform(post("/samples/import").param("policy", "UPSERT").contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"id\":100,\"name\":\"Alejandro\"}\n{\"id\":102,\"name\":\"Eva\"}\n"
+                                + "{\"id\":103,\"name\":\"Luis\"}\n{\"id\":"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(3))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.complete").value(false))
+                .andExpect(jsonPath("$.errors[0].from").value(4));
+
+        assertEquals(sampleRepository.findById(100L).get().getName(), "Alejandro");
+        assertEquals(sampleRepository.findById(100L).get().getVersion(), Long.valueOf(1L));
+        assertEquals(sampleRepository.count(), 5L);
+    }
+}
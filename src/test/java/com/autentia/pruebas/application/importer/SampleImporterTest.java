@@ -0,0 +1,128 @@
+package com.autentia.pruebas.application.importer;
+
+import com.autentia.pruebas.application.cache.SampleCache;
+import com.autentia.pruebas.application.count.SampleTotal;
+import com.autentia.pruebas.application.metrics.SampleMetrics;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleImportChunk;
+import com.autentia.pruebas.application.model.SampleImportPolicy;
+import com.autentia.pruebas.application.model.SampleImportResult;
+import com.autentia.pruebas.application.repository.SampleRepository;
+import com.autentia.pruebas.application.search.SampleNameIndex;
+import com.autentia.pruebas.application.store.SampleStore;
+import com.autentia.pruebas.application.writebehind.SampleWriteBehind;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+public class SampleImporterTest {
+    private SampleRepository sampleRepository;
+    private SampleCache sampleCache;
+    private SampleTotal sampleTotal;
+    private MeterRegistry meterRegistry;
+    private SampleImporter sampleImporter;
+
+    @Before
+    public void init() {
+        sampleRepository = mock(SampleRepository.class);
+        sampleCache = new SampleCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        sampleTotal = mock(SampleTotal.class);
+        meterRegistry = new SimpleMeterRegistry();
+        sampleImporter = new SampleImporter(sampleRepository, sampleCache, new SampleNameIndex(sampleRepository, sampleCache, mock(PlatformTransactionManager.class), false),
+                mock(SampleWriteBehind.class), sampleTotal, mock(SampleStore.class), mock(PlatformTransactionManager.class),
+                meterRegistry, 2, 2);
+    }
+
+    @After
+    public void close() {
+        sampleImporter.close();
+    }
+
+    @Test
+    public void sampleImporterShouldLoadInChunksAndRejectExistingIds() {
+        when(sampleRepository.findExistingIds(List.of(1L, 2L))).thenReturn(List.of(1L));
+        sampleCache.putMissing(3L);
+        sampleCache.put(new Sample(4L, "Marta"));
+
+        SampleImportResult result = sampleImporter.importSamples(samples(new Sample(1L, "Juan"), new Sample(2L, "Ana"),
+                new Sample(3L, "Alex")), SampleImportPolicy.REJECT);
+
+        verify(sampleRepository).insertAll(List.of(new Sample(2L, "Ana")));
+        verify(sampleRepository).insertAll(List.of(new Sample(3L, "Alex")));
+        verify(sampleRepository, times(2)).updateAll(List.of());
+        verify(sampleTotal, times(2)).added(1);
+        assertEquals(result, new SampleImportResult(3, 2, 0, 1, 0, true, List.of(new SampleImportChunk(1, 2, 1, 0, 1, null))));
+        assertNull(sampleCache.getIfPresent(3L));
+        assertEquals(sampleCache.getIfPresent(4L), Optional.of(new Sample(4L, "Marta")));
+        assertEquals(meterRegistry.get(SampleMetrics.IMPORT_ROWS_COUNTER).tag("status", "created").counter().count(), 2.0);
+    }
+
+    @Test
+    public void sampleImporterShouldUpdateExistingIdsWhenUpserting() {
+        when(sampleRepository.findExistingIds(List.of(1L, 2L))).thenReturn(List.of(1L));
+
+        SampleImportResult result = sampleImporter.importSamples(samples(new Sample(1L, "Juan"), new Sample(2L, "Ana")),
+                SampleImportPolicy.UPSERT);
+
+        verify(sampleRepository).insertAll(List.of(new Sample(2L, "Ana")));
+        verify(sampleRepository).updateAll(List.of(new Sample(1L, "Juan")));
+        assertEquals(result, new SampleImportResult(2, 1, 1, 0, 0, true, List.of()));
+    }
+
+    @Test
+    public void sampleImporterShouldReportAFailedChunkAndKeepTheOthers() {
+        doThrow(new DuplicateKeyException("Clave duplicada")).doNothing().when(sampleRepository).insertAll(anyCollection());
+
+        SampleImportResult result = sampleImporter.importSamples(samples(new Sample(1L, "Juan"), new Sample(2L, "Ana"),
+                new Sample(3L, "Alex")), SampleImportPolicy.REJECT);
+
+        assertEquals(result.getRows(), 3L);
+        assertEquals(result.getCreated() + result.getFailed(), 3L);
+        assertEquals(result.getErrors().size(), 1);
+        assertEquals(result.getErrors().get(0).getError(), "Clave duplicada");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void sampleImporterShouldStopAtAnUnreadableRow() {
+        Iterator<Sample> samples = mock(Iterator.class);
+        when(samples.hasNext()).thenReturn(true);
+        when(samples.next()).thenReturn(new Sample(1L, "Juan")).thenThrow(new IllegalArgumentException("Fila no válida"));
+
+        SampleImportResult result = sampleImporter.importSamples(samples, SampleImportPolicy.REJECT);
+
+        verify(sampleRepository).insertAll(List.of(new Sample(1L, "Juan")));
+        assertFalse(result.isComplete());
+        assertEquals(result.getCreated(), 1L);
+        assertEquals(result.getErrors(), List.of(new SampleImportChunk(2, 2, 0, 0, 0, "Fila no válida")));
+    }
+
+    @Test
+    public void sampleImporterShouldRejectRowsWithoutId() {
+        SampleImportResult result = sampleImporter.importSamples(samples(new Sample(null, "Juan")), SampleImportPolicy.UPSERT);
+
+        verify(sampleRepository).findExistingIds(List.of());
+        assertEquals(result.getRejected(), 1L);
+        assertTrue(result.isComplete());
+    }
+
+    private static Iterator<Sample> samples(Sample... samples) {
+        return List.of(samples).iterator();
+    }
+}
@@ -0,0 +1,49 @@
+package com.autentia.pruebas.application.json;
+
+import com.autentia.pruebas.application.model.Sample;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+public class SampleJsonModuleTest {
+    private final ObjectMapper beanMapper = new ObjectMapper();
+    private final ObjectMapper sampleMapper = new ObjectMapper().registerModule(new SampleJsonModule(false));
+    private final ObjectMapper leanMapper = new ObjectMapper().registerModule(new SampleJsonModule(true));
+
+    @Test
+    public void sampleSerializerShouldWriteTheSameJsonAsTheBeanSerializer() throws Exception {
+        Sample sample1 = new Sample(1L, "Juan");
+        Sample unnamedSample = new Sample(2L, null);
+
+        assertEquals(sampleMapper.writeValueAsString(sample1), beanMapper.writeValueAsString(sample1));
+        assertEquals(sampleMapper.writeValueAsString(unnamedSample), beanMapper.writeValueAsString(unnamedSample));
+        assertEquals(sampleMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValueAsString(sample1),
+                beanMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValueAsString(sample1));
+    }
+
+    @Test
+    public void samplePageSerializerShouldOnlyWriteContentAndPageNumbers() throws Exception {
+        Page<Sample> page = new PageImpl<>(List.of(new Sample(1L, "Juan")), PageRequest.of(1, 1), 3);
+
+        assertEquals(leanMapper.writeValueAsString(page),
+                "{\"content\":[{\"id\":1,\"name\":\"Juan\"}],\"page\":{\"size\":1,\"number\":1,\"totalElements\":3,\"totalPages\":3}}");
+    }
+
+    @Test
+    public void samplePageSerializerShouldWriteFewerBytesThanTheDefaultPage() throws Exception {
+        Page<Sample> page = new PageImpl<>(List.of(new Sample(1L, "Juan"), new Sample(2L, "Ana")), PageRequest.of(0, 20), 2);
+
+        int defaultBytes = beanMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValueAsBytes(page).length;
+        int leanBytes = leanMapper.writeValueAsBytes(page).length;
+
+        assertTrue(leanBytes * 3 < defaultBytes);
+    }
+}
@@ -0,0 +1,40 @@
+package com.autentia.pruebas.application.loadtest;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Arrays;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class LabelStats {
+    private String plan;
+    private String label;
+    private long samples;
+    private long p99;
+    private double throughput;
+    private double errorRate;
+
+    static LabelStats of(String plan, String label, List<String[]> rows) {
+        long[] elapsed = new long[rows.size()];
+        long firstStart = Long.MAX_VALUE;
+        long lastEnd = Long.MIN_VALUE;
+        long errors = 0;
+
+        for (int i = 0; i < rows.size(); i++) {
+            long timeStamp = Long.parseLong(rows.get(i)[0]);
+            elapsed[i] = Long.parseLong(rows.get(i)[1]);
+            firstStart = Math.min(firstStart, timeStamp);
+            lastEnd = Math.max(lastEnd, timeStamp + elapsed[i]);
+            if (!Boolean.parseBoolean(rows.get(i)[2])) {
+                errors++;
+            }
+        }
+
+        Arrays.sort(elapsed);
+        long p99 = elapsed[(int) Math.ceil(elapsed.length * 0.99) - 1];
+        double seconds = Math.max(lastEnd - firstStart, 1) / 1000.0;
+        return new LabelStats(plan, label, rows.size(), p99, rows.size() / seconds, (double) errors / rows.size());
+    }
+}
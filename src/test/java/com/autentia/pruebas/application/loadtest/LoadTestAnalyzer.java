@@ -0,0 +1,160 @@
+package com.autentia.pruebas.application.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Summarizes JMeter CSV results per plan and label, and fails when p99 latency, throughput or error
+ * rate regress past the configured tolerances against the stored baseline.
+ */
+public class LoadTestAnalyzer {
+    private static final String BASELINE_HEADER = "plan,label,p99,throughput";
+    private static final String SEED_SUFFIX = "(seed)";
+
+    private final double p99Tolerance;
+    private final double throughputTolerance;
+    private final double maxErrorRate;
+
+    public LoadTestAnalyzer(double p99Tolerance, double throughputTolerance, double maxErrorRate) {
+        this.p99Tolerance = p99Tolerance;
+        this.throughputTolerance = throughputTolerance;
+        this.maxErrorRate = maxErrorRate;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path resultsDirectory = Paths.get(args[0]);
+        Path baselineFile = Paths.get(args[1]);
+        LoadTestAnalyzer analyzer = new LoadTestAnalyzer(Double.parseDouble(args[2]), Double.parseDouble(args[3]), Double.parseDouble(args[4]));
+        boolean updateBaseline = Boolean.parseBoolean(args[5]);
+
+        Map<String, LabelStats> stats = analyzer.summarize(resultsDirectory);
+        stats.values().forEach(labelStats -> System.out.println(labelStats));
+
+        if (updateBaseline) {
+            writeBaseline(baselineFile, stats);
+            System.out.println("Baseline written to " + baselineFile);
+            return;
+        }
+
+        List<String> regressions = analyzer.compare(stats, readBaseline(baselineFile));
+        if (!regressions.isEmpty()) {
+            throw new IllegalStateException("Load test regressions:\n" + String.join("\n", regressions));
+        }
+    }
+
+    public Map<String, LabelStats> summarize(Path resultsDirectory) throws IOException {
+        Map<String, LabelStats> stats = new TreeMap<>();
+        try (Stream<Path> files = Files.list(resultsDirectory)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".csv")).collect(Collectors.toList())) {
+                String plan = file.getFileName().toString().replaceFirst("\\.csv$", "");
+                readResults(plan, file).forEach((label, labelStats) -> stats.put(plan + "," + label, labelStats));
+            }
+        }
+        return stats;
+    }
+
+    public List<String> compare(Map<String, LabelStats> stats, Map<String, LabelStats> baseline) {
+        List<String> regressions = new ArrayList<>();
+        baseline.forEach((key, expected) -> {
+            LabelStats actual = stats.get(key);
+            if (actual == null) {
+                regressions.add(key + ": no results");
+                return;
+            }
+            if (actual.getP99() > expected.getP99() * (1 + p99Tolerance)) {
+                regressions.add(String.format("%s: p99 %d ms > baseline %d ms", key, actual.getP99(), expected.getP99()));
+            }
+            if (actual.getThroughput() < expected.getThroughput() * (1 - throughputTolerance)) {
+                regressions.add(String.format("%s: throughput %.1f/s < baseline %.1f/s", key, actual.getThroughput(), expected.getThroughput()));
+            }
+            if (actual.getErrorRate() > maxErrorRate) {
+                regressions.add(String.format("%s: error rate %.2f%% > %.2f%%", key, actual.getErrorRate() * 100, maxErrorRate * 100));
+            }
+        });
+        return regressions;
+    }
+
+    private static Map<String, LabelStats> readResults(String plan, Path file) throws IOException {
+        Map<String, List<String[]>> rowsByLabel = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            List<String> header = Arrays.asList(parseCsvLine(reader.readLine()));
+            int timeStamp = header.indexOf("timeStamp");
+            int elapsed = header.indexOf("elapsed");
+            int label = header.indexOf("label");
+            int success = header.indexOf("success");
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] row = parseCsvLine(line);
+                rowsByLabel.computeIfAbsent(row[label], key -> new ArrayList<>())
+                        .add(new String[]{row[timeStamp], row[elapsed], row[success]});
+            }
+        }
+
+        Map<String, LabelStats> stats = new LinkedHashMap<>();
+        rowsByLabel.forEach((label, rows) -> stats.put(label, LabelStats.of(plan, label, rows)));
+        return stats;
+    }
+
+    private static Map<String, LabelStats> readBaseline(Path baselineFile) throws IOException {
+        Map<String, LabelStats> baseline = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(baselineFile, StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.equals(BASELINE_HEADER)) {
+                continue;
+            }
+            String[] columns = parseCsvLine(line);
+            baseline.put(columns[0] + "," + columns[1],
+                    new LabelStats(columns[0], columns[1], 0, Long.parseLong(columns[2]), Double.parseDouble(columns[3]), 0));
+        }
+        return baseline;
+    }
+
+    private static void writeBaseline(Path baselineFile, Map<String, LabelStats> stats) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(baselineFile, StandardCharsets.UTF_8))) {
+            writer.println(BASELINE_HEADER);
+            stats.values().stream().filter(labelStats -> !labelStats.getLabel().endsWith(SEED_SUFFIX)).forEach(labelStats -> writer.printf("%s,%s,%d,%.1f%n",
+                    labelStats.getPlan(), labelStats.getLabel(), labelStats.getP99(), labelStats.getThroughput()));
+        }
+    }
+
+    static String[] parseCsvLine(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder column = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    column.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    column.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                columns.add(column.toString());
+                column.setLength(0);
+            } else {
+                column.append(c);
+            }
+        }
+        columns.add(column.toString());
+        return columns.toArray(new String[0]);
+    }
+}
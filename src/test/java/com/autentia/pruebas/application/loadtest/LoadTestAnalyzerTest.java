@@ -0,0 +1,77 @@
+package com.autentia.pruebas.application.loadtest;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+
+public class LoadTestAnalyzerTest {
+    private LoadTestAnalyzer loadTestAnalyzer;
+
+    @Rule
+    public TemporaryFolder resultsFolder = new TemporaryFolder();
+
+    @Before
+    public void init() throws IOException {
+        loadTestAnalyzer = new LoadTestAnalyzer(0.2, 0.2, 0.01);
+
+        StringBuilder results = new StringBuilder("timeStamp,elapsed,label,responseCode,responseMessage,success,failureMessage\n");
+        for (int i = 1; i <= 100; i++) {
+            results.append(1000 + i * 10).append(',').append(i).append(",GET /samples/{id},200,,true,\"\"\n");
+        }
+        results.append("2000,5,\"POST /samples\",400,,false,\"Test failed, expected 2xx\"\n");
+        Files.writeString(resultsFolder.getRoot().toPath().resolve("samples-read-by-id.csv"), results);
+    }
+
+    @Test
+    public void loadTestAnalyzerShouldSummarizeP99AndThroughputPerLabel() throws IOException {
+        Map<String, LabelStats> stats = loadTestAnalyzer.summarize(resultsFolder.getRoot().toPath());
+
+        LabelStats readStats = stats.get("samples-read-by-id,GET /samples/{id}");
+        assertEquals(readStats.getSamples(), 100);
+        assertEquals(readStats.getP99(), 99);
+        assertEquals(readStats.getThroughput(), 100 / 1.09, 0.01);
+        assertEquals(stats.get("samples-read-by-id,POST /samples").getErrorRate(), 1.0);
+    }
+
+    @Test
+    public void loadTestAnalyzerShouldPassWithinTolerance() throws IOException {
+        Map<String, LabelStats> stats = loadTestAnalyzer.summarize(resultsFolder.getRoot().toPath());
+        Map<String, LabelStats> baseline = Map.of("samples-read-by-id,GET /samples/{id}",
+                new LabelStats("samples-read-by-id", "GET /samples/{id}", 0, 90, 100, 0));
+
+        List<String> regressions = loadTestAnalyzer.compare(stats, baseline);
+
+        assertTrue(regressions.isEmpty());
+    }
+
+    @Test
+    public void loadTestAnalyzerShouldReportLatencyThroughputAndErrorRegressions() throws IOException {
+        Map<String, LabelStats> stats = loadTestAnalyzer.summarize(resultsFolder.getRoot().toPath());
+        Map<String, LabelStats> baseline = Map.of(
+                "samples-read-by-id,GET /samples/{id}", new LabelStats("samples-read-by-id", "GET /samples/{id}", 0, 50, 200, 0),
+                "samples-read-by-id,POST /samples", new LabelStats("samples-read-by-id", "POST /samples", 0, 50, 0, 0),
+                "samples-paging,GET /samples?page", new LabelStats("samples-paging", "GET /samples?page", 0, 50, 100, 0));
+
+        List<String> regressions = loadTestAnalyzer.compare(stats, baseline);
+
+        assertEquals(regressions.size(), 4);
+    }
+
+    @Test
+    public void loadTestAnalyzerShouldParseQuotedCsvColumns() {
+        String[] columns = LoadTestAnalyzer.parseCsvLine("1,\"a, \"\"b\"\"\",c");
+
+        assertEquals(columns.length, 3);
+        assertEquals(columns[1], "a, \"b\"");
+    }
+}
@@ -0,0 +1,161 @@
+package com.autentia.pruebas.application.lookup;
+
+import com.autentia.pruebas.application.datasource.PrimaryStickiness;
+import com.autentia.pruebas.application.metrics.SampleMetrics;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.repository.SampleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+public class SampleLookupBatcherTest {
+    private SampleRepository sampleRepository;
+    private PlatformTransactionManager transactionManager;
+    private MeterRegistry meterRegistry;
+    private SampleLookupBatcher sampleLookupBatcher;
+    private ExecutorService requests;
+
+    @Before
+    public void init() {
+        sampleRepository = mock(SampleRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        transactionManager = mock(PlatformTransactionManager.class);
+        sampleLookupBatcher = new SampleLookupBatcher(sampleRepository, transactionManager, meterRegistry, true, Duration.ofMillis(200), 10, 2,
+                Duration.ofSeconds(1));
+        sampleLookupBatcher.start();
+        requests = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void stop() throws InterruptedException {
+        sampleLookupBatcher.stop();
+        requests.shutdown();
+        PrimaryStickiness.release();
+    }
+
+    @Test
+    public void sampleLookupBatcherShouldMergeConcurrentLookupsIntoOneQuery() throws Exception {
+        when(sampleRepository.findAllById(anyIterable())).thenReturn(List.of(new Sample(1L, "Juan"), new Sample(2L, "Ana")));
+
+        CompletableFuture<Optional<Sample>> first = lookup(1L);
+        CompletableFuture<Optional<Sample>> sameId = lookup(1L);
+        CompletableFuture<Optional<Sample>> second = lookup(2L);
+        CompletableFuture<Optional<Sample>> missing = lookup(3L);
+
+        assertEquals(first.get(5, TimeUnit.SECONDS), Optional.of(new Sample(1L, "Juan")));
+        assertEquals(sameId.get(5, TimeUnit.SECONDS), Optional.of(new Sample(1L, "Juan")));
+        assertEquals(second.get(5, TimeUnit.SECONDS), Optional.of(new Sample(2L, "Ana")));
+        assertEquals(missing.get(5, TimeUnit.SECONDS), Optional.empty());
+        verify(sampleRepository, times(1)).findAllById(argThat(ids -> Set.copyOf((List<Long>) ids).equals(Set.of(1L, 2L, 3L))));
+        verify(sampleRepository, never()).findById(anyLong());
+        assertEquals(meterRegistry.summary(SampleMetrics.LOOKUP_BATCH_SIZE_SUMMARY).totalAmount(), 3.0);
+    }
+
+    @Test
+    public void sampleLookupBatcherShouldFailEveryLookupInAFailedBatch() throws Exception {
+        when(sampleRepository.findAllById(anyIterable())).thenThrow(new DataAccessResourceFailureException("Sin conexión"));
+
+        CompletableFuture<Optional<Sample>> first = lookup(1L);
+        CompletableFuture<Optional<Sample>> second = lookup(2L);
+
+        for (CompletableFuture<Optional<Sample>> lookup : List.of(first, second)) {
+            try {
+                lookup.get(5, TimeUnit.SECONDS);
+                fail("Lookup didn't fail");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof DataAccessResourceFailureException);
+            }
+        }
+        verify(sampleRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    public void sampleLookupBatcherShouldBatchStickyLookupsOnThePrimary() {
+        when(sampleRepository.findAllById(anyIterable())).thenReturn(List.of(new Sample(1L, "Juan")));
+        PrimaryStickiness.stick();
+
+        assertEquals(sampleLookupBatcher.findById(1L), Optional.of(new Sample(1L, "Juan")));
+        verify(sampleRepository, never()).findById(anyLong());
+        verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
+    }
+
+    @Test
+    public void sampleLookupBatcherShouldFailLookupsWhoseBatchIsStuck() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(sampleRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(new Sample(1L, "Juan"));
+        });
+
+        try {
+            sampleLookupBatcher.findById(1L);
+            fail("Lookup didn't time out");
+        } catch (QueryTimeoutException e) {
+            assertEquals(e.getMessage(), "Lookup of sample 1 not read within PT1S");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void sampleLookupBatcherShouldReadAnotherBatchWhileOneIsStuck() throws Exception {
+        CountDownLatch firstBatchRunning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(sampleRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            if (((List<Long>) invocation.getArgument(0)).contains(1L)) {
+                firstBatchRunning.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return List.of(new Sample(1L, "Juan"));
+            }
+            return List.of(new Sample(2L, "Ana"));
+        });
+
+        CompletableFuture<Optional<Sample>> first = lookup(1L);
+        assertTrue(firstBatchRunning.await(5, TimeUnit.SECONDS));
+        try {
+            assertEquals(sampleLookupBatcher.findById(2L), Optional.of(new Sample(2L, "Ana")));
+        } finally {
+            release.countDown();
+        }
+
+        assertEquals(first.get(5, TimeUnit.SECONDS), Optional.of(new Sample(1L, "Juan")));
+        verify(sampleRepository, times(2)).findAllById(anyIterable());
+    }
+
+    @Test
+    public void sampleLookupBatcherShouldReadDirectlyOnceStopped() throws InterruptedException {
+        when(sampleRepository.findById(1L)).thenReturn(Optional.of(new Sample(1L, "Juan")));
+
+        sampleLookupBatcher.stop();
+
+        assertEquals(sampleLookupBatcher.findById(1L), Optional.of(new Sample(1L, "Juan")));
+        verify(sampleRepository, never()).findAllById(anyIterable());
+    }
+
+    private CompletableFuture<Optional<Sample>> lookup(Long sampleId) {
+        return CompletableFuture.supplyAsync(() -> sampleLookupBatcher.findById(sampleId), requests);
+    }
+}
@@ -0,0 +1,41 @@
+package com.autentia.pruebas.application.metrics;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class SampleMetricsIT {
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    public void exposesHttpServiceRepositoryPoolAndErrorMetricsToPrometheus() throws Exception {
+        mvc.perform(get("/samples/1")).andExpect(status().isOk());
+        mvc.perform(get("/samples/404")).andExpect(status().isNotFound());
+
+        mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("samples_service_seconds_bucket{")))
+                .andExpect(content().string(containsString("method=\"getSampleById\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket{")))
+                .andExpect(content().string(containsString("hikaricp_connections_active{pool=\"samples\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_idle{pool=\"samples\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds_bucket{")))
+                .andExpect(content().string(containsString("samples_errors_total{exception=\"SampleNotFoundException\"")));
+    }
+}
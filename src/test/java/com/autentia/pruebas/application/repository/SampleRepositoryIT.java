@@ -5,10 +5,19 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -60,4 +69,73 @@ public class SampleRepositoryIT {
 
         assertEquals(foundSample, sample1);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldFindOnlyExistingIds() {
+        List<Long> existingIds = sampleRepository.findExistingIds(List.of(1L, 2L, 3L));
+
+        assertEquals(Set.copyOf(existingIds), Set.of(1L, 2L));
+    }
+
+    @Test
+    public void shouldFindExistingIdsBeyondOneBatch() {
+        List<Long> ids = LongStream.rangeClosed(1, 2500).boxed().collect(Collectors.toList());
+
+        List<Long> existingIds = sampleRepository.findExistingIds(ids);
+
+        assertEquals(Set.copyOf(existingIds), Set.of(1L, 2L));
+    }
+
+    @Test
+    public void shouldInsertUpdateAndDeleteSamplesInBatch() {
+        Sample sample3 = new Sample(3L, "Alex");
+        Sample sample4 = new Sample(4L, "Eva");
+        Sample updatedSample3 = new Sample(3L, "Alejandro");
+
+        sampleRepository.insertAll(List.of(sample3, sample4));
+        int[] updateCounts = sampleRepository.updateAll(List.of(updatedSample3, new Sample(5L, "Luis")));
+        sampleRepository.deleteAllById(List.of(4L));
+
+        assertEquals(Arrays.toString(updateCounts), Arrays.toString(new int[]{1, 0}));
+
+        assertEquals(sampleRepository.findExistingIds(List.of(3L, 4L)), List.of(3L));
+        assertEquals(sampleRepository.findById(3L).get(), updatedSample3);
+    }
+
+    @Test
+    public void shouldSeekSamplesAfterAGivenId() {
+        Slice<Sample> firstSlice = sampleRepository.findByIdGreaterThanOrderByIdAsc(Long.MIN_VALUE, PageRequest.of(0, 1));
+        Slice<Sample> lastSlice = sampleRepository.findByIdGreaterThanOrderByIdAsc(1L, PageRequest.of(0, 1));
+
+        assertEquals(firstSlice.getContent(), List.of(new Sample(1L, "Juan")));
+        assertEquals(firstSlice.hasNext(), true);
+        assertEquals(lastSlice.getContent(), List.of(new Sample(2L, "Ana")));
+        assertEquals(lastSlice.hasNext(), false);
+    }
+
+    @Test
+    public void shouldStreamSamplesAfterAGivenIdInIdOrder() {
+        try (Stream<Sample> samples = sampleRepository.streamByIdGreaterThan(Long.MIN_VALUE)) {
+            assertEquals(samples.collect(Collectors.toList()), List.of(new Sample(1L, "Juan"), new Sample(2L, "Ana")));
+        }
+        try (Stream<Sample> samples = sampleRepository.streamByIdGreaterThan(1L)) {
+            assertEquals(samples.collect(Collectors.toList()), List.of(new Sample(2L, "Ana")));
+        }
+    }
+
+    @Test
+    public void shouldFindSamplesByNamePrefixIgnoringCase() {
+        sampleRepository.save(new Sample(3L, "juana"));
+
+        Page<Sample> samplesFound = sampleRepository.findByNameStartingWithIgnoreCase("JUA", PageRequest.of(0, 10, Sort.by("id")));
+
+        assertEquals(samplesFound.getContent(), List.of(new Sample(1L, "Juan"), new Sample(3L, "juana")));
+    }
+
+    @Test
+    public void shouldTreatWildcardsInNamePrefixLiterally() {
+        Page<Sample> samplesFound = sampleRepository.findByNameStartingWith("%", PageRequest.of(0, 10));
+
+        assertEquals(samplesFound.getTotalElements(), 0);
+    }
+}
@@ -0,0 +1,197 @@
+package com.autentia.pruebas.application.search;
+
+import com.autentia.pruebas.application.cache.LoopbackSampleInvalidationTransport;
+import com.autentia.pruebas.application.cache.SampleCache;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleNameMatch;
+import com.autentia.pruebas.application.repository.SampleRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class SampleNameIndexTest {
+    private SampleRepository sampleRepository;
+    private LoopbackSampleInvalidationTransport transport;
+    private LoopbackSampleInvalidationTransport otherTransport;
+    private SampleCache sampleCache;
+    private SampleCache otherNodeCache;
+    private SampleNameIndex sampleNameIndex;
+
+    @Before
+    public void init() {
+        sampleRepository = mock(SampleRepository.class);
+        transport = new LoopbackSampleInvalidationTransport("name-index-test");
+        otherTransport = new LoopbackSampleInvalidationTransport("name-index-test");
+        sampleCache = new SampleCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1), Optional.empty(), Optional.of(transport));
+        otherNodeCache = new SampleCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1), Optional.empty(), Optional.of(otherTransport));
+        sampleNameIndex = new SampleNameIndex(sampleRepository, sampleCache, mock(PlatformTransactionManager.class), true);
+        sampleNameIndex.load(new Sample(1L, "Juan"));
+        sampleNameIndex.load(new Sample(2L, "Ana"));
+        sampleNameIndex.load(new Sample(3L, "Juana"));
+        sampleNameIndex.load(new Sample(4L, "Mariana"));
+        sampleNameIndex.markReady();
+    }
+
+    @After
+    public void close() {
+        sampleNameIndex.close();
+        transport.close();
+        otherTransport.close();
+    }
+
+    @Test
+    public void sampleNameIndexShouldFindInfixMatchesIgnoringCase() {
+        Page<Sample> samplesFound = sampleNameIndex.search("ANA", SampleNameMatch.CONTAINS, true, PageRequest.of(0, 10));
+
+        assertEquals(samplesFound.getContent(), List.of(new Sample(2L, "Ana"), new Sample(3L, "Juana"), new Sample(4L, "Mariana")));
+    }
+
+    @Test
+    public void sampleNameIndexShouldRespectCaseWhenAsked() {
+        Page<Sample> samplesFound = sampleNameIndex.search("Ana", SampleNameMatch.CONTAINS, false, PageRequest.of(0, 10));
+
+        assertEquals(samplesFound.getContent(), List.of(new Sample(2L, "Ana")));
+    }
+
+    @Test
+    public void sampleNameIndexShouldFindPrefixAndExactMatches() {
+        Page<Sample> prefixFound = sampleNameIndex.search("jua", SampleNameMatch.PREFIX, true, PageRequest.of(0, 10));
+        Page<Sample> exactFound = sampleNameIndex.search("juan", SampleNameMatch.EXACT, true, PageRequest.of(0, 10));
+
+        assertEquals(prefixFound.getContent(), List.of(new Sample(1L, "Juan"), new Sample(3L, "Juana")));
+        assertEquals(exactFound.getContent(), List.of(new Sample(1L, "Juan")));
+    }
+
+    @Test
+    public void sampleNameIndexShouldPageAndSortMatches() {
+        Page<Sample> samplesFound = sampleNameIndex.search("an", SampleNameMatch.CONTAINS, true,
+                PageRequest.of(1, 2, Sort.by("name").descending()));
+
+        assertEquals(samplesFound.getTotalElements(), 4);
+        assertEquals(samplesFound.getContent(), List.of(new Sample(1L, "Juan"), new Sample(2L, "Ana")));
+    }
+
+    @Test
+    public void sampleNameIndexShouldForgetRenamedAndRemovedSamples() {
+        sampleNameIndex.put(new Sample(3L, "Alex"));
+        sampleNameIndex.remove(4L);
+
+        Page<Sample> samplesFound = sampleNameIndex.search("ana", SampleNameMatch.CONTAINS, true, PageRequest.of(0, 10));
+
+        assertEquals(samplesFound.getContent(), List.of(new Sample(2L, "Ana")));
+    }
+
+    @Test
+    public void sampleNameIndexShouldFindNothingWhenATrigramIsUnknown() {
+        Page<Sample> samplesFound = sampleNameIndex.search("xyz", SampleNameMatch.CONTAINS, true, PageRequest.of(0, 10));
+
+        assertEquals(samplesFound.getTotalElements(), 0);
+    }
+
+    @Test
+    public void sampleNameIndexShouldServeQueriesShorterThanATrigram() {
+        Page<Sample> oneLetterFound = sampleNameIndex.search("m", SampleNameMatch.CONTAINS, true, PageRequest.of(0, 10));
+        Page<Sample> twoLettersFound = sampleNameIndex.search("ua", SampleNameMatch.CONTAINS, false, PageRequest.of(0, 10));
+
+        assertEquals(oneLetterFound.getContent(), List.of(new Sample(4L, "Mariana")));
+        assertEquals(twoLettersFound.getContent(), List.of(new Sample(1L, "Juan"), new Sample(3L, "Juana")));
+    }
+
+    @Test
+    public void sampleNameIndexShouldFindRenamedSamplesOnlyByTheirNewName() {
+        sampleNameIndex.put(new Sample(1L, "Julia"));
+
+        Page<Sample> oldNameFound = sampleNameIndex.search("uan", SampleNameMatch.CONTAINS, true, PageRequest.of(0, 10));
+        Page<Sample> newNameFound = sampleNameIndex.search("uli", SampleNameMatch.CONTAINS, true, PageRequest.of(0, 10));
+
+        assertEquals(oldNameFound.getContent(), List.of(new Sample(3L, "Juana")));
+        assertEquals(newNameFound.getContent(), List.of(new Sample(1L, "Julia")));
+    }
+
+    @Test
+    public void sampleNameIndexShouldNotLoadSamplesRemovedWhileLoading() {
+        SampleNameIndex loadingIndex = nameIndex();
+        loadingIndex.load(new Sample(1L, "Juan"));
+        loadingIndex.remove(2L);
+        loadingIndex.load(new Sample(2L, "Ana"));
+        loadingIndex.markReady();
+
+        Page<Sample> samplesFound = loadingIndex.search("an", SampleNameMatch.CONTAINS, true, PageRequest.of(0, 10));
+
+        assertEquals(samplesFound.getContent(), List.of(new Sample(1L, "Juan")));
+    }
+
+    @Test
+    public void sampleNameIndexShouldCountEveryMatchButKeepOnlyThePage() {
+        SampleNameIndex largeIndex = nameIndex();
+        for (long sampleId = 1; sampleId <= 1000; sampleId++) {
+            largeIndex.load(new Sample(sampleId, "Sample " + sampleId));
+        }
+        largeIndex.markReady();
+
+        Page<Sample> samplesFound = largeIndex.search("sample", SampleNameMatch.PREFIX, true,
+                PageRequest.of(2, 3, Sort.by("id").descending()));
+
+        assertEquals(samplesFound.getTotalElements(), 1000);
+        assertEquals(samplesFound.getContent(), List.of(new Sample(994L, "Sample 994"), new Sample(993L, "Sample 993"),
+                new Sample(992L, "Sample 992")));
+    }
+
+    @Test
+    public void sampleNameIndexShouldReadOtherNodesWritesFromThePrimary() throws InterruptedException {
+        when(sampleRepository.findById(1L)).thenReturn(Optional.of(new Sample(1L, "Julia")));
+        when(sampleRepository.findById(2L)).thenReturn(Optional.empty());
+
+        otherNodeCache.evict(2L);
+        otherNodeCache.evict(1L);
+
+        for (int attempt = 0; attempt < 100 && search("uli").isEmpty(); attempt++) {
+            Thread.sleep(10);
+        }
+        assertEquals(search("uli"), List.of(new Sample(1L, "Julia")));
+        assertEquals(search("an"), List.of(new Sample(3L, "Juana"), new Sample(4L, "Mariana")));
+    }
+
+    @Test
+    public void sampleNameIndexShouldRebuildFromThePrimaryWhenOtherNodesClear() throws InterruptedException {
+        when(sampleRepository.streamByIdGreaterThan(Long.MIN_VALUE)).thenReturn(Stream.of(new Sample(5L, "Mariano")));
+
+        otherNodeCache.clear();
+
+        for (int attempt = 0; attempt < 100 && search("an").size() != 1; attempt++) {
+            Thread.sleep(10);
+        }
+        assertTrue(sampleNameIndex.isReady());
+        assertEquals(search("an"), List.of(new Sample(5L, "Mariano")));
+    }
+
+    @Test
+    public void sampleNameIndexShouldNotBeReadyOnceCleared() {
+        sampleNameIndex.clear();
+
+        assertFalse(sampleNameIndex.isReady());
+    }
+
+    private List<Sample> search(String name) {
+        return sampleNameIndex.search(name, SampleNameMatch.CONTAINS, true, PageRequest.of(0, 10)).getContent();
+    }
+
+    private SampleNameIndex nameIndex() {
+        return new SampleNameIndex(mock(SampleRepository.class), new SampleCache(1, Duration.ofMinutes(1), Duration.ofMinutes(1)),
+                mock(PlatformTransactionManager.class), true);
+    }
+}
@@ -0,0 +1,120 @@
+package com.autentia.pruebas.application.service;
+
+import com.autentia.pruebas.application.cache.SampleCache;
+import com.autentia.pruebas.application.exceptions.SampleAlreadyCreatedException;
+import com.autentia.pruebas.application.exceptions.SampleNotFoundException;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleBatchResult;
+import com.autentia.pruebas.application.model.SampleBatchStatus;
+import com.autentia.pruebas.application.repository.ReactiveSampleRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ReactiveSampleServiceTest {
+    private ReactiveSampleService sampleService;
+    private ReactiveSampleRepository sampleRepository;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void init() {
+        sampleRepository = mock(ReactiveSampleRepository.class);
+        TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        sampleService = new ReactiveSampleService(sampleRepository,
+                new SampleCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1)), transactionalOperator);
+    }
+
+    @Test
+    public void reactiveSampleServiceShouldFetchOneExtraSampleToKnowIfThereIsANextSlice() {
+        Sample sample1 = new Sample(1L, "Juan");
+        Sample sample2 = new Sample(2L, "Ana");
+
+        when(sampleRepository.findByIdGreaterThan(Long.MIN_VALUE, 2)).thenReturn(Flux.just(sample1, sample2));
+
+        StepVerifier.create(sampleService.getSamplesAfter(null, 1))
+                .expectNextMatches(slice -> slice.hasNext() && slice.getContent().equals(List.of(sample1)))
+                .verifyComplete();
+    }
+
+    @Test
+    public void reactiveSampleServiceShouldServeRepeatedLookupsFromCache() {
+        Sample sample1 = new Sample(1L, "Juan");
+
+        when(sampleRepository.findById(1L)).thenReturn(Mono.just(sample1));
+
+        StepVerifier.create(sampleService.getSampleById(1L)).expectNext(sample1).verifyComplete();
+        StepVerifier.create(sampleService.getSampleById(1L)).expectNext(sample1).verifyComplete();
+
+        verify(sampleRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    public void reactiveSampleServiceShouldRememberMissingSamples() {
+        when(sampleRepository.findById(3L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(sampleService.getSampleById(3L)).verifyError(SampleNotFoundException.class);
+        StepVerifier.create(sampleService.getSampleById(3L)).verifyError(SampleNotFoundException.class);
+
+        verify(sampleRepository, times(1)).findById(3L);
+    }
+
+    @Test
+    public void reactiveSampleServiceShouldFailWhenAddingSampleAlreadyInDb() {
+        Sample sample1 = new Sample(1L, "Juan");
+
+        when(sampleRepository.insertSample(sample1)).thenReturn(Mono.error(new DuplicateKeyException("duplicated")));
+
+        StepVerifier.create(sampleService.addSample(sample1)).verifyError(SampleAlreadyCreatedException.class);
+    }
+
+    @Test
+    public void reactiveSampleServiceShouldFailWhenUpdatingSampleNotInDb() {
+        Sample sample3 = new Sample(3L, "Alex");
+
+        when(sampleRepository.updateSample(sample3)).thenReturn(Mono.just(0L));
+
+        StepVerifier.create(sampleService.updateSample(sample3)).verifyError(SampleNotFoundException.class);
+    }
+
+    @Test
+    public void reactiveSampleServiceShouldOnlyInsertNewSamplesInBatch() {
+        Sample sample1 = new Sample(1L, "Juan");
+        Sample sample3 = new Sample(3L, "Alex");
+
+        when(sampleRepository.findExistingIds(List.of(1L, 3L))).thenReturn(Flux.just(1L));
+        when(sampleRepository.insertAll(List.of(sample3))).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(sampleService.addSamples(List.of(sample1, sample3)))
+                .expectNext(List.of(new SampleBatchResult(1L, SampleBatchStatus.CONFLICT),
+                        new SampleBatchResult(3L, SampleBatchStatus.CREATED)))
+                .verifyComplete();
+
+        verify(sampleRepository).insertAll(List.of(sample3));
+    }
+
+    @Test
+    public void reactiveSampleServiceShouldReportSamplesNotUpdatedInBatchAsNotFound() {
+        Sample sample1 = new Sample(1L, "Juan");
+        Sample sample3 = new Sample(3L, "Alex");
+
+        when(sampleRepository.updateAll(List.of(sample1, sample3))).thenReturn(Flux.just(1L, 0L));
+
+        StepVerifier.create(sampleService.updateSamples(List.of(sample1, sample3)))
+                .expectNext(List.of(new SampleBatchResult(1L, SampleBatchStatus.UPDATED),
+                        new SampleBatchResult(3L, SampleBatchStatus.NOT_FOUND)))
+                .verifyComplete();
+
+        verify(sampleRepository, never()).findExistingIds(any());
+    }
+}
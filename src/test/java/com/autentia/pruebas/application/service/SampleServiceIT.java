@@ -0,0 +1,101 @@
+package com.autentia.pruebas.application.service;
+
+import com.autentia.pruebas.application.cache.SampleCache;
+import com.autentia.pruebas.application.exceptions.SampleAlreadyCreatedException;
+import com.autentia.pruebas.application.exceptions.SampleBadRequestException;
+import com.autentia.pruebas.application.exceptions.SampleNotFoundException;
+import com.autentia.pruebas.application.exceptions.SampleOverloadedException;
+import com.autentia.pruebas.application.model.Sample;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.fail;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class SampleServiceIT {
+    @Autowired
+    private SampleService sampleService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SampleCache sampleCache;
+
+    private Statistics statistics;
+
+    @Before
+    public void init() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void addUpdateAndDeleteShouldRunOneStatementEach() throws Exception {
+        Sample newSample = new Sample(100L, "Alex");
+
+        sampleService.addSample(newSample);
+        assertEquals(statistics.getPrepareStatementCount(), 1);
+
+        statistics.clear();
+        sampleService.updateSample(new Sample(100L, "Alejandro"));
+        assertEquals(statistics.getPrepareStatementCount(), 1);
+
+        statistics.clear();
+        sampleService.deleteSample(100L);
+        assertEquals(statistics.getPrepareStatementCount(), 1);
+    }
+
+    @Test
+    public void updatesShouldReadTheVersionBackWhenItIsNotCached() throws Exception {
+        sampleService.addSample(new Sample(102L, "Eva"));
+        sampleCache.evict(102L);
+
+        statistics.clear();
+        Sample updatedSample = sampleService.updateSample(new Sample(102L, "Eva María"));
+        assertEquals(statistics.getPrepareStatementCount(), 2);
+        assertEquals(updatedSample.getVersion(), Long.valueOf(1L));
+
+        statistics.clear();
+        sampleService.updateSample(new Sample(102L, "Eva"));
+        assertEquals(statistics.getPrepareStatementCount(), 1);
+
+        sampleService.deleteSample(102L);
+    }
+
+    @Test
+    public void failedWritesShouldRunOneStatementEach() throws SampleBadRequestException, SampleOverloadedException {
+        try {
+            sampleService.addSample(new Sample(1L, "Juan"));
+            fail();
+        } catch (SampleAlreadyCreatedException e) {
+            assertEquals(statistics.getPrepareStatementCount(), 1);
+        }
+
+        statistics.clear();
+        try {
+            sampleService.updateSample(new Sample(101L, "Alex"));
+            fail();
+        } catch (SampleNotFoundException e) {
+            assertEquals(statistics.getPrepareStatementCount(), 1);
+        }
+
+        statistics.clear();
+        try {
+            sampleService.deleteSample(101L);
+            fail();
+        } catch (SampleNotFoundException e) {
+            assertEquals(statistics.getPrepareStatementCount(), 1);
+        }
+    }
+}
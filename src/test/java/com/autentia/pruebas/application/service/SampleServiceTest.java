@@ -1,17 +1,44 @@
 package com.autentia.pruebas.application.service;
 
+import com.autentia.pruebas.application.cache.SampleCache;
+import com.autentia.pruebas.application.count.SampleTotal;
 import com.autentia.pruebas.application.exceptions.SampleAlreadyCreatedException;
+import com.autentia.pruebas.application.exceptions.SampleBadRequestException;
 import com.autentia.pruebas.application.exceptions.SampleNotFoundException;
+import com.autentia.pruebas.application.exceptions.SampleOverloadedException;
+import com.autentia.pruebas.application.exceptions.SamplePreconditionFailedException;
+import com.autentia.pruebas.application.lookup.SampleLookupBatcher;
 import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleBatchResult;
+import com.autentia.pruebas.application.model.SampleBatchStatus;
+import com.autentia.pruebas.application.model.SampleNameMatch;
+import com.autentia.pruebas.application.model.SampleTotalMode;
 import com.autentia.pruebas.application.repository.SampleRepository;
+import com.autentia.pruebas.application.search.SampleNameIndex;
+import com.autentia.pruebas.application.store.SampleStore;
+import com.autentia.pruebas.application.writebehind.SampleWriteBehind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.*;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static junit.framework.TestCase.assertEquals;
 import static org.mockito.Mockito.*;
@@ -19,6 +46,10 @@ import static org.mockito.Mockito.*;
 public class SampleServiceTest {
     private SampleService sampleService;
     private SampleRepository sampleRepository;
+    private SampleNameIndex sampleNameIndex;
+    private SampleCache sampleCache;
+    private SampleTotal sampleTotal;
+    private SampleStore sampleStore;
 
     @Rule
     public ExpectedException thrown = ExpectedException.none();
@@ -26,7 +57,11 @@ public class SampleServiceTest {
     @Before
     public void init() {
         sampleRepository = mock(SampleRepository.class);
-        sampleService = new SampleService(sampleRepository);
+        sampleCache = new SampleCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        sampleNameIndex = new SampleNameIndex(sampleRepository, sampleCache, mock(PlatformTransactionManager.class), true);
+        sampleTotal = new SampleTotal(sampleRepository, Duration.ofMinutes(1));
+        sampleStore = store(false);
+        sampleService = new SampleService(sampleRepository, sampleCache, sampleNameIndex, writeBehind(false), sampleTotal, sampleStore, lookupBatcher(false));
     }
 
     @Test
@@ -44,6 +79,36 @@ public class SampleServiceTest {
         assertEquals(samplesFound, expectedSamples);
     }
 
+    @Test
+    public void sampleServiceShouldCountOnceAndKeepTheTotalForCachedTotals() throws Exception {
+        Sample sample3 = new Sample(3L, "Alex");
+        Pageable pageRequest = PageRequest.of(0, 1);
+        when(sampleRepository.findAllAsSlice(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(new Sample(1L, "Juan")), pageRequest, true));
+        when(sampleRepository.count()).thenReturn(2L);
+
+        Slice<Sample> firstPage = sampleService.getAllSamples(pageRequest, SampleTotalMode.CACHED);
+        sampleService.addSample(sample3);
+        Slice<Sample> secondPage = sampleService.getAllSamples(pageRequest, SampleTotalMode.CACHED);
+
+        verify(sampleRepository, times(1)).count();
+        verify(sampleRepository, never()).findAll(any(Pageable.class));
+        assertEquals(((Page<Sample>) firstPage).getTotalElements(), 2);
+        assertEquals(((Page<Sample>) secondPage).getTotalElements(), 3);
+    }
+
+    @Test
+    public void sampleServiceShouldNotCountWithoutTotals() {
+        Pageable pageRequest = PageRequest.of(0, 1);
+        Slice<Sample> expectedSamples = new SliceImpl<>(List.of(new Sample(1L, "Juan")), pageRequest, true);
+        when(sampleRepository.findAllAsSlice(any(Pageable.class))).thenReturn(expectedSamples);
+
+        Slice<Sample> samplesFound = sampleService.getAllSamples(pageRequest, SampleTotalMode.NONE);
+
+        verify(sampleRepository, never()).count();
+        assertEquals(samplesFound, expectedSamples);
+    }
+
     @Test
     public void sampleServiceShouldGetNoSamplesWhenThereAreNone() {
         Page<Sample> emptySamples = Page.empty();
@@ -57,6 +122,31 @@ public class SampleServiceTest {
         assertEquals(samplesFound, emptySamples);
     }
 
+    @Test
+    public void sampleServiceShouldGetSamplesAfterIdWithoutCounting() {
+        Sample sample2 = new Sample(2L, "Ana");
+        Slice<Sample> expectedSamples = new SliceImpl<>(List.of(sample2));
+
+        when(sampleRepository.findByIdGreaterThanOrderByIdAsc(1L, PageRequest.of(0, 10))).thenReturn(expectedSamples);
+
+        Slice<Sample> samplesFound = sampleService.getSamplesAfter(1L, 10);
+
+        verify(sampleRepository).findByIdGreaterThanOrderByIdAsc(1L, PageRequest.of(0, 10));
+        verify(sampleRepository, never()).findAll(any(Pageable.class));
+        assertEquals(samplesFound, expectedSamples);
+    }
+
+    @Test
+    public void sampleServiceShouldGetSamplesFromTheStartWhenThereIsNoCursor() {
+        Slice<Sample> expectedSamples = new SliceImpl<>(List.of(new Sample(1L, "Juan")));
+
+        when(sampleRepository.findByIdGreaterThanOrderByIdAsc(Long.MIN_VALUE, PageRequest.of(0, 10))).thenReturn(expectedSamples);
+
+        Slice<Sample> samplesFound = sampleService.getSamplesAfter(null, 10);
+
+        assertEquals(samplesFound, expectedSamples);
+    }
+
     @Test
     public void sampleServiceShouldGetSampleWhenIdExists() throws SampleNotFoundException {
         Sample sample1 = new Sample(1L, "Juan");
@@ -84,89 +174,481 @@ public class SampleServiceTest {
     }
 
     @Test
-    public void sampleServiceShouldAddANewSampleWhenItDoesntAlreadyExist() throws SampleAlreadyCreatedException {
+    public void sampleServiceShouldGetSampleFromCacheWhenRequestedTwice() throws SampleNotFoundException {
         Sample sample1 = new Sample(1L, "Juan");
-        Optional<Sample> emptyOptionalSample = Optional.empty();
 
-        when(sampleRepository.findById(anyLong())).thenReturn(emptyOptionalSample);
-        when(sampleRepository.save(sample1)).thenReturn(sample1);
+        when(sampleRepository.findById(1L)).thenReturn(Optional.of(sample1));
+
+        sampleService.getSampleById(1L);
+        Sample sampleFound = sampleService.getSampleById(1L);
+
+        verify(sampleRepository, times(1)).findById(1L);
+        assertEquals(sampleFound, sample1);
+    }
+
+    @Test
+    public void sampleServiceShouldShareOneLookupBetweenConcurrentRequestsForTheSameSample() throws Exception {
+        CountDownLatch requestsStarted = new CountDownLatch(8);
+        CountDownLatch release = new CountDownLatch(1);
+        when(sampleRepository.findById(3L)).thenAnswer(invocation -> release.await(5, TimeUnit.SECONDS) ? Optional.empty() : null);
+        ExecutorService requests = Executors.newFixedThreadPool(8);
+
+        List<Future<Exception>> responses = new ArrayList<>();
+        for (int request = 0; request < 8; request++) {
+            responses.add(requests.submit(() -> {
+                requestsStarted.countDown();
+                try {
+                    sampleService.getSampleById(3L);
+                    return null;
+                } catch (SampleNotFoundException e) {
+                    return e;
+                }
+            }));
+        }
+        requestsStarted.await(5, TimeUnit.SECONDS);
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<Exception> response : responses) {
+            assertEquals(response.get(5, TimeUnit.SECONDS).getClass(), SampleNotFoundException.class);
+        }
+        requests.shutdown();
+        verify(sampleRepository, times(1)).findById(3L);
+    }
+
+    @Test
+    public void sampleServiceShouldCacheMissingSamples() {
+        when(sampleRepository.findById(3L)).thenReturn(Optional.empty());
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                sampleService.getSampleById(3L);
+            } catch (SampleNotFoundException e) {
+                assertEquals(e.getMessage(), SampleNotFoundException.ERROR_MESSAGE);
+            }
+        }
+
+        verify(sampleRepository, times(1)).findById(3L);
+    }
+
+    @Test
+    public void sampleServiceShouldNotServeStaleSampleAfterUpdate() throws SampleNotFoundException, SampleOverloadedException {
+        Sample sample1 = new Sample(1L, "Juan");
+        Sample sample2 = new Sample(1L, "Ana");
+
+        when(sampleRepository.findById(1L)).thenReturn(Optional.of(sample1), Optional.of(sample2));
+        when(sampleRepository.updateSampleReturningVersion(sample2)).thenReturn(Optional.of(1L));
+
+        sampleService.getSampleById(1L);
+        sampleService.updateSample(sample2);
+        Sample sampleFound = sampleService.getSampleById(1L);
+
+        assertEquals(sampleFound.getName(), "Ana");
+    }
+
+    @Test
+    public void sampleServiceShouldNotServeDeletedSample() throws SampleNotFoundException {
+        Sample sample1 = new Sample(1L, "Juan");
+
+        when(sampleRepository.findById(1L)).thenReturn(Optional.of(sample1));
+        when(sampleRepository.deleteSampleById(1L)).thenReturn(1);
+
+        sampleService.getSampleById(1L);
+        sampleService.deleteSample(1L);
+
+        thrown.expect(SampleNotFoundException.class);
+        sampleService.getSampleById(1L);
+    }
+
+    @Test
+    public void sampleServiceShouldAddANewSampleWhenItDoesntAlreadyExist()
+            throws SampleAlreadyCreatedException, SampleBadRequestException, SampleOverloadedException {
+        Sample sample1 = new Sample(1L, "Juan");
+
+        when(sampleRepository.insertSample(sample1)).thenReturn(1);
 
         Sample sampleAdded = sampleService.addSample(sample1);
 
-        verify(sampleRepository).findById(anyLong());
-        verify(sampleRepository).save(sample1);
+        verify(sampleRepository).insertSample(sample1);
+        verify(sampleRepository, never()).findById(anyLong());
         assertEquals(sampleAdded, sample1);
     }
 
     @Test
-    public void sampleServiceShouldNotAddANewSampleWhenItAlreadyExists() throws SampleAlreadyCreatedException {
+    public void sampleServiceShouldNotAddANewSampleWhenItAlreadyExists()
+            throws SampleAlreadyCreatedException, SampleBadRequestException, SampleOverloadedException {
         Sample sample1 = new Sample(1L, "Juan");
-        Optional<Sample> optionalSample = Optional.of(sample1);
 
-        when(sampleRepository.findById(anyLong())).thenReturn(optionalSample);
+        when(sampleRepository.insertSample(sample1)).thenThrow(new DuplicateKeyException("Duplicate key"));
 
         thrown.expect(SampleAlreadyCreatedException.class);
         thrown.expectMessage(SampleAlreadyCreatedException.ERROR_MESSAGE);
         sampleService.addSample(sample1);
 
-        verify(sampleRepository).findById(anyLong());
+        verify(sampleRepository).insertSample(sample1);
     }
 
     @Test
-    public void sampleServiceShouldUpdateASampleWhenItExists() throws SampleNotFoundException {
-        String newName = "Ana";
+    public void sampleServiceShouldTellDuplicateKeysApartByTheirSqlState()
+            throws SampleAlreadyCreatedException, SampleBadRequestException, SampleOverloadedException {
         Sample sample1 = new Sample(1L, "Juan");
+
+        when(sampleRepository.insertSample(sample1)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException("Unique index or primary key violation", "23505")));
+
+        thrown.expect(SampleAlreadyCreatedException.class);
+        sampleService.addSample(sample1);
+    }
+
+    @Test
+    public void sampleServiceShouldRejectSamplesBreakingOtherConstraints()
+            throws SampleAlreadyCreatedException, SampleBadRequestException, SampleOverloadedException {
+        Sample sampleWithoutId = new Sample(null, "Juan");
+
+        when(sampleRepository.insertSample(sampleWithoutId)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLIntegrityConstraintViolationException("NULL not allowed for column \"ID\"", "23502")));
+
+        thrown.expect(SampleBadRequestException.class);
+        thrown.expectMessage(SampleBadRequestException.INVALID_SAMPLE_MESSAGE);
+        sampleService.addSample(sampleWithoutId);
+    }
+
+    @Test
+    public void sampleServiceShouldUpdateASampleWhenItExists() throws SampleNotFoundException, SampleOverloadedException {
+        String newName = "Ana";
         Sample sample2 = new Sample(1L, newName);
-        Optional<Sample> optionalSample = Optional.of(sample1);
 
-        when(sampleRepository.findById(anyLong())).thenReturn(optionalSample);
-        when(sampleRepository.save(any(Sample.class))).thenReturn(sample2);
+        when(sampleRepository.updateSampleReturningVersion(sample2)).thenReturn(Optional.of(2L));
 
         Sample sampleUpdated = sampleService.updateSample(sample2);
 
-        verify(sampleRepository).findById(anyLong());
-        verify(sampleRepository).save(any(Sample.class));
+        verify(sampleRepository).updateSampleReturningVersion(sample2);
+        verify(sampleRepository, never()).findById(anyLong());
         assertEquals(sampleUpdated, sample2);
+        assertEquals(sampleUpdated.getVersion(), Long.valueOf(2L));
+    }
+
+    @Test
+    public void sampleServiceShouldUpdateACachedSampleInOneStatement() throws SampleNotFoundException, SampleOverloadedException {
+        Sample sample2 = new Sample(1L, "Ana");
+
+        when(sampleRepository.findById(1L)).thenReturn(Optional.of(new Sample(1L, "Juan", 3L)));
+        when(sampleRepository.updateSample(sample2, 3L)).thenReturn(1);
+
+        sampleService.getSampleById(1L);
+        Sample sampleUpdated = sampleService.updateSample(sample2);
+
+        verify(sampleRepository, never()).updateSampleReturningVersion(any(Sample.class));
+        assertEquals(sampleUpdated.getVersion(), Long.valueOf(4L));
+        assertEquals(sampleService.getSampleById(1L).getName(), "Ana");
     }
 
     @Test
-    public void sampleServiceShouldNotUpdateASampleWhenItDoesNotExists() throws SampleNotFoundException {
+    public void sampleServiceShouldReadTheVersionBackWhenTheCachedOneIsStale()
+            throws SampleNotFoundException, SampleOverloadedException {
+        Sample sample2 = new Sample(1L, "Ana");
+
+        when(sampleRepository.findById(1L)).thenReturn(Optional.of(new Sample(1L, "Juan", 3L)));
+        when(sampleRepository.updateSample(sample2, 3L)).thenReturn(0);
+        when(sampleRepository.updateSampleReturningVersion(sample2)).thenReturn(Optional.of(6L));
+
+        sampleService.getSampleById(1L);
+        Sample sampleUpdated = sampleService.updateSample(sample2);
+
+        assertEquals(sampleUpdated.getVersion(), Long.valueOf(6L));
+    }
+
+    @Test
+    public void sampleServiceShouldUpdateASampleWhenItsVersionMatches() throws Exception {
+        Sample sample2 = new Sample(1L, "Ana");
+
+        when(sampleRepository.updateSample(sample2, 4L)).thenReturn(1);
+
+        Sample sampleUpdated = sampleService.updateSample(sample2, 4L);
+
+        verify(sampleRepository, never()).findVersionById(anyLong());
+        assertEquals(sampleUpdated.getVersion(), Long.valueOf(5L));
+        assertEquals(sampleService.getSampleVersion(1L), Long.valueOf(5L));
+    }
+
+    @Test
+    public void sampleServiceShouldNotUpdateASampleWhenItsVersionChanged() throws Exception {
+        Sample sample2 = new Sample(1L, "Ana");
+
+        when(sampleRepository.updateSample(sample2, 4L)).thenReturn(0);
+        when(sampleRepository.existsById(1L)).thenReturn(true);
+
+        thrown.expect(SamplePreconditionFailedException.class);
+        thrown.expectMessage(SamplePreconditionFailedException.ERROR_MESSAGE);
+        sampleService.updateSample(sample2, 4L);
+    }
+
+    @Test
+    public void sampleServiceShouldGetVersionFromCacheWithoutQuerying() throws SampleNotFoundException {
+        Sample sample1 = new Sample(1L, "Juan", 3L);
+
+        when(sampleRepository.findById(1L)).thenReturn(Optional.of(sample1));
+
+        sampleService.getSampleById(1L);
+        Long version = sampleService.getSampleVersion(1L);
+
+        verify(sampleRepository, never()).findVersionById(anyLong());
+        assertEquals(version, Long.valueOf(3L));
+    }
+
+    @Test
+    public void sampleServiceShouldNotUpdateASampleWhenItDoesNotExists()
+            throws SampleNotFoundException, SampleOverloadedException {
         String newName = "Ana";
         Sample sampleToUpdate = new Sample(3L, newName);
-        Optional<Sample> emptyOptionalSample = Optional.empty();
 
-        when(sampleRepository.findById(anyLong())).thenReturn(emptyOptionalSample);
+        when(sampleRepository.updateSampleReturningVersion(sampleToUpdate)).thenReturn(Optional.empty());
 
         thrown.expect(SampleNotFoundException.class);
         thrown.expectMessage(SampleNotFoundException.ERROR_MESSAGE);
         sampleService.updateSample(sampleToUpdate);
-
-        verify(sampleRepository).findById(anyLong());
     }
 
     @Test
     public void sampleServiceShouldDeleteASampleWhenItExists() throws SampleNotFoundException {
-        Sample sample1 = new Sample(1L, "Juan");
-        Optional<Sample> optionalSample = Optional.of(sample1);
-
-        when(sampleRepository.findById(anyLong())).thenReturn(optionalSample);
+        when(sampleRepository.deleteSampleById(1L)).thenReturn(1);
 
         sampleService.deleteSample(1L);
 
-        verify(sampleRepository).findById(anyLong());
-        verify(sampleRepository).delete(sample1);
+        verify(sampleRepository).deleteSampleById(1L);
+        verify(sampleRepository, never()).findById(anyLong());
     }
 
     @Test
     public void sampleServiceShouldNotDeleteASampleWhenItDoesNotExists() throws SampleNotFoundException {
-        Optional<Sample> emptyOptionalSample = Optional.empty();
-
-        when(sampleRepository.findById(anyLong())).thenReturn(emptyOptionalSample);
+        when(sampleRepository.deleteSampleById(1L)).thenReturn(0);
 
         thrown.expect(SampleNotFoundException.class);
         thrown.expectMessage(SampleNotFoundException.ERROR_MESSAGE);
         sampleService.deleteSample(1L);
 
-        verify(sampleRepository).findById(anyLong());
+        verify(sampleRepository).deleteSampleById(1L);
+    }
+
+    @Test
+    public void sampleServiceShouldAddOnlySamplesThatDontAlreadyExist() {
+        Sample sample1 = new Sample(1L, "Juan");
+        Sample sample3 = new Sample(3L, "Alex");
+        Sample repeatedSample3 = new Sample(3L, "Alejandro");
+
+        when(sampleRepository.findExistingIds(List.of(1L, 3L, 3L))).thenReturn(List.of(1L));
+
+        List<SampleBatchResult> results = sampleService.addSamples(List.of(sample1, sample3, repeatedSample3));
+
+        verify(sampleRepository).findExistingIds(List.of(1L, 3L, 3L));
+        verify(sampleRepository).insertAll(List.of(sample3));
+        assertEquals(results, List.of(
+                new SampleBatchResult(1L, SampleBatchStatus.CONFLICT),
+                new SampleBatchResult(3L, SampleBatchStatus.CREATED),
+                new SampleBatchResult(3L, SampleBatchStatus.CONFLICT)));
+    }
+
+    @Test
+    public void sampleServiceShouldUpdateOnlySamplesThatExist() {
+        Sample sample1 = new Sample(1L, "Ana");
+        Sample sample3 = new Sample(3L, "Alex");
+
+        when(sampleRepository.updateAll(List.of(sample1, sample3))).thenReturn(new int[]{1, 0});
+
+        List<SampleBatchResult> results = sampleService.updateSamples(List.of(sample1, sample3));
+
+        verify(sampleRepository, never()).findExistingIds(anyCollection());
+        assertEquals(results, List.of(
+                new SampleBatchResult(1L, SampleBatchStatus.UPDATED),
+                new SampleBatchResult(3L, SampleBatchStatus.NOT_FOUND)));
+    }
+
+    @Test
+    public void sampleServiceShouldLookUpSamplesWhoseBatchUpdateWasNotCounted() {
+        Sample sample1 = new Sample(1L, "Ana");
+        Sample sample2 = new Sample(2L, "Luis");
+        Sample sample3 = new Sample(3L, "Alex");
+
+        when(sampleRepository.updateAll(List.of(sample1, sample2, sample3)))
+                .thenReturn(new int[]{Statement.SUCCESS_NO_INFO, 1, Statement.SUCCESS_NO_INFO});
+        when(sampleRepository.findExistingIds(List.of(1L, 3L))).thenReturn(List.of(1L));
+
+        List<SampleBatchResult> results = sampleService.updateSamples(List.of(sample1, sample2, sample3));
+
+        assertEquals(results, List.of(
+                new SampleBatchResult(1L, SampleBatchStatus.UPDATED),
+                new SampleBatchResult(2L, SampleBatchStatus.UPDATED),
+                new SampleBatchResult(3L, SampleBatchStatus.NOT_FOUND)));
+    }
+
+    @Test
+    public void sampleServiceShouldDeleteOnlySamplesThatExist() {
+        Sample sample1 = new Sample(1L, "Juan");
+        Sample sample3 = new Sample(3L, "Alex");
+
+        when(sampleRepository.findExistingIds(List.of(1L, 3L))).thenReturn(List.of(1L));
+
+        List<SampleBatchResult> results = sampleService.deleteSamples(List.of(sample1, sample3));
+
+        verify(sampleRepository).deleteAllById(List.of(1L));
+        assertEquals(results, List.of(
+                new SampleBatchResult(1L, SampleBatchStatus.DELETED),
+                new SampleBatchResult(3L, SampleBatchStatus.NOT_FOUND)));
+    }
+
+    @Test
+    public void sampleServiceShouldNotServeCachedSampleAfterBatchUpdate() throws SampleNotFoundException {
+        Sample sample1 = new Sample(1L, "Juan");
+        Sample updatedSample1 = new Sample(1L, "Ana");
+
+        when(sampleRepository.findById(1L)).thenReturn(Optional.of(sample1), Optional.of(updatedSample1));
+        when(sampleRepository.updateAll(List.of(updatedSample1))).thenReturn(new int[]{1});
+        when(sampleRepository.findAllById(List.of(1L))).thenReturn(List.of(new Sample(1L, "Ana", 1L)));
+
+        sampleService.getSampleById(1L);
+        sampleService.updateSamples(List.of(updatedSample1));
+        Sample sampleFound = sampleService.getSampleById(1L);
+
+        verify(sampleRepository, times(1)).findById(1L);
+        assertEquals(sampleFound, updatedSample1);
+        assertEquals(sampleFound.getVersion(), Long.valueOf(1L));
+    }
+
+    @Test
+    public void sampleServiceShouldSearchByPrefixInDatabase() {
+        Sample sample1 = new Sample(1L, "Juan");
+        Page<Sample> expectedSamples = new PageImpl<>(List.of(sample1));
+        Pageable pageRequest = PageRequest.of(0, 10, Sort.by("id"));
+
+        when(sampleRepository.findByNameStartingWith("Ju", pageRequest)).thenReturn(expectedSamples);
+
+        Page<Sample> samplesFound = sampleService.searchSamples("Ju", SampleNameMatch.PREFIX, false, pageRequest);
+
+        assertEquals(samplesFound, expectedSamples);
+    }
+
+    @Test
+    public void sampleServiceShouldSearchInDatabaseUntilNameIndexIsBuilt() {
+        Pageable pageRequest = PageRequest.of(0, 10, Sort.by("id"));
+
+        when(sampleRepository.findByNameContainingIgnoreCase("ua", pageRequest)).thenReturn(Page.empty());
+
+        sampleService.searchSamples("ua", SampleNameMatch.CONTAINS, true, pageRequest);
+
+        verify(sampleRepository).findByNameContainingIgnoreCase("ua", pageRequest);
+    }
+
+    @Test
+    public void sampleServiceShouldSearchInfixInNameIndexOnceBuilt() {
+        Sample sample1 = new Sample(1L, "Juan");
+        when(sampleRepository.streamByIdGreaterThan(Long.MIN_VALUE)).thenReturn(Stream.of(sample1));
+        sampleService.buildNameIndex();
+
+        Page<Sample> samplesFound = sampleService.searchSamples("UA", SampleNameMatch.CONTAINS, true, PageRequest.of(0, 10));
+
+        verify(sampleRepository, never()).findByNameContainingIgnoreCase(anyString(), any(Pageable.class));
+        assertEquals(samplesFound.getContent(), List.of(sample1));
+    }
+
+    @Test
+    public void sampleServiceShouldKeepNameIndexInSyncWithWrites() throws Exception {
+        when(sampleRepository.streamByIdGreaterThan(Long.MIN_VALUE)).thenReturn(Stream.of(new Sample(1L, "Juan")));
+        when(sampleRepository.updateSampleReturningVersion(any(Sample.class))).thenReturn(Optional.of(1L));
+        sampleService.buildNameIndex();
+
+        sampleService.updateSample(new Sample(1L, "Alex"));
+
+        assertEquals(sampleService.searchSamples("jua", SampleNameMatch.CONTAINS, true, PageRequest.of(0, 10)).getTotalElements(), 0);
+        assertEquals(sampleService.searchSamples("ale", SampleNameMatch.CONTAINS, true, PageRequest.of(0, 10)).getTotalElements(), 1);
+    }
+
+    @Test
+    public void sampleServiceShouldServeBufferedWritesBeforeTheyAreFlushed() throws Exception {
+        SampleWriteBehind sampleWriteBehind = writeBehind(true);
+        sampleService = new SampleService(sampleRepository, sampleCache, sampleNameIndex, sampleWriteBehind, sampleTotal, sampleStore, lookupBatcher(false));
+        Sample sample1 = new Sample(1L, "Juan");
+
+        sampleService.addSample(sample1);
+        sampleService.updateSample(new Sample(1L, "Ana"));
+        Sample sampleFound = sampleService.getSampleById(1L);
+
+        verify(sampleRepository, never()).insertSample(any(Sample.class));
+        verify(sampleRepository, never()).updateSampleReturningVersion(any(Sample.class));
+        verify(sampleRepository, never()).findById(anyLong());
+        assertEquals(sampleFound.getName(), "Ana");
+        assertEquals(sampleWriteBehind.size(), 1);
+    }
+
+    @Test
+    public void sampleServiceShouldRejectBufferedCreateOfExistingSample() throws Exception {
+        sampleService = new SampleService(sampleRepository, sampleCache, sampleNameIndex, writeBehind(true), sampleTotal, sampleStore, lookupBatcher(false));
+
+        when(sampleRepository.existsById(1L)).thenReturn(true);
+
+        thrown.expect(SampleAlreadyCreatedException.class);
+        sampleService.addSample(new Sample(1L, "Juan"));
+    }
+
+    @Test
+    public void sampleServiceShouldRejectBufferedUpdateOfMissingSample() throws Exception {
+        sampleService = new SampleService(sampleRepository, sampleCache, sampleNameIndex, writeBehind(true), sampleTotal, sampleStore, lookupBatcher(false));
+
+        when(sampleRepository.existsById(3L)).thenReturn(false);
+
+        thrown.expect(SampleNotFoundException.class);
+        sampleService.updateSample(new Sample(3L, "Alex"));
+    }
+
+    @Test
+    public void sampleServiceShouldFlushBufferedWritesBeforeDeleting() throws Exception {
+        sampleService = new SampleService(sampleRepository, sampleCache, sampleNameIndex, writeBehind(true), sampleTotal, sampleStore, lookupBatcher(false));
+
+        when(sampleRepository.deleteSampleById(1L)).thenReturn(1);
+
+        sampleService.addSample(new Sample(1L, "Juan"));
+        sampleService.deleteSample(1L);
+
+        var inOrder = inOrder(sampleRepository);
+        inOrder.verify(sampleRepository).insertAll(List.of(new Sample(1L, "Juan")));
+        inOrder.verify(sampleRepository).deleteSampleById(1L);
+    }
+
+    @Test
+    public void sampleServiceShouldServeReadsFromTheStoreOnceLoaded() throws Exception {
+        when(sampleRepository.count()).thenReturn(2L);
+        when(sampleRepository.streamWithVersionByIdGreaterThan(Long.MIN_VALUE))
+                .thenReturn(Stream.of(new Sample(1L, "Juan", 0L), new Sample(2L, "Ana", 3L)));
+        when(sampleRepository.deleteSampleById(1L)).thenReturn(1);
+        sampleStore = store(true);
+        sampleStore.load();
+        sampleService = new SampleService(sampleRepository, sampleCache, sampleNameIndex, writeBehind(false), sampleTotal, sampleStore, lookupBatcher(false));
+
+        assertEquals(sampleService.getSampleById(2L), new Sample(2L, "Ana"));
+        assertEquals(sampleService.getSampleVersion(2L), Long.valueOf(3L));
+        Page<Sample> page = sampleService.getAllSamples(PageRequest.of(1, 1));
+        assertEquals(page.getContent(), List.of(new Sample(2L, "Ana")));
+        assertEquals(page.getTotalElements(), 2L);
+
+        sampleService.deleteSample(1L);
+
+        assertEquals(sampleService.getAllSamples(PageRequest.of(0, 1), SampleTotalMode.NONE).getContent(), List.of(new Sample(2L, "Ana")));
+        verify(sampleRepository, never()).findById(anyLong());
+        verify(sampleRepository, never()).findAll(any(Pageable.class));
+        thrown.expect(SampleNotFoundException.class);
+        sampleService.getSampleById(1L);
+    }
+
+    private SampleStore store(boolean enabled) {
+        return new SampleStore(sampleRepository, sampleCache, mock(PlatformTransactionManager.class), enabled, false, "", Duration.ZERO);
+    }
+
+    private SampleLookupBatcher lookupBatcher(boolean enabled) {
+        return new SampleLookupBatcher(sampleRepository, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), enabled,
+                Duration.ofMillis(2), 100, 4, Duration.ofSeconds(1));
+    }
+
+    private SampleWriteBehind writeBehind(boolean enabled) {
+        return new SampleWriteBehind(sampleRepository, sampleCache, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), enabled, 100, 100, Duration.ofMinutes(1), Duration.ofSeconds(1));
     }
-}
\ No newline at end of file
+}
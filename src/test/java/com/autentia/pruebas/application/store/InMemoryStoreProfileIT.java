@@ -0,0 +1,52 @@
+package com.autentia.pruebas.application.store;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:inmemorystoreit", "samples.store.snapshot.path="})
+@AutoConfigureMockMvc
+@ActiveProfiles("in-memory-store")
+public class InMemoryStoreProfileIT {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private SampleStore sampleStore;
+
+    @Test
+    public void servesSamplesAndTheirChangesFromTheStore() throws Exception {
+        assertTrue(sampleStore.isReady());
+        assertEquals(sampleStore.size(), 2);
+
+        mvc.perform(post("/samples").contentType(MediaType.APPLICATION_JSON).content("{\"id\":3,\"name\":\"Alex\"}"))
+                .andExpect(status().isCreated());
+        mvc.perform(put("/samples/1").contentType(MediaType.APPLICATION_JSON).content("{\"id\":1,\"name\":\"Juana\"}"))
+                .andExpect(status().isOk());
+        mvc.perform(delete("/samples/2"))
+                .andExpect(status().isNoContent());
+
+        mvc.perform(get("/samples/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.name").value("Juana"));
+        mvc.perform(get("/samples/2"))
+                .andExpect(status().isNotFound());
+        mvc.perform(get("/samples").param("size", "1").param("page", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Alex"))
+                .andExpect(jsonPath("$.totalElements").value(2));
+    }
+}
@@ -0,0 +1,100 @@
+package com.autentia.pruebas.application.store;
+
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleVersion;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+
+public class SampleRowsTest {
+
+    @Test
+    public void sampleRowsShouldKeepSamplesInIdOrderWhateverOrderTheyArrive() {
+        SampleRows rows = new SampleRows(0);
+        rows.put(3L, "Alex", 0L);
+        rows.put(1L, "Juan", 2L);
+        rows.put(2L, "Ana", 1L);
+
+        assertEquals(page(rows, 0, 10), List.of(new Sample(1L, "Juan"), new Sample(2L, "Ana"), new Sample(3L, "Alex")));
+        assertEquals(rows.get(1L).getVersion(), Long.valueOf(2L));
+        assertNull(rows.get(4L));
+    }
+
+    @Test
+    public void sampleRowsShouldPageAndSeekAroundDeletedRows() {
+        SampleRows rows = rows(6);
+        rows.remove(2L);
+        rows.remove(3L);
+
+        assertEquals(rows.size(), 4);
+        assertEquals(page(rows, 1, 2), List.of(new Sample(4L, "Sample 4"), new Sample(5L, "Sample 5")));
+        List<Sample> after = new ArrayList<>();
+        rows.after(1L, 2, after);
+        assertEquals(after, List.of(new Sample(4L, "Sample 4"), new Sample(5L, "Sample 5")));
+        List<SampleVersion> versions = new ArrayList<>();
+        rows.versions(3, 10, versions);
+        assertEquals(versions, List.of(new SampleVersion(6L, 0L)));
+    }
+
+    @Test
+    public void sampleRowsShouldShiftDeletedRowsWhenInsertingBeforeThem() {
+        SampleRows rows = new SampleRows(0);
+        rows.put(10L, "Juan", 0L);
+        rows.put(30L, "Ana", 0L);
+        rows.put(40L, "Alex", 0L);
+        rows.remove(30L);
+
+        rows.put(20L, "Eva", 0L);
+
+        assertEquals(page(rows, 1, 10), List.of(new Sample(20L, "Eva"), new Sample(40L, "Alex")));
+        rows.put(30L, "Ana", 5L);
+        assertEquals(page(rows, 2, 1), List.of(new Sample(30L, "Ana")));
+        assertEquals(rows.get(30L).getVersion(), Long.valueOf(5L));
+    }
+
+    @Test
+    public void sampleRowsShouldBumpTheVersionOnUpdateAndKeepNullNames() {
+        SampleRows rows = rows(1);
+
+        assertTrue(rows.update(1L, null));
+        assertFalse(rows.update(2L, "Ana"));
+        assertEquals(rows.get(1L), new Sample(1L, null));
+        assertEquals(rows.get(1L).getVersion(), Long.valueOf(1L));
+    }
+
+    @Test
+    public void sampleRowsShouldKeepNamesWhenCompacting() {
+        SampleRows rows = rows(3000);
+        for (long id = 1; id <= 3000; id++) {
+            rows.update(id, "Müller " + id);
+        }
+        for (long id = 1; id <= 3000; id += 2) {
+            rows.remove(id);
+        }
+        rows.compact();
+
+        assertEquals(rows.size(), 1500);
+        assertEquals(page(rows, 0, 2), List.of(new Sample(2L, "Müller 2"), new Sample(4L, "Müller 4")));
+        assertEquals(rows.get(3000L), new Sample(3000L, "Müller 3000"));
+    }
+
+    private static SampleRows rows(int samples) {
+        SampleRows rows = new SampleRows(samples);
+        for (long id = 1; id <= samples; id++) {
+            rows.put(id, "Sample " + id, 0L);
+        }
+        return rows;
+    }
+
+    private static List<Sample> page(SampleRows rows, long offset, int limit) {
+        List<Sample> samples = new ArrayList<>();
+        rows.page(offset, limit, samples);
+        return samples;
+    }
+}
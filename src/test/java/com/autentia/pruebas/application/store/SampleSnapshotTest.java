@@ -0,0 +1,66 @@
+package com.autentia.pruebas.application.store;
+
+import com.autentia.pruebas.application.model.Sample;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.fail;
+
+public class SampleSnapshotTest {
+    @Rule
+    public TemporaryFolder snapshotFolder = new TemporaryFolder();
+
+    @Test
+    public void sampleSnapshotShouldReadBackTheRowsItWrote() throws IOException {
+        SampleRows rows = new SampleRows(0);
+        rows.put(1L, "Juan", 3L);
+        rows.put(2L, null, 0L);
+        rows.put(3L, "", 1L);
+        rows.put(4L, "Müller", 0L);
+        rows.put(5L, "Ana", 0L);
+        rows.remove(4L);
+        Path path = snapshotFolder.getRoot().toPath().resolve("samples.snapshot");
+
+        assertEquals(write(rows, path), 4L);
+        SampleRows readRows = SampleSnapshot.read(path);
+
+        List<Sample> samples = new ArrayList<>();
+        readRows.page(0, 10, samples);
+        assertEquals(samples, List.of(new Sample(1L, "Juan"), new Sample(2L, null), new Sample(3L, ""), new Sample(5L, "Ana")));
+        assertEquals(readRows.get(1L).getVersion(), Long.valueOf(3L));
+        assertEquals(readRows.lastId(), 5L);
+    }
+
+    @Test
+    public void sampleSnapshotShouldRefuseTruncatedFiles() throws IOException {
+        SampleRows rows = new SampleRows(0);
+        rows.put(1L, "Juan", 0L);
+        Path path = snapshotFolder.getRoot().toPath().resolve("samples.snapshot");
+        write(rows, path);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+
+        try {
+            SampleSnapshot.read(path);
+            fail("Truncated snapshot was read");
+        } catch (IOException e) {
+            assertEquals(e.getMessage(), "Snapshot " + path + " is truncated or not a sample snapshot");
+        }
+    }
+
+    private static long write(SampleRows rows, Path path) throws IOException {
+        try (SampleSnapshot.Writer writer = SampleSnapshot.create(path)) {
+            rows.forEachAfter(Long.MIN_VALUE, Integer.MAX_VALUE, writer::write);
+            return writer.finish();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.autentia.pruebas.application.store;
+
+import com.autentia.pruebas.application.cache.LoopbackSampleInvalidationTransport;
+import com.autentia.pruebas.application.cache.SampleCache;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleVersion;
+import com.autentia.pruebas.application.repository.SampleRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class SampleStoreTest {
+    @Rule
+    public TemporaryFolder snapshotFolder = new TemporaryFolder();
+
+    private SampleRepository sampleRepository;
+    private LoopbackSampleInvalidationTransport transport;
+    private LoopbackSampleInvalidationTransport otherTransport;
+    private SampleCache otherNodeCache;
+    private SampleStore sampleStore;
+
+    @Before
+    public void init() {
+        sampleRepository = mock(SampleRepository.class);
+        when(sampleRepository.count()).thenReturn(2L);
+        when(sampleRepository.streamWithVersionByIdGreaterThan(Long.MIN_VALUE))
+                .thenReturn(Stream.of(new Sample(1L, "Juan", 0L), new Sample(2L, "Ana", 0L)));
+        transport = new LoopbackSampleInvalidationTransport("store-test");
+        otherTransport = new LoopbackSampleInvalidationTransport("store-test");
+        SampleCache sampleCache = new SampleCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1), Optional.empty(), Optional.of(transport));
+        otherNodeCache = new SampleCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1), Optional.empty(), Optional.of(otherTransport));
+        sampleStore = new SampleStore(sampleRepository, sampleCache, mock(PlatformTransactionManager.class), true, false, "", Duration.ZERO);
+    }
+
+    @After
+    public void close() {
+        sampleStore.close();
+        transport.close();
+        otherTransport.close();
+    }
+
+    @Test
+    public void sampleStoreShouldBeReadyOnceLoaded() {
+        assertFalse(sampleStore.isReady());
+
+        sampleStore.load();
+
+        assertTrue(sampleStore.isReady());
+        assertEquals(sampleStore.size(), 2);
+        Slice<Sample> samples = sampleStore.getAfter(Long.MIN_VALUE, 1);
+        assertEquals(samples.getContent(), List.of(new Sample(1L, "Juan")));
+        assertTrue(samples.hasNext());
+    }
+
+    @Test
+    public void sampleStoreShouldOnlyPageInIdOrder() {
+        assertTrue(SampleStore.canPage(PageRequest.of(0, 20)));
+        assertTrue(SampleStore.canPage(PageRequest.of(0, 20, Sort.by("id"))));
+        assertFalse(SampleStore.canPage(PageRequest.of(0, 20, Sort.by("name"))));
+        assertFalse(SampleStore.canPage(PageRequest.of(0, 20, Sort.by("id").descending())));
+    }
+
+    @Test
+    public void sampleStoreShouldReadAgainWhatOtherNodesChange() throws InterruptedException {
+        sampleStore.load();
+        when(sampleRepository.findById(2L)).thenReturn(Optional.of(new Sample(2L, "Alex", 1L)));
+        when(sampleRepository.findById(1L)).thenReturn(Optional.empty());
+
+        otherNodeCache.evict(2L);
+        otherNodeCache.evict(1L);
+
+        for (int attempt = 0; attempt < 100 && sampleStore.get(1L).isPresent(); attempt++) {
+            Thread.sleep(10);
+        }
+        assertEquals(sampleStore.get(2L).get().getName(), "Alex");
+        assertEquals(sampleStore.get(2L).get().getVersion(), Long.valueOf(1L));
+        assertFalse(sampleStore.get(1L).isPresent());
+    }
+
+    @Test
+    public void sampleStoreShouldKeepChangesMadeWhileLoading() {
+        when(sampleRepository.streamWithVersionByIdGreaterThan(Long.MIN_VALUE)).thenAnswer(invocation -> Stream.of(
+                new Sample(1L, "Juan", 0L), new Sample(2L, "Ana", 0L)).peek(sample -> {
+            if (sample.getId() == 1L) {
+                sampleStore.remove(1L);
+                sampleStore.put(new Sample(2L, "Alex", 1L));
+                sampleStore.put(new Sample(3L, "Eva", 0L));
+            }
+        }));
+
+        sampleStore.load();
+
+        assertEquals(sampleStore.size(), 2);
+        assertFalse(sampleStore.get(1L).isPresent());
+        assertEquals(sampleStore.get(2L).get().getName(), "Alex");
+        assertEquals(sampleStore.get(2L).get().getVersion(), Long.valueOf(1L));
+        assertEquals(sampleStore.get(3L).get().getName(), "Eva");
+    }
+
+    @Test
+    public void sampleStoreShouldNotOverwriteNewerWritesWithWhatOtherNodesChange() throws InterruptedException {
+        sampleStore.load();
+        when(sampleRepository.findById(2L)).thenAnswer(invocation -> {
+            sampleStore.put(new Sample(2L, "Eva", 2L));
+            return Optional.of(new Sample(2L, "Alex", 1L));
+        });
+        when(sampleRepository.findById(1L)).thenReturn(Optional.empty());
+
+        otherNodeCache.evict(2L);
+        otherNodeCache.evict(1L);
+
+        for (int attempt = 0; attempt < 100 && sampleStore.get(1L).isPresent(); attempt++) {
+            Thread.sleep(10);
+        }
+        assertFalse(sampleStore.get(1L).isPresent());
+        assertEquals(sampleStore.get(2L).get().getName(), "Eva");
+        assertEquals(sampleStore.get(2L).get().getVersion(), Long.valueOf(2L));
+    }
+
+    @Test
+    public void sampleStoreShouldWarmStartFromItsSnapshotAndCatchUpWithTheDatabase() throws InterruptedException {
+        String snapshotPath = snapshotFolder.getRoot().toPath().resolve("samples.snapshot").toString();
+        SampleStore previousStore = new SampleStore(sampleRepository, new SampleCache(1, Duration.ofMinutes(1), Duration.ofMinutes(1)),
+                mock(PlatformTransactionManager.class), true, false, snapshotPath, Duration.ofHours(1));
+        previousStore.load();
+        previousStore.writeSnapshot();
+        previousStore.close();
+        when(sampleRepository.streamVersionsByIdLessThanEqual(2L)).thenReturn(Stream.of(new SampleVersion(2L, 1L)));
+        when(sampleRepository.findAllById(List.of(2L))).thenReturn(List.of(new Sample(2L, "Alex", 1L)));
+        when(sampleRepository.findExistingIds(List.of(1L))).thenReturn(List.of());
+        when(sampleRepository.streamWithVersionByIdGreaterThan(2L)).thenReturn(Stream.of(new Sample(3L, "Eva", 0L)));
+        SampleStore warmStore = new SampleStore(sampleRepository, new SampleCache(1, Duration.ofMinutes(1), Duration.ofMinutes(1)),
+                mock(PlatformTransactionManager.class), true, false, snapshotPath, Duration.ofHours(1));
+
+        warmStore.load();
+
+        assertTrue(warmStore.isReady());
+        for (int attempt = 0; attempt < 100 && warmStore.get(3L).isEmpty(); attempt++) {
+            Thread.sleep(10);
+        }
+        warmStore.close();
+        verify(sampleRepository, times(1)).streamWithVersionByIdGreaterThan(Long.MIN_VALUE);
+        assertEquals(warmStore.size(), 2);
+        assertFalse(warmStore.get(1L).isPresent());
+        assertEquals(warmStore.get(2L).get().getName(), "Alex");
+        assertEquals(warmStore.get(2L).get().getVersion(), Long.valueOf(1L));
+        assertEquals(warmStore.get(3L).get().getName(), "Eva");
+    }
+}
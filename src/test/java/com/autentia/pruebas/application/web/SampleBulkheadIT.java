@@ -0,0 +1,31 @@
+package com.autentia.pruebas.application.web;
+
+import com.autentia.pruebas.application.exceptions.SampleOverloadedException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"samples.bulkhead.permits=0", "samples.bulkhead.max-waiting=0"})
+@ActiveProfiles("virtual-threads")
+@AutoConfigureMockMvc
+public class SampleBulkheadIT {
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    public void returnsSERVICEUNAVAILABLEWhenNoConnectionIsFree() throws Exception {
+        mvc.perform(get("/samples/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(content().string(SampleOverloadedException.ERROR_MESSAGE));
+    }
+}
@@ -0,0 +1,76 @@
+package com.autentia.pruebas.application.web;
+
+import com.autentia.pruebas.application.exceptions.SampleOverloadedException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.DispatcherType;
+import java.time.Duration;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class SampleBulkheadTest {
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Test
+    public void sampleBulkheadShouldRejectWhenNoPermitFreesUpInTime() throws SampleOverloadedException {
+        SampleBulkhead sampleBulkhead = new SampleBulkhead(1, 10, Duration.ofMillis(10));
+        sampleBulkhead.acquire();
+
+        expectedException.expect(SampleOverloadedException.class);
+        sampleBulkhead.acquire();
+    }
+
+    @Test
+    public void sampleBulkheadShouldRejectStraightAwayWhenQueueIsFull() throws SampleOverloadedException {
+        SampleBulkhead sampleBulkhead = new SampleBulkhead(1, 0, Duration.ofHours(1));
+        sampleBulkhead.acquire();
+
+        expectedException.expect(SampleOverloadedException.class);
+        sampleBulkhead.acquire();
+    }
+
+    @Test
+    public void sampleBulkheadShouldHandOverReleasedPermitToWaitingRequest() throws Exception {
+        SampleBulkhead sampleBulkhead = new SampleBulkhead(1, 10, Duration.ofSeconds(10));
+        sampleBulkhead.acquire();
+
+        Thread waitingRequest = new Thread(() -> {
+            try {
+                sampleBulkhead.acquire();
+            } catch (SampleOverloadedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        waitingRequest.start();
+        while (sampleBulkhead.waiting() == 0) {
+            Thread.sleep(1);
+        }
+        sampleBulkhead.release();
+        waitingRequest.join();
+
+        assertEquals(sampleBulkhead.waiting(), 0);
+        assertEquals(sampleBulkhead.availablePermits(), 0);
+    }
+
+    @Test
+    public void sampleBulkheadInterceptorShouldKeepPermitUntilAsyncRequestCompletes() throws Exception {
+        SampleBulkhead sampleBulkhead = new SampleBulkhead(1, 0, Duration.ZERO);
+        SampleBulkheadInterceptor interceptor = new SampleBulkheadInterceptor(sampleBulkhead);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/samples/export");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, null);
+        interceptor.afterConcurrentHandlingStarted(request, response, null);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        interceptor.preHandle(request, response, null);
+        assertEquals(sampleBulkhead.availablePermits(), 0);
+
+        interceptor.afterCompletion(request, response, null, null);
+        assertEquals(sampleBulkhead.availablePermits(), 1);
+    }
+}
@@ -2,9 +2,20 @@ package com.autentia.pruebas.application.web;
 
 import com.autentia.pruebas.application.exceptions.SampleAlreadyCreatedException;
 import com.autentia.pruebas.application.exceptions.SampleBadRequestException;
+import com.autentia.pruebas.application.exceptions.SampleInvalidCursorException;
 import com.autentia.pruebas.application.exceptions.SampleNotFoundException;
+import com.autentia.pruebas.application.exceptions.SampleOverloadedException;
+import com.autentia.pruebas.application.exceptions.SamplePreconditionFailedException;
+import com.autentia.pruebas.application.metrics.SampleMetrics;
 import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.model.SampleBatchResult;
+import com.autentia.pruebas.application.model.SampleBatchStatus;
+import com.autentia.pruebas.application.model.SampleCursorPage;
+import com.autentia.pruebas.application.model.SampleTotalMode;
+import com.autentia.pruebas.application.model.SampleVersion;
 import com.autentia.pruebas.application.service.SampleService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -13,18 +24,27 @@ import org.springframework.data.domain.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class SampleControllerTest {
 
     private SampleController sampleController;
     private SampleService sampleService;
+    private MeterRegistry meterRegistry;
 
     @Rule
     public ExpectedException thrown = ExpectedException.none();
@@ -32,7 +52,8 @@ public class SampleControllerTest {
     @Before
     public void init() {
         sampleService = mock(SampleService.class);
-        sampleController = new SampleController(sampleService);
+        meterRegistry = new SimpleMeterRegistry();
+        sampleController = new SampleController(sampleService, new SampleMetrics(meterRegistry));
     }
 
     @Test
@@ -44,10 +65,41 @@ public class SampleControllerTest {
 
         when(sampleService.getAllSamples(any(Pageable.class))).thenReturn(expectedSamples);
 
-        Page<Sample> samplesFound = sampleController.getAllSamples(pageRequest);
+        ResponseEntity<Page<Sample>> samplesFound = sampleController.getAllSamples(pageRequest, webRequest(null));
 
         verify(sampleService).getAllSamples(any(Pageable.class));
-        assertEquals(samplesFound, expectedSamples);
+        verify(sampleService, never()).getAllSampleVersions(any(Pageable.class));
+        assertEquals(samplesFound.getBody(), expectedSamples);
+    }
+
+    @Test
+    public void sampleControllerShouldAnswerNotModifiedWhenPageVersionsDidNotChange() {
+        Sample sample1 = new Sample(1L, "Juan", 0L);
+        Page<SampleVersion> versions = new PageImpl<>(List.of(SampleVersion.of(sample1)));
+        Pageable pageRequest = PageRequest.of(0, 10);
+        ServletWebRequest webRequest = webRequest(SampleETag.of(versions));
+
+        when(sampleService.getAllSampleVersions(pageRequest)).thenReturn(versions);
+
+        ResponseEntity<Page<Sample>> samplesFound = sampleController.getAllSamples(pageRequest, webRequest);
+
+        verify(sampleService, never()).getAllSamples(any(Pageable.class));
+        assertNull(samplesFound);
+        assertEquals(webRequest.getResponse().getStatus(), HttpStatus.NOT_MODIFIED.value());
+    }
+
+    @Test
+    public void sampleControllerShouldGetSamplesWithTheRequestedTotal() {
+        Pageable pageRequest = PageRequest.of(0, 1);
+        Slice<Sample> expectedSamples = new SliceImpl<>(List.of(new Sample(1L, "Juan", 0L)), pageRequest, true);
+
+        when(sampleService.getAllSamples(pageRequest, SampleTotalMode.NONE)).thenReturn(expectedSamples);
+
+        ResponseEntity<Slice<Sample>> samplesFound = sampleController.getAllSamples(pageRequest, SampleTotalMode.NONE, webRequest(null));
+
+        verify(sampleService, never()).getAllSamples(any(Pageable.class));
+        assertEquals(samplesFound.getBody(), expectedSamples);
+        assertEquals(samplesFound.getHeaders().getETag(), SampleETag.of(expectedSamples.map(SampleVersion::of)));
     }
 
     @Test
@@ -57,22 +109,87 @@ public class SampleControllerTest {
 
         when(sampleService.getAllSamples(any(Pageable.class))).thenReturn(emptySamples);
 
-        Page<Sample> samplesFound = sampleController.getAllSamples(pageRequest);
+        ResponseEntity<Page<Sample>> samplesFound = sampleController.getAllSamples(pageRequest, webRequest(null));
 
         verify(sampleService).getAllSamples(any(Pageable.class));
-        assertEquals(samplesFound, emptySamples);
+        assertEquals(samplesFound.getBody(), emptySamples);
     }
 
     @Test
-    public void sampleControllerShouldGetSampleWhenIdExists() throws SampleNotFoundException {
+    public void sampleControllerShouldGetSamplesAfterCursorAndReturnNextCursor() throws SampleInvalidCursorException {
         Sample sample1 = new Sample(1L, "Juan");
+        Sample sample2 = new Sample(2L, "Ana");
+        Slice<Sample> expectedSamples = new SliceImpl<>(List.of(sample1, sample2), PageRequest.of(0, 2), true);
+
+        when(sampleService.getSamplesAfter(null, 2)).thenReturn(expectedSamples);
+
+        SampleCursorPage samplesFound = sampleController.getSamplesAfter("", 2);
+
+        verify(sampleService).getSamplesAfter(null, 2);
+        assertEquals(samplesFound.getContent(), List.of(sample1, sample2));
+        assertEquals(SampleCursor.decode(samplesFound.getNext()), Long.valueOf(2L));
+    }
+
+    @Test
+    public void sampleControllerShouldNotReturnNextCursorOnLastSlice() throws SampleInvalidCursorException {
+        Sample sample2 = new Sample(2L, "Ana");
+        Slice<Sample> expectedSamples = new SliceImpl<>(List.of(sample2), PageRequest.of(0, 20), false);
+
+        when(sampleService.getSamplesAfter(1L, 20)).thenReturn(expectedSamples);
+
+        SampleCursorPage samplesFound = sampleController.getSamplesAfter(SampleCursor.encode(1L), 20);
+
+        verify(sampleService).getSamplesAfter(1L, 20);
+        assertEquals(samplesFound.getContent(), List.of(sample2));
+        assertNull(samplesFound.getNext());
+    }
+
+    @Test
+    public void sampleControllerShouldPageByCursorWhenTotalIsAlsoRequested() throws Exception {
+        when(sampleService.getSamplesAfter(1L, 20)).thenReturn(new SliceImpl<>(List.of(new Sample(2L, "Ana"))));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(sampleController).build();
+
+        mvc.perform(get("/samples").param("after", SampleCursor.encode(1L)).param("total", "CACHED"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Ana"));
+
+        verify(sampleService).getSamplesAfter(1L, 20);
+        verify(sampleService, never()).getAllSamples(any(Pageable.class), any(SampleTotalMode.class));
+    }
+
+    @Test
+    public void sampleControllerShouldRejectInvalidCursor() throws SampleInvalidCursorException {
+        thrown.expect(SampleInvalidCursorException.class);
+        thrown.expectMessage(SampleInvalidCursorException.ERROR_MESSAGE);
+        sampleController.getSamplesAfter("not a cursor", 20);
+
+        verify(sampleService, never()).getSamplesAfter(any(), anyInt());
+    }
+
+    @Test
+    public void sampleControllerShouldGetSampleWhenIdExists() throws SampleNotFoundException {
+        Sample sample1 = new Sample(1L, "Juan", 2L);
 
         when(sampleService.getSampleById(anyLong())).thenReturn(sample1);
 
-        Sample sampleFound = sampleController.getSampleById(1L);
+        ResponseEntity<Sample> sampleFound = sampleController.getSampleById(1L, webRequest(null));
 
         verify(sampleService).getSampleById(anyLong());
-        assertEquals(sampleFound, sample1);
+        assertEquals(sampleFound.getBody(), sample1);
+        assertEquals(sampleFound.getHeaders().getETag(), "\"2\"");
+    }
+
+    @Test
+    public void sampleControllerShouldAnswerNotModifiedFromVersionWithoutLoadingSample() throws SampleNotFoundException {
+        ServletWebRequest webRequest = webRequest("\"2\"");
+
+        when(sampleService.getSampleVersion(1L)).thenReturn(2L);
+
+        ResponseEntity<Sample> sampleFound = sampleController.getSampleById(1L, webRequest);
+
+        verify(sampleService, never()).getSampleById(anyLong());
+        assertNull(sampleFound);
+        assertEquals(webRequest.getResponse().getStatus(), HttpStatus.NOT_MODIFIED.value());
     }
 
     @Test
@@ -81,13 +198,14 @@ public class SampleControllerTest {
 
         thrown.expect(SampleNotFoundException.class);
         thrown.expectMessage(SampleNotFoundException.ERROR_MESSAGE);
-        sampleController.getSampleById(1L);
+        sampleController.getSampleById(1L, webRequest(null));
 
         verify(sampleService).getSampleById(anyLong());
     }
 
     @Test
-    public void sampleControllerShouldAddANewSampleWhenItDoesntAlreadyExist() throws SampleAlreadyCreatedException {
+    public void sampleControllerShouldAddANewSampleWhenItDoesntAlreadyExist()
+            throws SampleAlreadyCreatedException, SampleBadRequestException, SampleOverloadedException {
         Sample sample1 = new Sample(1L, "Juan");
         MockHttpServletRequest request = new MockHttpServletRequest();
         RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
@@ -101,7 +219,8 @@ public class SampleControllerTest {
     }
 
     @Test
-    public void sampleControllerShouldNotAddANewSampleWhenItAlreadyExists() throws SampleAlreadyCreatedException {
+    public void sampleControllerShouldNotAddANewSampleWhenItAlreadyExists()
+            throws SampleAlreadyCreatedException, SampleBadRequestException, SampleOverloadedException {
         Sample sample1 = new Sample(1L, "Juan");
 
         when(sampleService.addSample(sample1)).thenThrow(new SampleAlreadyCreatedException());
@@ -114,42 +233,63 @@ public class SampleControllerTest {
     }
 
     @Test
-    public void sampleControllerShouldUpdateASampleWhenItExists() throws SampleNotFoundException, SampleBadRequestException {
+    public void sampleControllerShouldUpdateASampleWhenItExists() throws Exception {
         String newName = "Ana";
-        Sample sample2 = new Sample(1L, newName);
+        Sample sample2 = new Sample(1L, newName, 1L);
 
-        when(sampleService.updateSample(any(Sample.class))).thenReturn(sample2);
+        when(sampleService.updateSample(any(Sample.class), isNull())).thenReturn(sample2);
 
-        Sample sampleUpdated = sampleController.updateSample(sample2.getId(), sample2);
+        ResponseEntity<Sample> sampleUpdated = sampleController.updateSample(sample2.getId(), null, sample2);
 
-        verify(sampleService).updateSample(any(Sample.class));
-        assertEquals(sampleUpdated, sample2);
+        verify(sampleService).updateSample(any(Sample.class), isNull());
+        assertEquals(sampleUpdated.getBody(), sample2);
+        assertEquals(sampleUpdated.getHeaders().getETag(), "\"1\"");
     }
 
     @Test
-    public void sampleControllerShouldNotUpdateASampleWhenItDoesNotExists() throws SampleNotFoundException, SampleBadRequestException {
+    public void sampleControllerShouldPassIfMatchVersionToService() throws Exception {
+        Sample sample2 = new Sample(1L, "Ana");
+
+        when(sampleService.updateSample(sample2, 4L)).thenReturn(new Sample(1L, "Ana", 5L));
+
+        ResponseEntity<Sample> sampleUpdated = sampleController.updateSample(1L, "\"4\"", sample2);
+
+        verify(sampleService).updateSample(sample2, 4L);
+        assertEquals(sampleUpdated.getHeaders().getETag(), "\"5\"");
+    }
+
+    @Test
+    public void sampleControllerShouldRejectWeakIfMatch() throws Exception {
+        thrown.expect(SamplePreconditionFailedException.class);
+        sampleController.updateSample(1L, "W/\"4\"", new Sample(1L, "Ana"));
+
+        verify(sampleService, never()).updateSample(any(Sample.class), any());
+    }
+
+    @Test
+    public void sampleControllerShouldNotUpdateASampleWhenItDoesNotExists() throws Exception {
         String newName = "Ana";
         Sample sample2 = new Sample(1L, newName);
 
-        when(sampleService.updateSample(any(Sample.class))).thenThrow(new SampleNotFoundException());
+        when(sampleService.updateSample(any(Sample.class), isNull())).thenThrow(new SampleNotFoundException());
 
         thrown.expect(SampleNotFoundException.class);
         thrown.expectMessage(SampleNotFoundException.ERROR_MESSAGE);
-        sampleController.updateSample(sample2.getId(), sample2);
+        sampleController.updateSample(sample2.getId(), null, sample2);
 
-        verify(sampleService).updateSample(any(Sample.class));
+        verify(sampleService).updateSample(any(Sample.class), isNull());
     }
 
     @Test
-    public void sampleControllerShouldNotUpdateASampleWhenSampleIdAndUrlIdDoesntMatch() throws SampleNotFoundException, SampleBadRequestException {
+    public void sampleControllerShouldNotUpdateASampleWhenSampleIdAndUrlIdDoesntMatch() throws Exception {
         String newName = "Ana";
         Sample sample2 = new Sample(1L, newName);
 
         thrown.expect(SampleBadRequestException.class);
         thrown.expectMessage(SampleBadRequestException.ERROR_MESSAGE);
-        sampleController.updateSample(2L, sample2);
+        sampleController.updateSample(2L, null, sample2);
 
-        verify(sampleService, never()).updateSample(any(Sample.class));
+        verify(sampleService, never()).updateSample(any(Sample.class), any());
     }
 
     @Test
@@ -172,9 +312,64 @@ public class SampleControllerTest {
         verify(sampleService).deleteSample(1L);
     }
 
+    @Test
+    public void sampleControllerShouldAddSamplesInBatch() throws SampleBadRequestException {
+        List<Sample> samples = List.of(new Sample(1L, "Juan"), new Sample(3L, "Alex"));
+        List<SampleBatchResult> expectedResults = List.of(
+                new SampleBatchResult(1L, SampleBatchStatus.CONFLICT),
+                new SampleBatchResult(3L, SampleBatchStatus.CREATED));
+
+        when(sampleService.addSamples(samples)).thenReturn(expectedResults);
+
+        List<SampleBatchResult> results = sampleController.addSamples(samples);
+
+        verify(sampleService).addSamples(samples);
+        assertEquals(results, expectedResults);
+    }
+
+    @Test
+    public void sampleControllerShouldUpdateSamplesInBatch() throws SampleBadRequestException {
+        List<Sample> samples = List.of(new Sample(1L, "Ana"));
+        List<SampleBatchResult> expectedResults = List.of(new SampleBatchResult(1L, SampleBatchStatus.UPDATED));
+
+        when(sampleService.updateSamples(samples)).thenReturn(expectedResults);
+
+        List<SampleBatchResult> results = sampleController.updateSamples(samples);
+
+        verify(sampleService).updateSamples(samples);
+        assertEquals(results, expectedResults);
+    }
+
+    @Test
+    public void sampleControllerShouldRejectBatchSamplesWithoutId() throws SampleBadRequestException {
+        List<Sample> samples = List.of(new Sample(1L, "Ana"), new Sample(null, "Alex"));
+
+        thrown.expect(SampleBadRequestException.class);
+        thrown.expectMessage(SampleBadRequestException.MISSING_ID_MESSAGE);
+
+        try {
+            sampleController.updateSamples(samples);
+        } finally {
+            verifyNoInteractions(sampleService);
+        }
+    }
+
+    @Test
+    public void sampleControllerShouldDeleteSamplesInBatch() throws SampleBadRequestException {
+        List<Sample> samples = List.of(new Sample(3L, "Alex"));
+        List<SampleBatchResult> expectedResults = List.of(new SampleBatchResult(3L, SampleBatchStatus.NOT_FOUND));
+
+        when(sampleService.deleteSamples(samples)).thenReturn(expectedResults);
+
+        List<SampleBatchResult> results = sampleController.deleteSamples(samples);
+
+        verify(sampleService).deleteSamples(samples);
+        assertEquals(results, expectedResults);
+    }
+
     @Test
     public void sampleControllerShouldHandleSampleNotFoundException() {
-        ResponseEntity<Object> result = sampleController.sampleNotFoundException();
+        ResponseEntity<Object> result = sampleController.sampleNotFoundException(new SampleNotFoundException());
 
         assertEquals(result.getBody(), SampleNotFoundException.ERROR_MESSAGE);
         assertEquals(result.getStatusCode(), HttpStatus.NOT_FOUND);
@@ -182,7 +377,7 @@ public class SampleControllerTest {
 
     @Test
     public void sampleControllerShouldHandleSampleAlreadyCreatedException() {
-        ResponseEntity<Object> result = sampleController.sampleAlreadyCreatedException();
+        ResponseEntity<Object> result = sampleController.sampleAlreadyCreatedException(new SampleAlreadyCreatedException());
 
         assertEquals(result.getBody(), SampleAlreadyCreatedException.ERROR_MESSAGE);
         assertEquals(result.getStatusCode(), HttpStatus.BAD_REQUEST);
@@ -190,9 +385,35 @@ public class SampleControllerTest {
 
     @Test
     public void sampleControllerShouldHandleSampleBadRequestException() {
-        ResponseEntity<Object> result = sampleController.sampleBadRequestException();
+        ResponseEntity<Object> result = sampleController.sampleBadRequestException(new SampleBadRequestException());
 
         assertEquals(result.getBody(), SampleBadRequestException.ERROR_MESSAGE);
         assertEquals(result.getStatusCode(), HttpStatus.BAD_REQUEST);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void sampleControllerShouldHandleSampleInvalidCursorException() {
+        ResponseEntity<Object> result = sampleController.sampleInvalidCursorException(new SampleInvalidCursorException());
+
+        assertEquals(result.getBody(), SampleInvalidCursorException.ERROR_MESSAGE);
+        assertEquals(result.getStatusCode(), HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void sampleControllerShouldCountHandledExceptionsByType() {
+        sampleController.sampleNotFoundException(new SampleNotFoundException());
+        sampleController.sampleNotFoundException(new SampleNotFoundException());
+        sampleController.sampleBadRequestException(new SampleBadRequestException());
+
+        assertEquals(meterRegistry.counter(SampleMetrics.ERRORS_COUNTER, "exception", "SampleNotFoundException").count(), 2.0);
+        assertEquals(meterRegistry.counter(SampleMetrics.ERRORS_COUNTER, "exception", "SampleBadRequestException").count(), 1.0);
+    }
+
+    private static ServletWebRequest webRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/samples");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
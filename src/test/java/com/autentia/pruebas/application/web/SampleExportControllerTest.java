@@ -0,0 +1,123 @@
+package com.autentia.pruebas.application.web;
+
+import com.autentia.pruebas.application.datasource.PrimaryStickiness;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.service.SampleService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class SampleExportControllerTest {
+    private SampleExportController sampleExportController;
+    private SampleService sampleService;
+
+    @Before
+    public void init() {
+        sampleService = mock(SampleService.class);
+        sampleExportController = new SampleExportController(sampleService,
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT),
+                new MappingJackson2CborHttpMessageConverter(), new MappingJackson2SmileHttpMessageConverter());
+    }
+
+    @Test
+    public void sampleExportControllerShouldWriteOneCompactLinePerSample() throws Exception {
+        exportTwoSamples();
+
+        ResponseEntity<StreamingResponseBody> response = sampleExportController.exportSamples(null, null);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+
+        verify(sampleService).exportSamples(eq(null), any(Consumer.class));
+        assertEquals(outputStream.toString(StandardCharsets.UTF_8),
+                "{\"id\":1,\"name\":\"Juan\"}\n{\"id\":2,\"name\":\"Ana\"}\n");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void sampleExportControllerShouldResumeAfterGivenId() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = sampleExportController.exportSamples(1L, null);
+        response.getBody().writeTo(new ByteArrayOutputStream());
+
+        verify(sampleService).exportSamples(eq(1L), any(Consumer.class));
+        assertEquals(response.getHeaders().getContentType(), MediaType.APPLICATION_NDJSON);
+    }
+
+    @Test
+    public void sampleExportControllerShouldWriteACborSequenceWhenAccepted() throws Exception {
+        exportTwoSamples();
+
+        ResponseEntity<StreamingResponseBody> response = sampleExportController.exportSamples(null,
+                "application/x-ndjson;q=0, application/cbor-seq");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+
+        List<Sample> samples = new CBORMapper().readerFor(Sample.class)
+                .<Sample>readValues(outputStream.toByteArray()).readAll();
+        assertEquals(response.getHeaders().getContentType(), SampleExportController.APPLICATION_CBOR_SEQ);
+        assertEquals(samples, List.of(new Sample(1L, "Juan"), new Sample(2L, "Ana")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void sampleExportControllerShouldReadFromThePrimaryOnTheStreamingThreadWhenTheRequestIsSticky() throws Exception {
+        boolean[] stickyWhileExporting = {false};
+        doAnswer(invocation -> {
+            stickyWhileExporting[0] = PrimaryStickiness.isSticky();
+            return null;
+        }).when(sampleService).exportSamples(eq(null), any(Consumer.class));
+
+        PrimaryStickiness.stick();
+        ResponseEntity<StreamingResponseBody> response;
+        try {
+            response = sampleExportController.exportSamples(null, null);
+        } finally {
+            PrimaryStickiness.release();
+        }
+        ExecutorService streamingThread = Executors.newSingleThreadExecutor();
+        try {
+            boolean stickyAfterwards = streamingThread.submit(() -> {
+                response.getBody().writeTo(new ByteArrayOutputStream());
+                return PrimaryStickiness.isSticky();
+            }).get(5, TimeUnit.SECONDS);
+
+            assertTrue(stickyWhileExporting[0]);
+            assertFalse(stickyAfterwards);
+        } finally {
+            streamingThread.shutdown();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void exportTwoSamples() {
+        doAnswer(invocation -> {
+            Consumer<Sample> consumer = invocation.getArgument(1);
+            consumer.accept(new Sample(1L, "Juan"));
+            consumer.accept(new Sample(2L, "Ana"));
+            return null;
+        }).when(sampleService).exportSamples(eq(null), any(Consumer.class));
+    }
+}
@@ -0,0 +1,49 @@
+package com.autentia.pruebas.application.writebehind;
+
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.repository.SampleRepository;
+import com.autentia.pruebas.application.service.SampleService;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {"samples.write-behind.enabled=true", "samples.write-behind.flush-interval=1h"})
+public class SampleWriteBehindIT {
+    @Autowired
+    private SampleService sampleService;
+
+    @Autowired
+    private SampleWriteBehind sampleWriteBehind;
+
+    @Autowired
+    private SampleRepository sampleRepository;
+
+    @After
+    public void cleanUp() {
+        sampleWriteBehind.flush();
+        sampleRepository.deleteSampleById(100L);
+    }
+
+    @Test
+    public void bufferedWritesShouldBeReadableAndReachTheDatabaseOnFlush() throws Exception {
+        sampleService.addSample(new Sample(100L, "Alex"));
+        sampleService.updateSample(new Sample(100L, "Alejandro"));
+
+        assertFalse(sampleRepository.existsById(100L));
+        assertEquals(sampleService.getSampleById(100L).getName(), "Alejandro");
+
+        sampleWriteBehind.flush();
+
+        Sample storedSample = sampleRepository.findById(100L).get();
+        assertEquals(storedSample.getName(), "Alejandro");
+        assertEquals(storedSample.getVersion(), Long.valueOf(0L));
+        assertEquals(sampleService.getSampleVersion(100L), Long.valueOf(0L));
+    }
+}
@@ -0,0 +1,189 @@
+package com.autentia.pruebas.application.writebehind;
+
+import com.autentia.pruebas.application.cache.SampleCache;
+import com.autentia.pruebas.application.exceptions.SampleOverloadedException;
+import com.autentia.pruebas.application.metrics.SampleMetrics;
+import com.autentia.pruebas.application.model.Sample;
+import com.autentia.pruebas.application.repository.SampleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+public class SampleWriteBehindTest {
+    private SampleRepository sampleRepository;
+    private MeterRegistry meterRegistry;
+    private SampleWriteBehind sampleWriteBehind;
+
+    @Before
+    public void init() {
+        sampleRepository = mock(SampleRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        sampleWriteBehind = writeBehind(100, 2);
+    }
+
+    @Test
+    public void sampleWriteBehindShouldCoalesceWritesToTheSameSample() throws SampleOverloadedException {
+        sampleWriteBehind.create(new Sample(1L, "Juan"));
+        sampleWriteBehind.update(new Sample(1L, "Ana"));
+        sampleWriteBehind.update(new Sample(1L, "Alex"));
+
+        sampleWriteBehind.flush();
+
+        verify(sampleRepository).insertAll(List.of(new Sample(1L, "Alex")));
+        verify(sampleRepository).updateAll(List.of());
+    }
+
+    @Test
+    public void sampleWriteBehindShouldRejectASecondCreateOfTheSameSample() throws SampleOverloadedException {
+        assertTrue(sampleWriteBehind.create(new Sample(1L, "Juan")));
+        assertFalse(sampleWriteBehind.create(new Sample(1L, "Ana")));
+        assertEquals(sampleWriteBehind.get(1L).getName(), "Juan");
+    }
+
+    @Test
+    public void sampleWriteBehindShouldWriteInBatchesAndForgetFlushedSamples() throws SampleOverloadedException {
+        sampleWriteBehind.update(new Sample(1L, "Juan"));
+        sampleWriteBehind.update(new Sample(2L, "Ana"));
+        sampleWriteBehind.update(new Sample(3L, "Alex"));
+
+        sampleWriteBehind.flush();
+
+        verify(sampleRepository).updateAll(List.of(new Sample(1L, "Juan"), new Sample(2L, "Ana")));
+        verify(sampleRepository).updateAll(List.of(new Sample(3L, "Alex")));
+        assertNull(sampleWriteBehind.get(1L));
+        assertEquals(sampleWriteBehind.size(), 0);
+        assertEquals(meterRegistry.get(SampleMetrics.WRITE_BEHIND_FLUSH_TIMER).timer().count(), 2L);
+    }
+
+    @Test
+    public void sampleWriteBehindShouldDropCreatesOfSamplesThatAlreadyExist() throws SampleOverloadedException {
+        when(sampleRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+
+        sampleWriteBehind.create(new Sample(1L, "Juan"));
+        sampleWriteBehind.create(new Sample(2L, "Ana"));
+        sampleWriteBehind.flush();
+
+        verify(sampleRepository).insertAll(List.of(new Sample(2L, "Ana")));
+        assertEquals(meterRegistry.get(SampleMetrics.WRITE_BEHIND_DROPPED_COUNTER).counter().count(), 1.0);
+    }
+
+    @Test
+    public void sampleWriteBehindShouldKeepWritesThatFailedToFlush() throws SampleOverloadedException {
+        when(sampleRepository.updateAll(anyCollection()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused")).thenReturn(new int[]{1});
+
+        sampleWriteBehind.update(new Sample(1L, "Juan"));
+        try {
+            sampleWriteBehind.flush();
+            fail();
+        } catch (DataAccessResourceFailureException e) {
+            assertEquals(sampleWriteBehind.get(1L).getName(), "Juan");
+        }
+        sampleWriteBehind.update(new Sample(1L, "Ana"));
+        sampleWriteBehind.flush();
+
+        verify(sampleRepository).updateAll(List.of(new Sample(1L, "Juan")));
+        verify(sampleRepository).updateAll(List.of(new Sample(1L, "Ana")));
+        assertEquals(meterRegistry.get(SampleMetrics.WRITE_BEHIND_PENDING_GAUGE).gauge().value(), 0.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void sampleWriteBehindShouldDropSamplesTheDatabaseRefusesAndWriteTheRest() throws SampleOverloadedException {
+        sampleWriteBehind = writeBehind(100, 4);
+        when(sampleRepository.updateAll(anyCollection())).thenAnswer(invocation -> {
+            List<Sample> samples = List.copyOf((Collection<Sample>) invocation.getArgument(0));
+            if (samples.contains(new Sample(2L, "Nombre demasiado largo"))) {
+                throw new DataIntegrityViolationException("Value too long for column NAME");
+            }
+            return new int[samples.size()];
+        });
+
+        sampleWriteBehind.update(new Sample(1L, "Juan"));
+        sampleWriteBehind.update(new Sample(2L, "Nombre demasiado largo"));
+        sampleWriteBehind.update(new Sample(3L, "Alex"));
+        sampleWriteBehind.update(new Sample(4L, "Eva"));
+        sampleWriteBehind.flush();
+
+        verify(sampleRepository).updateAll(List.of(new Sample(1L, "Juan")));
+        verify(sampleRepository).updateAll(List.of(new Sample(3L, "Alex"), new Sample(4L, "Eva")));
+        assertNull(sampleWriteBehind.get(2L));
+        assertEquals(sampleWriteBehind.size(), 0);
+        assertEquals(meterRegistry.get(SampleMetrics.WRITE_BEHIND_DROPPED_COUNTER).counter().count(), 1.0);
+    }
+
+    @Test
+    public void sampleWriteBehindShouldBlockWritersWhenFull() throws Exception {
+        sampleWriteBehind = writeBehind(1, 1);
+        sampleWriteBehind.update(new Sample(1L, "Juan"));
+        sampleWriteBehind.update(new Sample(1L, "Ana"));
+
+        CompletableFuture<Void> blockedWrite = CompletableFuture.runAsync(() -> {
+            try {
+                sampleWriteBehind.update(new Sample(2L, "Alex"));
+            } catch (SampleOverloadedException e) {
+                throw new CompletionException(e);
+            }
+        });
+        Thread.sleep(50);
+        assertFalse(blockedWrite.isDone());
+
+        sampleWriteBehind.flush();
+        blockedWrite.get(1, TimeUnit.SECONDS);
+        sampleWriteBehind.flush();
+
+        verify(sampleRepository).updateAll(List.of(new Sample(1L, "Ana")));
+        verify(sampleRepository).updateAll(List.of(new Sample(2L, "Alex")));
+    }
+
+    @Test
+    public void sampleWriteBehindShouldRejectWritersThatWaitTooLong() throws Exception {
+        sampleWriteBehind = new SampleWriteBehind(sampleRepository, new SampleCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1)),
+                mock(PlatformTransactionManager.class), meterRegistry, true, 1, 1, Duration.ofMinutes(1), Duration.ofMillis(50));
+        sampleWriteBehind.update(new Sample(1L, "Juan"));
+
+        try {
+            sampleWriteBehind.update(new Sample(2L, "Alex"));
+            fail();
+        } catch (SampleOverloadedException e) {
+            assertEquals(e.getMessage(), SampleOverloadedException.ERROR_MESSAGE);
+        }
+        assertNull(sampleWriteBehind.get(2L));
+    }
+
+    @Test
+    public void sampleWriteBehindShouldDrainOnStop() throws Exception {
+        sampleWriteBehind.start();
+        sampleWriteBehind.create(new Sample(1L, "Juan"));
+
+        sampleWriteBehind.stop();
+
+        verify(sampleRepository).insertAll(List.of(new Sample(1L, "Juan")));
+        assertEquals(sampleWriteBehind.size(), 0);
+    }
+
+    private SampleWriteBehind writeBehind(int capacity, int batchSize) {
+        return new SampleWriteBehind(sampleRepository, new SampleCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1)),
+                mock(PlatformTransactionManager.class), meterRegistry, true, capacity, batchSize, Duration.ofMinutes(1),
+                Duration.ofSeconds(1));
+    }
+}